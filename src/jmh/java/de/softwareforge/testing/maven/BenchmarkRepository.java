@@ -0,0 +1,174 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+
+/**
+ * Generates a file based remote repository and an empty local repository for benchmarks.
+ */
+final class BenchmarkRepository implements Closeable {
+
+    static final String GROUP_ID = "de.softwareforge.testing.benchmark";
+
+    // only the newest versions of each artifact have files, all versions are listed in the metadata
+    private static final int VERSIONS_WITH_FILES = 10;
+
+    private final Path root;
+    private final Path remoteRepositoryPath;
+    private final Path localRepositoryPath;
+    private final List<String> versions;
+    private final int artifactCount;
+
+    static BenchmarkRepository create(int artifactCount, int versionCount) throws IOException {
+        BenchmarkRepository repository = new BenchmarkRepository(artifactCount, versionCount);
+        repository.populate();
+        return repository;
+    }
+
+    /**
+     * Generates a sorted list of distinct version strings with a mix of release, snapshot and qualified versions.
+     */
+    static List<String> createVersionStrings(int versionCount) {
+        List<String> versions = new ArrayList<>(versionCount);
+        for (int i = 0; i < versionCount; i++) {
+            String version = format("%d.%d.%d", i / 500, (i / 50) % 10, i % 50);
+            if (i % 7 == 0) {
+                version += "-SNAPSHOT";
+            } else if (i % 11 == 0) {
+                version += "-rc1";
+            }
+            versions.add(version);
+        }
+        return versions;
+    }
+
+    static List<Version> createVersions(int versionCount) throws InvalidVersionSpecificationException {
+        GenericVersionScheme versionScheme = new GenericVersionScheme();
+        List<Version> versions = new ArrayList<>(versionCount);
+        for (String version : createVersionStrings(versionCount)) {
+            versions.add(versionScheme.parseVersion(version));
+        }
+        versions.sort(Comparator.naturalOrder());
+        return versions;
+    }
+
+    static String artifactId(int index) {
+        return format("artifact-%04d", index);
+    }
+
+    private BenchmarkRepository(int artifactCount, int versionCount) throws IOException {
+        this.root = Files.createTempDirectory("maven-loader-benchmark");
+        this.remoteRepositoryPath = root.resolve("remote");
+        this.localRepositoryPath = root.resolve("local");
+        this.artifactCount = artifactCount;
+
+        List<String> releaseVersions = new ArrayList<>();
+        for (String version : createVersionStrings(versionCount)) {
+            if (!version.endsWith("-SNAPSHOT")) {
+                releaseVersions.add(version);
+            }
+        }
+        this.versions = releaseVersions;
+    }
+
+    RemoteRepository remoteRepository() {
+        return new RemoteRepository.Builder("benchmark", "default", remoteRepositoryPath.toUri().toString()).build();
+    }
+
+    File localRepository() {
+        return localRepositoryPath.toFile();
+    }
+
+    String latestVersion() {
+        return versions.get(versions.size() - 1);
+    }
+
+    /**
+     * Removes all downloaded files from the local repository.
+     */
+    void clearLocalRepository() throws IOException {
+        deleteRecursively(localRepositoryPath);
+        Files.createDirectories(localRepositoryPath);
+    }
+
+    @Override
+    public void close() throws IOException {
+        deleteRecursively(root);
+    }
+
+    private void populate() throws IOException {
+        Files.createDirectories(localRepositoryPath);
+
+        for (int i = 0; i < artifactCount; i++) {
+            String artifactId = artifactId(i);
+            Path artifactPath = remoteRepositoryPath.resolve(GROUP_ID.replace('.', '/')).resolve(artifactId);
+            Files.createDirectories(artifactPath);
+
+            StringBuilder metadata = new StringBuilder()
+                    .append("<metadata>\n")
+                    .append("  <groupId>").append(GROUP_ID).append("</groupId>\n")
+                    .append("  <artifactId>").append(artifactId).append("</artifactId>\n")
+                    .append("  <versioning>\n")
+                    .append("    <latest>").append(latestVersion()).append("</latest>\n")
+                    .append("    <release>").append(latestVersion()).append("</release>\n")
+                    .append("    <versions>\n");
+            for (String version : versions) {
+                metadata.append("      <version>").append(version).append("</version>\n");
+            }
+            metadata.append("    </versions>\n")
+                    .append("  </versioning>\n")
+                    .append("</metadata>\n");
+            Files.write(artifactPath.resolve("maven-metadata.xml"), metadata.toString().getBytes(UTF_8));
+
+            for (String version : versions.subList(Math.max(0, versions.size() - VERSIONS_WITH_FILES), versions.size())) {
+                Path versionPath = Files.createDirectories(artifactPath.resolve(version));
+                String pom = format("<project><modelVersion>4.0.0</modelVersion><groupId>%s</groupId><artifactId>%s</artifactId><version>%s</version></project>",
+                        GROUP_ID, artifactId, version);
+                Files.write(versionPath.resolve(format("%s-%s.pom", artifactId, version)), pom.getBytes(UTF_8));
+                Files.write(versionPath.resolve(format("%s-%s.jar", artifactId, version)), new byte[64 * 1024]);
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            List<Path> deletions = new ArrayList<>();
+            paths.sorted(Comparator.reverseOrder()).forEach(deletions::add);
+            for (Path deletion : deletions) {
+                Files.delete(deletion);
+            }
+        }
+    }
+}
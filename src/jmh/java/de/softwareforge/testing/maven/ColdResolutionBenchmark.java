@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures downloading artifacts from a generated file based repository into an empty local repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class ColdResolutionBenchmark {
+
+    @Param({"50"})
+    public int artifactCount;
+
+    private BenchmarkRepository repository;
+    private MavenArtifactLoader loader;
+    private List<MavenArtifactCoordinates> coordinates;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.repository = BenchmarkRepository.create(artifactCount, 100);
+
+        this.coordinates = new ArrayList<>(artifactCount);
+        for (int i = 0; i < artifactCount; i++) {
+            coordinates.add(MavenArtifactCoordinates.of(BenchmarkRepository.GROUP_ID, BenchmarkRepository.artifactId(i), repository.latestVersion()));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void clearLocalRepository() throws IOException {
+        repository.clearLocalRepository();
+        this.loader = MavenArtifactLoader.newBuilder()
+                .remoteRepositories(List.of(repository.remoteRepository()))
+                .localRepository(repository.localRepository())
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+    }
+
+    @Benchmark
+    public void getArtifactFileCold() throws IOException {
+        for (MavenArtifactCoordinates coordinate : coordinates) {
+            loader.getArtifactFile(coordinate.groupId(), coordinate.artifactId(), coordinate.version());
+        }
+    }
+
+    @Benchmark
+    public MavenBatchResult getArtifactFilesCold() {
+        return loader.getArtifactFiles(coordinates);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures loader construction, version lookups and artifact resolution against a generated file based repository. No network access is needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ResolutionBenchmark {
+
+    @Param({"50"})
+    public int artifactCount;
+
+    @Param({"2000"})
+    public int versionCount;
+
+    private BenchmarkRepository repository;
+
+    private MavenArtifactLoader cachingLoader;
+    private MavenArtifactLoader uncachedLoader;
+
+    private int artifactIndex = 0;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.repository = BenchmarkRepository.create(artifactCount, versionCount);
+
+        this.cachingLoader = loaderBuilder().build();
+        this.uncachedLoader = loaderBuilder()
+                .versionCacheTtl(Duration.ZERO)
+                .build();
+
+        // download metadata and artifacts once for the warm benchmarks
+        for (int i = 0; i < artifactCount; i++) {
+            cachingLoader.builder(BenchmarkRepository.GROUP_ID, BenchmarkRepository.artifactId(i)).findAll();
+            cachingLoader.getArtifactFile(BenchmarkRepository.GROUP_ID, BenchmarkRepository.artifactId(i), repository.latestVersion());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        repository.close();
+    }
+
+    @Benchmark
+    public MavenArtifactLoader createLoader() {
+        return loaderBuilder().build();
+    }
+
+    @Benchmark
+    public LinkedList<String> findAllUncached() throws IOException {
+        return uncachedLoader.builder(BenchmarkRepository.GROUP_ID, nextArtifactId())
+                .partialMatch("1.2")
+                .findAll();
+    }
+
+    @Benchmark
+    public LinkedList<String> findAllCached() throws IOException {
+        return cachingLoader.builder(BenchmarkRepository.GROUP_ID, nextArtifactId())
+                .partialMatch("1.2")
+                .findAll();
+    }
+
+    @Benchmark
+    public Optional<String> findBestMatchUncached() throws IOException {
+        return uncachedLoader.builder(BenchmarkRepository.GROUP_ID, nextArtifactId())
+                .semVerMajor(1)
+                .findBestMatch();
+    }
+
+    @Benchmark
+    public Optional<String> findBestMatchCached() throws IOException {
+        return cachingLoader.builder(BenchmarkRepository.GROUP_ID, nextArtifactId())
+                .semVerMajor(1)
+                .findBestMatch();
+    }
+
+    @Benchmark
+    public File getArtifactFileWarm() throws IOException {
+        return cachingLoader.getArtifactFile(BenchmarkRepository.GROUP_ID, nextArtifactId(), repository.latestVersion());
+    }
+
+    private MavenArtifactLoaderBuilder loaderBuilder() {
+        return MavenArtifactLoader.newBuilder()
+                .remoteRepositories(List.of(repository.remoteRepository()))
+                .localRepository(repository.localRepository());
+    }
+
+    private String nextArtifactId() {
+        artifactIndex = (artifactIndex + 1) % artifactCount;
+        return BenchmarkRepository.artifactId(artifactIndex);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the cost of matching a list of versions against the version strategies. Each invocation matches all versions once. Version keys are
+ * created in the setup, as the loader caches them with the version list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VersionMatchBenchmark {
+
+    @Param({"100", "5000"})
+    public int versionCount;
+
+    private List<Version> versions;
+    private List<VersionKey> versionKeys;
+
+    private VersionStrategy partialMatch;
+    private VersionStrategy exactMatch;
+    private VersionStrategy semVerMajor;
+    private VersionStrategy semVerMinor;
+
+    @Setup
+    public void setUp() throws InvalidVersionSpecificationException {
+        this.versions = BenchmarkRepository.createVersions(versionCount);
+        this.versionKeys = new ArrayList<>(versions.size());
+        for (Version version : versions) {
+            versionKeys.add(VersionKey.of(version));
+        }
+
+        this.partialMatch = VersionStrategy.partialMatch("0.1");
+        this.exactMatch = VersionStrategy.exactMatch("0.1.10");
+        this.semVerMajor = VersionStrategy.semVerMatchMajor(0);
+        this.semVerMinor = VersionStrategy.semVerMatchMinor(0, 1);
+    }
+
+    @Benchmark
+    public void partialMatch(Blackhole blackhole) {
+        match(partialMatch, blackhole);
+    }
+
+    @Benchmark
+    public void exactMatch(Blackhole blackhole) {
+        match(exactMatch, blackhole);
+    }
+
+    @Benchmark
+    public void semVerMajor(Blackhole blackhole) {
+        match(semVerMajor, blackhole);
+    }
+
+    @Benchmark
+    public void semVerMinor(Blackhole blackhole) {
+        match(semVerMinor, blackhole);
+    }
+
+    @Benchmark
+    public void snapshotCheck(Blackhole blackhole) {
+        for (VersionKey versionKey : versionKeys) {
+            blackhole.consume(versionKey.isSnapshot());
+        }
+    }
+
+    @Benchmark
+    public void createVersionKeys(Blackhole blackhole) {
+        for (Version version : versions) {
+            blackhole.consume(VersionKey.of(version));
+        }
+    }
+
+    private void match(VersionStrategy versionStrategy, Blackhole blackhole) {
+        for (VersionKey versionKey : versionKeys) {
+            blackhole.consume(versionStrategy.matchVersion(versionKey));
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.lang.String.format;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.aether.RequestTrace;
+import org.eclipse.aether.transfer.AbstractTransferListener;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferListener;
+import org.eclipse.aether.transfer.TransferResource;
+
+/**
+ * An input stream that returns the bytes of an artifact while it is downloaded.
+ * <p>
+ * The stream is attached to the {@link RequestTrace} of the artifact request. The {@link #TRANSFER_LISTENER} finds it in the trace of each transfer
+ * and forwards the downloaded data of the artifact. Other transfers for the same request, e.g. of the repository metadata, are recognized by their
+ * resource name and ignored. When the resolution completes, any bytes that were not seen in a transfer (e.g. because the artifact was already
+ * in the local repository) are read from the resolved file. If the resolution fails, e.g. because the checksum of the download does not match, the
+ * stream throws an exception after the bytes that were already returned.
+ */
+final class ArtifactStream extends InputStream {
+
+    /**
+     * Forwards transfer data to the artifact stream in the trace of the transfer.
+     */
+    static final TransferListener TRANSFER_LISTENER = new AbstractTransferListener() {
+
+        @Override
+        public void transferStarted(TransferEvent event) {
+            ArtifactStream artifactStream = find(event.getResource());
+            if (artifactStream != null) {
+                artifactStream.transferStarted();
+            }
+        }
+
+        @Override
+        public void transferProgressed(TransferEvent event) {
+            ArtifactStream artifactStream = find(event.getResource());
+            if (artifactStream != null) {
+                artifactStream.transferData(event.getDataBuffer());
+            }
+        }
+    };
+
+    private static final int QUEUE_CAPACITY = 64;
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    // byte arrays with the transferred data, followed by the resolved File or an IOException
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    // producer state, modified by the resolver threads
+    private long bytesTransferred = 0;
+    private boolean transferStarted = false;
+    private boolean transferInterrupted = false;
+
+    // consumer state
+    private byte[] currentChunk = null;
+    private int currentPosition = 0;
+    private InputStream fileStream = null;
+    private IOException failure = null;
+    private boolean endOfStream = false;
+
+    private volatile boolean closed = false;
+    // the path of the artifact in the remote repository, null until the version of the artifact is known
+    private volatile String resourceName = null;
+
+    RequestTrace trace() {
+        return new RequestTrace(this);
+    }
+
+    /**
+     * Sets the path of the artifact in the remote repository. Only transfers of this resource are forwarded to the stream.
+     */
+    void expect(String resourceName) {
+        this.resourceName = resourceName;
+    }
+
+    synchronized void transferStarted() {
+        // a second transfer of the same artifact (e.g. a retry) would repeat bytes, so stop forwarding and read the rest from the file
+        transferInterrupted = transferStarted;
+        transferStarted = true;
+    }
+
+    void transferData(ByteBuffer dataBuffer) {
+        byte[] chunk;
+        synchronized (this) {
+            if (transferInterrupted || closed || !dataBuffer.hasRemaining()) {
+                return;
+            }
+            chunk = new byte[dataBuffer.remaining()];
+            dataBuffer.get(chunk);
+            bytesTransferred += chunk.length;
+        }
+        put(chunk);
+    }
+
+    /**
+     * Called when the artifact was resolved. The remaining bytes are read from the artifact file.
+     */
+    void complete(File artifactFile) {
+        put(artifactFile);
+    }
+
+    /**
+     * Called when the artifact could not be resolved.
+     */
+    void fail(IOException e) {
+        put(e);
+    }
+
+    private void put(Object item) {
+        try {
+            while (!closed) {
+                if (queue.offer(item, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] buffer = new byte[1];
+        int count = read(buffer, 0, 1);
+        return count == -1 ? -1 : buffer[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (closed) {
+            throw new IOException("stream is closed");
+        }
+        if (length == 0) {
+            return 0;
+        }
+
+        while (true) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (endOfStream) {
+                return -1;
+            }
+            if (fileStream != null) {
+                int count = fileStream.read(buffer, offset, length);
+                endOfStream = count == -1;
+                return count;
+            }
+            if (currentChunk != null && currentPosition < currentChunk.length) {
+                int count = Math.min(length, currentChunk.length - currentPosition);
+                System.arraycopy(currentChunk, currentPosition, buffer, offset, count);
+                currentPosition += count;
+                return count;
+            }
+
+            nextItem();
+        }
+    }
+
+    private void nextItem() throws IOException {
+        Object item;
+        try {
+            item = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for artifact data");
+        }
+
+        if (item instanceof byte[]) {
+            currentChunk = (byte[]) item;
+            currentPosition = 0;
+        } else if (item instanceof File) {
+            openFile((File) item);
+        } else {
+            IOException cause = (IOException) item;
+            failure = new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    private void openFile(File artifactFile) throws IOException {
+        long skip;
+        synchronized (this) {
+            skip = bytesTransferred;
+        }
+
+        InputStream inputStream = Files.newInputStream(artifactFile.toPath());
+        try {
+            if (inputStream.skip(skip) != skip) {
+                throw new IOException(format("Artifact file %s is shorter than the %d bytes transferred", artifactFile, skip));
+            }
+        } catch (IOException e) {
+            inputStream.close();
+            throw e;
+        }
+        fileStream = inputStream;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            queue.clear();
+            if (fileStream != null) {
+                fileStream.close();
+            }
+        }
+    }
+
+    private static ArtifactStream find(TransferResource resource) {
+        for (RequestTrace current = resource.getTrace(); current != null; current = current.getParent()) {
+            if (current.getData() instanceof ArtifactStream) {
+                ArtifactStream artifactStream = (ArtifactStream) current.getData();
+                return resource.getResourceName().equals(artifactStream.resourceName) ? artifactStream : null;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Helpers to run blocking loader operations asynchronously.
+ */
+final class AsyncSupport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncSupport.class);
+
+    private AsyncSupport() {
+        throw new AssertionError("do not instantiate");
+    }
+
+    /**
+     * Returns the default executor for asynchronous operations. Uses virtual threads if the runtime supports them, otherwise a cached pool of daemon
+     * threads.
+     */
+    static ExecutorService defaultExecutor() {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+
+    /**
+     * Runs a blocking operation on the given executor. The returned future completes exceptionally with the exception thrown by the operation.
+     */
+    static <T> CompletableFuture<T> supplyAsync(IOSupplier<T> supplier, Executor executor) {
+        requireNonNull(supplier, "supplier is null");
+        requireNonNull(executor, "executor is null");
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(supplier.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RuntimeException e) {
+            // e.g. RejectedExecutionException
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @FunctionalInterface
+    interface IOSupplier<T> {
+
+        T get() throws IOException;
+    }
+
+    private static final class DefaultExecutorHolder {
+
+        private static final ExecutorService EXECUTOR = createDefaultExecutor();
+
+        private static ExecutorService createDefaultExecutor() {
+            try {
+                // Java 21+, not available at compile time
+                Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) method.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                LOG.debug("Virtual threads not available, using platform threads");
+            }
+
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "maven-loader-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,662 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Unpacks archives into directories named after the checksum of the archive and keeps them for reuse.
+ * <p>
+ * Each archive is extracted into a temporary directory that is renamed when the extraction is complete. An exclusive lock per archive keeps multiple
+ * processes from extracting the same archive at the same time. When the total size of all extracted archives exceeds the maximum size, the least
+ * recently used directories are removed.
+ * <p>
+ * A directory that was returned to a caller is in use until the process exits, the process holds a shared lock on the lock file of the archive for
+ * this time. Directories in use by this or another process are never removed.
+ */
+final class ExtractionCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExtractionCache.class);
+
+    private static final String COMPLETE_SUFFIX = ".complete";
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final int TAR_BLOCK_SIZE = 512;
+
+    private static final int ZIP_END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP_CENTRAL_DIRECTORY_SIGNATURE = 0x02014b50;
+    private static final int ZIP_END_SIZE = 22;
+    private static final int ZIP_MAX_COMMENT_SIZE = 0xffff;
+    private static final int ZIP_HOST_UNIX = 3;
+
+    private final Path cacheDirectory;
+    private final long maximumSize;
+    private final Executor executor;
+    private final SingleFlight<String, Path> extractions = new SingleFlight<>();
+    // shared locks on the archives whose directories were returned by this cache, keyed by checksum
+    private final ConcurrentMap<String, FileLocks.Lock> inUse = new ConcurrentHashMap<>();
+
+    ExtractionCache(File cacheDirectory, long maximumSize, Executor executor) {
+        this.cacheDirectory = requireNonNull(cacheDirectory, "cacheDirectory is null").toPath();
+        this.maximumSize = maximumSize;
+        this.executor = requireNonNull(executor, "executor is null");
+    }
+
+    /**
+     * Returns the directory with the extracted contents of an archive. Extracts the archive if it is not in the cache.
+     */
+    Path extract(File archiveFile, String extension) throws IOException {
+        requireNonNull(archiveFile, "archiveFile is null");
+        requireNonNull(extension, "extension is null");
+
+        ArchiveFormat archiveFormat = ArchiveFormat.forExtension(extension);
+        String checksum = checksum(archiveFile);
+
+        return extractions.run(checksum, () -> {
+            Path targetDirectory = cacheDirectory.resolve(checksum);
+            Path completeMarker = cacheDirectory.resolve(checksum + COMPLETE_SUFFIX);
+            Path lockFile = cacheDirectory.resolve(checksum + LOCK_SUFFIX);
+
+            while (true) {
+                if (Files.exists(completeMarker) && use(checksum, lockFile, completeMarker)) {
+                    // the modification time of the marker is the last use of the directory
+                    Files.setLastModifiedTime(completeMarker, FileTime.fromMillis(System.currentTimeMillis()));
+                    cleanup();
+                    return targetDirectory;
+                }
+
+                FileLocks.Lock lock = FileLocks.exclusive(lockFile);
+                try {
+                    // another process may have extracted the archive while this process waited for the lock
+                    if (!Files.exists(completeMarker)) {
+                        long size = extractArchive(archiveFile.toPath(), archiveFormat, targetDirectory);
+                        Files.write(completeMarker, Long.toString(size).getBytes(UTF_8));
+                    }
+                } finally {
+                    lock.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * Marks the directory of an archive as in use. Returns false if the directory was removed before it could be locked.
+     */
+    private boolean use(String checksum, Path lockFile, Path completeMarker) throws IOException {
+        if (inUse.containsKey(checksum)) {
+            return true;
+        }
+
+        FileLocks.Lock lock = FileLocks.shared(lockFile);
+        if (!Files.exists(completeMarker)) {
+            lock.close();
+            return false;
+        }
+        inUse.put(checksum, lock);
+        return true;
+    }
+
+    private long extractArchive(Path archiveFile, ArchiveFormat archiveFormat, Path targetDirectory) throws IOException {
+        Path tempDirectory = cacheDirectory.resolve(targetDirectory.getFileName() + TEMP_SUFFIX);
+        deleteRecursively(tempDirectory);
+        // a directory without complete marker is left over from an earlier, failed extraction
+        deleteRecursively(targetDirectory);
+
+        Files.createDirectories(tempDirectory);
+        long size;
+        try {
+            if (archiveFormat == ArchiveFormat.ZIP) {
+                size = extractZip(archiveFile, tempDirectory);
+            } else {
+                size = extractTar(archiveFile, archiveFormat == ArchiveFormat.TAR_GZ, tempDirectory);
+            }
+            Files.move(tempDirectory, targetDirectory, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            deleteRecursively(tempDirectory);
+        }
+        return size;
+    }
+
+    private long extractZip(Path archiveFile, Path directory) throws IOException {
+        try (ZipFile zipFile = new ZipFile(archiveFile.toFile())) {
+            List<ZipEntry> fileEntries = new ArrayList<>();
+            Map<String, Integer> modes = readUnixModes(archiveFile);
+            long size = 0;
+
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                Path path = resolveEntry(directory, entry.getName());
+                if (entry.isDirectory()) {
+                    Files.createDirectories(path);
+                } else {
+                    Files.createDirectories(path.getParent());
+                    fileEntries.add(entry);
+                    size += Math.max(0, entry.getSize());
+                }
+            }
+
+            // entries are inflated in parallel, each task extracts every n-th file
+            int taskCount = Math.max(1, Math.min(fileEntries.size(), Runtime.getRuntime().availableProcessors()));
+            List<CompletableFuture<Void>> tasks = new ArrayList<>(taskCount);
+            for (int i = 0; i < taskCount; i++) {
+                int firstEntry = i;
+                tasks.add(AsyncSupport.supplyAsync(() -> {
+                    for (int j = firstEntry; j < fileEntries.size(); j += taskCount) {
+                        ZipEntry entry = fileEntries.get(j);
+                        Path path = resolveEntry(directory, entry.getName());
+                        try (InputStream input = zipFile.getInputStream(entry)) {
+                            Files.copy(input, path);
+                        }
+                        setExecutable(path, modes.getOrDefault(entry.getName(), 0));
+                    }
+                    return null;
+                }, executor));
+            }
+
+            try {
+                CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw e;
+            }
+            return size;
+        }
+    }
+
+    private static long extractTar(Path archiveFile, boolean compressed, Path directory) throws IOException {
+        try (InputStream fileInput = Files.newInputStream(archiveFile);
+                DataInputStream input = new DataInputStream(new BufferedInputStream(compressed ? new GZIPInputStream(fileInput, 65536) : fileInput,
+                        65536))) {
+
+            byte[] header = new byte[TAR_BLOCK_SIZE];
+            Map<String, String> paxHeaders = Collections.emptyMap();
+            String longName = null;
+            String longLinkName = null;
+            // links are created after all files, so that no file is written through a link
+            Map<Path, String> links = new LinkedHashMap<>();
+            long size = 0;
+
+            while (true) {
+                try {
+                    input.readFully(header);
+                } catch (EOFException e) {
+                    // some archivers omit the end of archive blocks
+                    break;
+                }
+                if (isZeroBlock(header)) {
+                    break;
+                }
+
+                char type = (char) header[156];
+                long entrySize = parseNumber(header, 124, 12);
+
+                if (type == 'L' || type == 'K' || type == 'x' || type == 'g') {
+                    byte[] data = new byte[Math.toIntExact(entrySize)];
+                    input.readFully(data);
+                    skipPadding(input, entrySize);
+
+                    if (type == 'L') {
+                        longName = trimNul(new String(data, UTF_8));
+                    } else if (type == 'K') {
+                        longLinkName = trimNul(new String(data, UTF_8));
+                    } else if (type == 'x') {
+                        paxHeaders = parsePaxHeaders(data);
+                    }
+                    // global pax headers ('g') are ignored
+                    continue;
+                }
+
+                String name = paxHeaders.getOrDefault("path", longName);
+                if (name == null) {
+                    name = parseString(header, 0, 100);
+                    String prefix = parseString(header, 345, 155);
+                    if (isUstar(header) && !prefix.isEmpty()) {
+                        name = prefix + '/' + name;
+                    }
+                }
+                String linkName = paxHeaders.getOrDefault("linkpath", longLinkName);
+                if (linkName == null) {
+                    linkName = parseString(header, 157, 100);
+                }
+                int mode = (int) parseNumber(header, 100, 8);
+                if (paxHeaders.containsKey("size")) {
+                    entrySize = Long.parseLong(paxHeaders.get("size"));
+                }
+
+                paxHeaders = Collections.emptyMap();
+                longName = null;
+                longLinkName = null;
+
+                Path path = resolveEntry(directory, name);
+                long remaining = entrySize;
+                if (type == '5') {
+                    Files.createDirectories(path);
+                } else if (type == '0' || type == '\0' || type == '7') {
+                    Files.createDirectories(path.getParent());
+                    try (OutputStream output = Files.newOutputStream(path)) {
+                        copy(input, output, entrySize);
+                    }
+                    setExecutable(path, mode);
+                    size += entrySize;
+                    remaining = 0;
+                } else if (type == '2') {
+                    if (path.getFileSystem().getPath(linkName).isAbsolute()) {
+                        throw new IOException(format("Archive entry %s links outside of the target directory", name));
+                    }
+                    links.put(path, linkName);
+                } else {
+                    LOG.debug(format("Skipping unsupported tar entry %s (type %c)", name, type));
+                }
+
+                skipFully(input, remaining);
+                skipPadding(input, entrySize);
+            }
+
+            createLinks(directory, links);
+            return size;
+        }
+    }
+
+    /**
+     * Creates the symbolic links of an archive. A link can escape the target directory through other links, e.g. "c" to "a/b/.." with "a/b" to "..",
+     * so the links are checked against the real paths of their targets after all of them exist.
+     */
+    private static void createLinks(Path directory, Map<Path, String> links) throws IOException {
+        Path realDirectory = directory.toRealPath();
+        for (Map.Entry<Path, String> link : links.entrySet()) {
+            Path path = link.getKey();
+            // the parent directory must not be reached through a link that was created before
+            if (!realPath(path.getParent()).startsWith(realDirectory)) {
+                throw new IOException(format("Archive entry %s is outside of the target directory", directory.relativize(path)));
+            }
+            Files.createDirectories(path.getParent());
+            Files.createSymbolicLink(path, path.getFileSystem().getPath(link.getValue()));
+        }
+        for (Path path : links.keySet()) {
+            if (!realPath(path.getParent().resolve(Files.readSymbolicLink(path))).startsWith(realDirectory)) {
+                throw new IOException(format("Archive entry %s links outside of the target directory", directory.relativize(path)));
+            }
+        }
+    }
+
+    // the real path of a file or of its nearest existing parent, following all links
+    private static Path realPath(Path path) throws IOException {
+        for (Path existing = path; existing != null; existing = existing.getParent()) {
+            if (Files.exists(existing)) {
+                return existing.toRealPath();
+            }
+        }
+        return path.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Returns the unix file modes of the entries of a zip archive, keyed by entry name. The modes are stored in the central directory, which is not
+     * available from {@link ZipFile}. Entries from archives that were not created on a unix system have no mode.
+     */
+    private static Map<String, Integer> readUnixModes(Path archiveFile) {
+        Map<String, Integer> modes = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(archiveFile, StandardOpenOption.READ)) {
+            // the end of central directory record is followed by a comment of up to 64k
+            long tailSize = Math.min(channel.size(), ZIP_END_SIZE + ZIP_MAX_COMMENT_SIZE);
+            ByteBuffer tail = read(channel, channel.size() - tailSize, (int) tailSize);
+            int end = -1;
+            for (int i = (int) tailSize - ZIP_END_SIZE; i >= 0; i--) {
+                if (tail.getInt(i) == ZIP_END_SIGNATURE) {
+                    end = i;
+                    break;
+                }
+            }
+            if (end < 0) {
+                return modes;
+            }
+
+            long directorySize = Integer.toUnsignedLong(tail.getInt(end + 12));
+            long directoryOffset = Integer.toUnsignedLong(tail.getInt(end + 16));
+            if (directoryOffset == 0xffffffffL && end >= 20 && tail.getInt(end - 20) == ZIP64_END_LOCATOR_SIGNATURE) {
+                ByteBuffer zip64End = read(channel, tail.getLong(end - 12), 56);
+                if (zip64End.getInt(0) != ZIP64_END_SIGNATURE) {
+                    return modes;
+                }
+                directorySize = zip64End.getLong(40);
+                directoryOffset = zip64End.getLong(48);
+            }
+
+            ByteBuffer directory = read(channel, directoryOffset, Math.toIntExact(directorySize));
+            int position = 0;
+            while (position + 46 <= directory.limit() && directory.getInt(position) == ZIP_CENTRAL_DIRECTORY_SIGNATURE) {
+                int host = (directory.getShort(position + 4) >> 8) & 0xff;
+                int nameLength = directory.getShort(position + 28) & 0xffff;
+                int extraLength = directory.getShort(position + 30) & 0xffff;
+                int commentLength = directory.getShort(position + 32) & 0xffff;
+                int externalAttributes = directory.getInt(position + 38);
+                if (host == ZIP_HOST_UNIX) {
+                    byte[] name = new byte[nameLength];
+                    directory.position(position + 46).get(name);
+                    modes.put(new String(name, UTF_8), (externalAttributes >>> 16) & 07777);
+                }
+                position += 46 + nameLength + extraLength + commentLength;
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.debug(format("Could not read file modes from %s", archiveFile), e);
+        }
+        return modes;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("unexpected end of zip archive");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Removes the least recently used directories until the cache is smaller than the maximum size. Directories that are in use by this or another
+     * process are kept.
+     */
+    private void cleanup() {
+        try {
+            Map<Path, Long> sizes = new HashMap<>();
+            List<Path> markers = new ArrayList<>();
+            long totalSize = 0;
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDirectory, "*" + COMPLETE_SUFFIX)) {
+                for (Path marker : stream) {
+                    long size = Long.parseLong(new String(Files.readAllBytes(marker), UTF_8).trim());
+                    sizes.put(marker, size);
+                    markers.add(marker);
+                    totalSize += size;
+                }
+            }
+
+            if (totalSize <= maximumSize) {
+                return;
+            }
+
+            Map<Path, FileTime> lastUse = new HashMap<>();
+            for (Path marker : markers) {
+                lastUse.put(marker, Files.getLastModifiedTime(marker));
+            }
+            markers.sort((left, right) -> lastUse.get(left).compareTo(lastUse.get(right)));
+
+            for (Path marker : markers) {
+                if (totalSize <= maximumSize) {
+                    return;
+                }
+
+                String fileName = marker.getFileName().toString();
+                String checksum = fileName.substring(0, fileName.length() - COMPLETE_SUFFIX.length());
+
+                FileLocks.Lock lock = FileLocks.tryExclusive(cacheDirectory.resolve(checksum + LOCK_SUFFIX));
+                if (lock == null) {
+                    // in use or extracted right now
+                    continue;
+                }
+                try {
+                    // remove the marker first, so an interrupted removal is not mistaken for a complete directory
+                    Files.deleteIfExists(marker);
+                    deleteRecursively(cacheDirectory.resolve(checksum));
+                    totalSize -= sizes.get(marker);
+                } finally {
+                    lock.close();
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            LOG.warn(format("Could not clean up extraction cache %s", cacheDirectory), e);
+        }
+    }
+
+    private static String checksum(File archiveFile) throws IOException {
+        // the resolver stores the checksum of a downloaded artifact next to it
+        File checksumFile = new File(archiveFile.getPath() + ".sha1");
+        if (checksumFile.isFile()) {
+            String checksum = new String(Files.readAllBytes(checksumFile.toPath()), UTF_8).trim().toLowerCase(Locale.ROOT);
+            if (checksum.length() >= 40 && checksum.substring(0, 40).chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+                return checksum.substring(0, 40);
+            }
+        }
+
+        try (InputStream input = Files.newInputStream(archiveFile.toPath())) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] buffer = new byte[65536];
+            int count;
+            while ((count = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, count);
+            }
+
+            StringBuilder checksum = new StringBuilder();
+            for (byte b : digest.digest()) {
+                checksum.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return checksum.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not supported", e);
+        }
+    }
+
+    // prevents archive entries from escaping the target directory, e.g. with "../"
+    private static Path resolveEntry(Path directory, String name) throws IOException {
+        Path path = directory.resolve(name).normalize();
+        if (!path.startsWith(directory)) {
+            throw new IOException(format("Archive entry %s is outside of the target directory", name));
+        }
+        return path;
+    }
+
+    private static void setExecutable(Path path, int mode) throws IOException {
+        if ((mode & 0100) != 0 && path.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(path);
+            permissions.add(PosixFilePermission.OWNER_EXECUTE);
+            if ((mode & 0010) != 0) {
+                permissions.add(PosixFilePermission.GROUP_EXECUTE);
+            }
+            if ((mode & 0001) != 0) {
+                permissions.add(PosixFilePermission.OTHERS_EXECUTE);
+            }
+            Files.setPosixFilePermissions(path, permissions);
+        }
+    }
+
+    private static void copy(InputStream input, OutputStream output, long length) throws IOException {
+        byte[] buffer = new byte[65536];
+        long remaining = length;
+        while (remaining > 0) {
+            int count = input.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (count == -1) {
+                throw new EOFException("unexpected end of tar archive");
+            }
+            output.write(buffer, 0, count);
+            remaining -= count;
+        }
+    }
+
+    private static void skipPadding(InputStream input, long entrySize) throws IOException {
+        skipFully(input, (TAR_BLOCK_SIZE - entrySize % TAR_BLOCK_SIZE) % TAR_BLOCK_SIZE);
+    }
+
+    private static void skipFully(InputStream input, long length) throws IOException {
+        long remaining = length;
+        while (remaining > 0) {
+            long count = input.skip(remaining);
+            if (count <= 0) {
+                if (input.read() == -1) {
+                    throw new EOFException("unexpected end of tar archive");
+                }
+                count = 1;
+            }
+            remaining -= count;
+        }
+    }
+
+    private static boolean isZeroBlock(byte[] block) {
+        for (byte b : block) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isUstar(byte[] header) {
+        return parseString(header, 257, 5).equals("ustar");
+    }
+
+    private static String parseString(byte[] header, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, UTF_8);
+    }
+
+    private static long parseNumber(byte[] header, int offset, int length) {
+        if ((header[offset] & 0x80) != 0) {
+            // base-256 encoding for large values
+            long value = header[offset] & 0x7f;
+            for (int i = offset + 1; i < offset + length; i++) {
+                value = (value << 8) | (header[i] & 0xff);
+            }
+            return value;
+        }
+
+        String value = parseString(header, offset, length).trim();
+        return value.isEmpty() ? 0 : Long.parseLong(value, 8);
+    }
+
+    private static Map<String, String> parsePaxHeaders(byte[] data) {
+        // records are "<length> <key>=<value>\n", the length includes the whole record
+        Map<String, String> headers = new HashMap<>();
+        int position = 0;
+        while (position < data.length) {
+            int space = position;
+            while (space < data.length && data[space] != ' ') {
+                space++;
+            }
+            if (space == data.length) {
+                break;
+            }
+            int length = Integer.parseInt(new String(data, position, space - position, UTF_8));
+            String record = new String(data, space + 1, position + length - space - 2, UTF_8);
+            int equals = record.indexOf('=');
+            if (equals > 0) {
+                headers.put(record.substring(0, equals), record.substring(equals + 1));
+            }
+            position += length;
+        }
+        return headers;
+    }
+
+    private static String trimNul(String value) {
+        int nul = value.indexOf('\0');
+        return nul == -1 ? value : value.substring(0, nul);
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        Files.walkFileTree(path, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                if (e != null) {
+                    throw e;
+                }
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private enum ArchiveFormat {
+        ZIP, TAR, TAR_GZ;
+
+        static ArchiveFormat forExtension(String extension) throws IOException {
+            switch (extension.toLowerCase(Locale.ROOT)) {
+                case "zip":
+                case "jar":
+                case "war":
+                case "ear":
+                    return ZIP;
+                case "tar":
+                    return TAR;
+                case "tar.gz":
+                case "tgz":
+                    return TAR_GZ;
+                default:
+                    throw new IOException(format("Can not extract artifacts with extension '%s'", extension));
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shared and exclusive locks on a lock file that work across processes and between threads and loaders of the same process.
+ * <p>
+ * A process can hold only one lock on a file, a second lock from the same process fails with an {@link java.nio.channels.OverlappingFileLockException}.
+ * The locks of a process are therefore coordinated in memory: the first shared lock of the process acquires the file lock and the last one releases it,
+ * an exclusive lock waits until no other lock of the process is held. Shared locks are not bound to a thread and can be released by any thread.
+ */
+final class FileLocks {
+
+    // lock states are kept for the lifetime of the process, there is one per lock file
+    private static final ConcurrentMap<Path, LockState> LOCK_STATES = new ConcurrentHashMap<>();
+
+    private FileLocks() {
+        throw new AssertionError("do not instantiate");
+    }
+
+    /**
+     * Acquires an exclusive lock, waits until no other thread or process holds a lock on the file.
+     */
+    static Lock exclusive(Path lockFile) throws IOException {
+        LockState lockState = lockState(lockFile);
+        lockState.acquireExclusive(true);
+        try {
+            FileChannel channel = open(lockState.lockFile);
+            try {
+                channel.lock();
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            return new Lock(() -> {
+                try {
+                    channel.close();
+                } finally {
+                    lockState.releaseExclusive();
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            lockState.releaseExclusive();
+            throw e;
+        }
+    }
+
+    /**
+     * Acquires an exclusive lock if no other thread or process holds a lock on the file.
+     *
+     * @return The lock or null if the file is locked.
+     */
+    static Lock tryExclusive(Path lockFile) throws IOException {
+        LockState lockState = lockState(lockFile);
+        if (!lockState.acquireExclusive(false)) {
+            return null;
+        }
+        try {
+            FileChannel channel = open(lockState.lockFile);
+            FileLock fileLock;
+            try {
+                fileLock = channel.tryLock();
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            if (fileLock == null) {
+                channel.close();
+                lockState.releaseExclusive();
+                return null;
+            }
+            return new Lock(() -> {
+                try {
+                    channel.close();
+                } finally {
+                    lockState.releaseExclusive();
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            lockState.releaseExclusive();
+            throw e;
+        }
+    }
+
+    /**
+     * Acquires a shared lock, waits while another thread or process holds an exclusive lock on the file.
+     */
+    static Lock shared(Path lockFile) throws IOException {
+        LockState lockState = lockState(lockFile);
+        lockState.acquireShared();
+        return new Lock(lockState::releaseShared);
+    }
+
+    private static LockState lockState(Path lockFile) throws IOException {
+        Path path = requireNonNull(lockFile, "lockFile is null").toAbsolutePath().normalize();
+        Files.createDirectories(path.getParent());
+        return LOCK_STATES.computeIfAbsent(path, LockState::new);
+    }
+
+    private static FileChannel open(Path lockFile) throws IOException {
+        // shared locks need a readable channel, exclusive locks a writable one
+        return FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * A lock on a lock file. Closing the lock releases it, closing it again has no effect.
+     */
+    static final class Lock implements Closeable {
+
+        private final Release release;
+        private boolean released = false;
+
+        private Lock(Release release) {
+            this.release = release;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (!released) {
+                released = true;
+                release.release();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Release {
+
+        void release() throws IOException;
+    }
+
+    private static final class LockState {
+
+        private final Path lockFile;
+
+        // guarded by this
+        private boolean exclusive = false;
+        private int sharedCount = 0;
+        // the channel that holds the shared file lock while sharedCount is positive
+        private FileChannel sharedChannel = null;
+
+        private LockState(Path lockFile) {
+            this.lockFile = lockFile;
+        }
+
+        private synchronized boolean acquireExclusive(boolean wait) throws IOException {
+            while (exclusive || sharedCount > 0) {
+                if (!wait) {
+                    return false;
+                }
+                await();
+            }
+            exclusive = true;
+            return true;
+        }
+
+        private synchronized void releaseExclusive() {
+            exclusive = false;
+            notifyAll();
+        }
+
+        private synchronized void acquireShared() throws IOException {
+            while (exclusive) {
+                await();
+            }
+            if (sharedCount == 0) {
+                // other threads wait on the monitor while this thread waits for an exclusive lock of another process to be released
+                FileChannel channel = open(lockFile);
+                try {
+                    channel.lock(0, Long.MAX_VALUE, true);
+                } catch (IOException | RuntimeException e) {
+                    channel.close();
+                    throw e;
+                }
+                sharedChannel = channel;
+            }
+            sharedCount++;
+        }
+
+        private synchronized void releaseShared() throws IOException {
+            sharedCount--;
+            try {
+                if (sharedCount == 0) {
+                    FileChannel channel = sharedChannel;
+                    sharedChannel = null;
+                    channel.close();
+                }
+            } finally {
+                notifyAll();
+            }
+        }
+
+        private void await() throws IOException {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for lock on " + lockFile);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.lang.String.format;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe latency histogram with power-of-two microsecond buckets. Percentiles are reported as the upper bound of the bucket that contains
+ * them, so they are accurate within a factor of two.
+ */
+public final class LatencyHistogram {
+
+    // bucket i holds latencies below 2^i microseconds, the last bucket holds everything else
+    private static final int BUCKET_COUNT = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    LatencyHistogram() {
+    }
+
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        long micros = value / 1000;
+        int bucket = Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(micros));
+
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     *
+     * @return The number of recorded latencies.
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of all recorded latencies.
+     *
+     * @return The sum of all recorded latencies.
+     */
+    public Duration total() {
+        return Duration.ofNanos(totalNanos.sum());
+    }
+
+    /**
+     * Returns the largest recorded latency.
+     *
+     * @return The largest recorded latency. Zero if no latency was recorded.
+     */
+    public Duration max() {
+        return Duration.ofNanos(maxNanos.get());
+    }
+
+    /**
+     * Returns the average of all recorded latencies.
+     *
+     * @return The average latency. Zero if no latency was recorded.
+     */
+    public Duration mean() {
+        long samples = count();
+        return samples == 0 ? Duration.ZERO : Duration.ofNanos(totalNanos.sum() / samples);
+    }
+
+    /**
+     * Returns an estimate for a percentile of the recorded latencies.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The upper bound of the histogram bucket that contains the percentile. Zero if no latency was recorded.
+     */
+    public Duration percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+
+        long[] snapshot = new long[BUCKET_COUNT];
+        long samples = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+            samples += snapshot[i];
+        }
+
+        if (samples == 0) {
+            return Duration.ZERO;
+        }
+
+        long threshold = (long) Math.ceil(samples * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT - 1; i++) {
+            seen += snapshot[i];
+            if (seen >= Math.max(1, threshold)) {
+                return Duration.ofNanos(Math.min((1L << i) * 1000L, maxNanos.get()));
+            }
+        }
+        return max();
+    }
+
+    @Override
+    public String toString() {
+        return format("count=%d, mean=%s, p50=%s, p99=%s, max=%s", count(), mean(), percentile(50), percentile(99), max());
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory metrics of a {@link MavenArtifactLoader}. Collects counters and latency histograms per metric and repository.
+ *
+ * @see MetricsSink for the metric names.
+ */
+public final class LoaderMetrics implements MetricsSink {
+
+    private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, LatencyHistogram>> latencies = new ConcurrentHashMap<>();
+
+    LoaderMetrics() {
+    }
+
+    @Override
+    public void count(String metric, String repositoryId, long value) {
+        counters.computeIfAbsent(metric, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(repositoryId, k -> new LongAdder())
+                .add(value);
+    }
+
+    @Override
+    public void latency(String metric, String repositoryId, long nanos) {
+        latencies.computeIfAbsent(metric, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(repositoryId, k -> new LatencyHistogram())
+                .record(nanos);
+    }
+
+    /**
+     * Returns the value of a counter for a repository.
+     *
+     * @param metric       The metric name. Must not be null.
+     * @param repositoryId The repository id. Must not be null.
+     * @return The counter value. Zero if nothing was counted.
+     */
+    public long counter(String metric, String repositoryId) {
+        requireNonNull(metric, "metric is null");
+        requireNonNull(repositoryId, "repositoryId is null");
+
+        Map<String, LongAdder> repositoryCounters = counters.get(metric);
+        LongAdder counter = repositoryCounters == null ? null : repositoryCounters.get(repositoryId);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Returns the value of a counter summed over all repositories.
+     *
+     * @param metric The metric name. Must not be null.
+     * @return The counter value. Zero if nothing was counted.
+     */
+    public long counter(String metric) {
+        requireNonNull(metric, "metric is null");
+
+        Map<String, LongAdder> repositoryCounters = counters.get(metric);
+        if (repositoryCounters == null) {
+            return 0;
+        }
+        return repositoryCounters.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Returns the latency histogram of a metric for a repository.
+     *
+     * @param metric       The metric name. Must not be null.
+     * @param repositoryId The repository id. Must not be null.
+     * @return The latency histogram. If no latency was recorded, the histogram is empty.
+     */
+    public LatencyHistogram latency(String metric, String repositoryId) {
+        requireNonNull(metric, "metric is null");
+        requireNonNull(repositoryId, "repositoryId is null");
+
+        Map<String, LatencyHistogram> repositoryLatencies = latencies.get(metric);
+        LatencyHistogram histogram = repositoryLatencies == null ? null : repositoryLatencies.get(repositoryId);
+        return histogram == null ? new LatencyHistogram() : histogram;
+    }
+
+    /**
+     * Returns all repository ids that have reported metrics.
+     *
+     * @return A set of repository ids. This set may be empty but is never null.
+     */
+    public Set<String> repositoryIds() {
+        Set<String> repositoryIds = new TreeSet<>();
+        counters.values().forEach(repositoryCounters -> repositoryIds.addAll(repositoryCounters.keySet()));
+        latencies.values().forEach(repositoryLatencies -> repositoryIds.addAll(repositoryLatencies.keySet()));
+        return Collections.unmodifiableSet(repositoryIds);
+    }
+
+    @Override
+    public String toString() {
+        Map<String, Object> values = new TreeMap<>();
+        counters.forEach((metric, repositoryCounters) ->
+                repositoryCounters.forEach((repositoryId, counter) -> values.put(metric + '[' + repositoryId + ']', counter.sum())));
+        latencies.forEach((metric, repositoryLatencies) ->
+                repositoryLatencies.forEach((repositoryId, histogram) -> values.put(metric + '[' + repositoryId + ']', histogram)));
+        return values.toString();
+    }
+}
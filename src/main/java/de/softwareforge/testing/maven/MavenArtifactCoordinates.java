@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Coordinates of an artifact in the Maven repository system.
+ */
+public final class MavenArtifactCoordinates {
+
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+    private final String classifier;
+    private final String extension;
+
+    /**
+     * Creates new artifact coordinates.
+     *
+     * @param groupId    The Apache Maven Group Id. Must not be null.
+     * @param artifactId The Apache Maven Artifact Id. Must not be null.
+     * @param version    The Apache Maven Artifact version. Must not be null.
+     * @return A {@link MavenArtifactCoordinates} instance.
+     */
+    public static MavenArtifactCoordinates of(String groupId, String artifactId, String version) {
+        return new MavenArtifactCoordinates(groupId, artifactId, version, "", null);
+    }
+
+    private MavenArtifactCoordinates(String groupId, String artifactId, String version, String classifier, String extension) {
+        this.groupId = requireNonNull(groupId, "groupId is null");
+        this.artifactId = requireNonNull(artifactId, "artifactId is null");
+        this.version = requireNonNull(version, "version is null");
+        this.classifier = requireNonNull(classifier, "classifier is null");
+        this.extension = extension;
+    }
+
+    /**
+     * Returns coordinates for a variant of this artifact with a classifier, e.g. "sources" or a platform name.
+     *
+     * @param classifier The classifier. Must not be null. An empty classifier selects the main artifact.
+     * @return A {@link MavenArtifactCoordinates} instance.
+     */
+    public MavenArtifactCoordinates withClassifier(String classifier) {
+        return new MavenArtifactCoordinates(groupId, artifactId, version, classifier, extension);
+    }
+
+    /**
+     * Returns coordinates for a variant of this artifact with a different extension. If no extension is set, the extension of the loader is used.
+     *
+     * @param extension The extension. Must not be null.
+     * @return A {@link MavenArtifactCoordinates} instance.
+     */
+    public MavenArtifactCoordinates withExtension(String extension) {
+        return new MavenArtifactCoordinates(groupId, artifactId, version, classifier, requireNonNull(extension, "extension is null"));
+    }
+
+    /**
+     * Returns the group id.
+     *
+     * @return The Apache Maven Group Id.
+     */
+    public String groupId() {
+        return groupId;
+    }
+
+    /**
+     * Returns the artifact id.
+     *
+     * @return The Apache Maven Artifact Id.
+     */
+    public String artifactId() {
+        return artifactId;
+    }
+
+    /**
+     * Returns the version.
+     *
+     * @return The Apache Maven Artifact version.
+     */
+    public String version() {
+        return version;
+    }
+
+    /**
+     * Returns the classifier.
+     *
+     * @return The classifier. Empty for the main artifact.
+     */
+    public String classifier() {
+        return classifier;
+    }
+
+    /**
+     * Returns the extension.
+     *
+     * @return The extension. Empty if the extension of the loader is used.
+     */
+    public Optional<String> extension() {
+        return Optional.ofNullable(extension);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MavenArtifactCoordinates that = (MavenArtifactCoordinates) o;
+        return groupId.equals(that.groupId)
+                && artifactId.equals(that.artifactId)
+                && version.equals(that.version)
+                && classifier.equals(that.classifier)
+                && Objects.equals(extension, that.extension);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(groupId, artifactId, version, classifier, extension);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(groupId).append(':').append(artifactId).append(':').append(version);
+        if (!classifier.isEmpty()) {
+            result.append(':').append(classifier);
+        }
+        if (extension != null) {
+            result.append('@').append(extension);
+        }
+        return result.toString();
+    }
+}
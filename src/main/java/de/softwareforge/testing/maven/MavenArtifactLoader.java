@@ -19,13 +19,35 @@ import static java.util.Objects.requireNonNull;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
 import org.apache.maven.settings.Profile;
@@ -38,25 +60,49 @@ import org.apache.maven.settings.building.SettingsBuildingException;
 import org.apache.maven.settings.building.SettingsBuildingRequest;
 import org.apache.maven.settings.building.SettingsBuildingResult;
 import org.eclipse.aether.DefaultRepositorySystemSession;
-import org.eclipse.aether.RepositoryException;
+import org.eclipse.aether.DefaultSessionData;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.RequestTrace;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.collection.CollectRequest;
 import org.eclipse.aether.connector.basic.BasicRepositoryConnectorFactory;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyFilter;
 import org.eclipse.aether.impl.DefaultServiceLocator;
+import org.eclipse.aether.repository.ArtifactRepository;
+import org.eclipse.aether.repository.LocalArtifactRequest;
+import org.eclipse.aether.repository.LocalArtifactResult;
 import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.LocalRepositoryManager;
 import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
 import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
 import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.resolution.DependencyRequest;
+import org.eclipse.aether.resolution.DependencyResolutionException;
+import org.eclipse.aether.resolution.DependencyResult;
 import org.eclipse.aether.resolution.VersionRangeRequest;
 import org.eclipse.aether.resolution.VersionRangeResolutionException;
 import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.resolution.VersionRequest;
+import org.eclipse.aether.resolution.VersionResolutionException;
 import org.eclipse.aether.spi.connector.RepositoryConnectorFactory;
 import org.eclipse.aether.spi.connector.transport.TransporterFactory;
 import org.eclipse.aether.spi.locator.ServiceLocator;
+import org.eclipse.aether.spi.synccontext.SyncContextFactory;
 import org.eclipse.aether.transport.file.FileTransporterFactory;
 import org.eclipse.aether.transport.http.HttpTransporterFactory;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.eclipse.aether.transfer.MetadataNotFoundException;
+import org.eclipse.aether.util.artifact.ArtifactIdUtils;
+import org.eclipse.aether.util.artifact.JavaScopes;
+import org.eclipse.aether.util.filter.DependencyFilterUtils;
+import org.eclipse.aether.util.filter.ScopeDependencyFilter;
+import org.eclipse.aether.util.listener.ChainedTransferListener;
+import org.eclipse.aether.util.repository.ChainedLocalRepositoryManager;
 import org.eclipse.aether.version.Version;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -66,6 +112,9 @@ import org.slf4j.LoggerFactory;
  * <p>
  * The loader respects the local maven settings (repositories, mirrors etc.) if present. If no configuration is found, a hard-coded reference to <a
  * href="https://repo.maven.apache.org/maven2/">Maven Central</a> is used.
+ * <p>
+ * Loader instances are thread-safe and can be shared. The repository system and the parsed settings are created once per process and reused by all
+ * loaders; the settings are only parsed again if the settings files change. {@link #shared()} returns a lazily created default loader.
  */
 public final class MavenArtifactLoader {
 
@@ -73,6 +122,17 @@ public final class MavenArtifactLoader {
 
     static final RemoteRepository CENTRAL_REPO = new RemoteRepository.Builder("central", "default", "https://repo.maven.apache.org/maven2/").build();
 
+    // number of parallel downloads per repository in the basic repository connector
+    private static final String CONFIG_PROP_CONNECTOR_THREADS = "aether.connector.basic.threads";
+    // the breadth-first collector fetches the descriptors (POMs) of each dependency level in parallel
+    private static final String CONFIG_PROP_COLLECTOR_IMPL = "aether.dependencyCollector.impl";
+    private static final String CONFIG_PROP_COLLECTOR_THREADS = "aether.dependencyCollector.bf.threads";
+    // the resolver locks the metadata of an artifact for all repositories together, which serializes parallel lookups in different repositories
+    private static final String CONFIG_PROP_SYNC_CONTEXT_FACTORY = "aether.syncContext.named.factory";
+    // cross process locking uses lock files in the local repository, one per artifact or metadata
+    private static final String CONFIG_PROP_SYNC_CONTEXT_NAME_MAPPER = "aether.syncContext.named.nameMapper";
+    private static final String CONFIG_PROP_SYNC_CONTEXT_TIME = "aether.syncContext.named.time";
+    private static final String CONFIG_PROP_SYNC_CONTEXT_TIME_UNIT = "aether.syncContext.named.time.unit";
     private static final String USER_HOME = System.getProperty("user.home");
     private static final File USER_MAVEN_HOME = new File(USER_HOME, ".m2");
     private static final String ENV_M2_HOME = System.getenv("M2_HOME");
@@ -82,11 +142,40 @@ public final class MavenArtifactLoader {
     private static final File DEFAULT_GLOBAL_SETTINGS_FILE =
             new File(System.getProperty("maven.home", Objects.requireNonNullElse(ENV_M2_HOME, "")), "conf/settings.xml");
 
+    private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+
+    private static final String VERSION_INDEX_FILE = ".maven-loader/versions.idx";
+    private static final String EXTRACTION_DIRECTORY = ".maven-loader/extracted";
+
+    private static final Object SETTINGS_LOCK = new Object();
+
+    // guarded by SETTINGS_LOCK
+    private static Settings cachedSettings = null;
+    private static List<Object> cachedSettingsKey = null;
+
     private final RepositorySystem repositorySystem;
-    private final RepositorySystemSession mavenSession;
+    private final Map<ResolutionMode, RepositorySystemSession> mavenSessions;
+    // sessions for parallel version lookups, null if versions are looked up in all repositories together
+    private final Map<ResolutionMode, RepositorySystemSession> versionLookupSessions;
     private final List<RemoteRepository> remoteRepositories;
+    private final VersionCache versionCache;
+    private final NegativeCache negativeCache;
+    private final VersionIndex versionIndex;
+    private final ExtractionCache extractionCache;
+    // null if artifacts are always downloaded by the resolver
+    private final RangedDownloader rangedDownloader;
+    private final SingleFlight<VersionCache.Key, VersionCache.Versions> versionLookups = new SingleFlight<>();
+    private final SingleFlight<Artifact, File> artifactResolutions = new SingleFlight<>();
+    // snapshot versions resolved to timestamped versions, keyed by artifact coordinates
+    private final ConcurrentMap<String, String> pinnedSnapshots = new ConcurrentHashMap<>();
+    private final boolean pinSnapshots;
+    private final LoaderMetrics metrics;
+    private final MetricsListener metricsListener;
+    private final Executor executor;
+    private final Duration parallelVersionLookupTimeout;
 
     private final String extension;
+    private final ResolutionMode resolutionMode;
 
     /**
      * Creates a new artifact loader for 'jar' artifacts.
@@ -101,36 +190,124 @@ public final class MavenArtifactLoader {
      * @param extension The artifact extension. Must not be null.
      */
     public MavenArtifactLoader(String extension) {
-        this(extension, null);
+        this(newBuilder().extension(extension));
     }
 
     MavenArtifactLoader(String extension, List<RemoteRepository> remoteRepositoriesForTesting) {
-        this.extension = requireNonNull(extension, "extension is null");
+        this(newBuilder().extension(extension).remoteRepositories(remoteRepositoriesForTesting));
+    }
 
-        @SuppressWarnings("deprecation")
-        ServiceLocator serviceLocator = createServiceLocator();
-        this.repositorySystem = serviceLocator.getService(RepositorySystem.class);
+    MavenArtifactLoader(MavenArtifactLoaderBuilder builder) {
+        requireNonNull(builder, "builder is null");
+        this.extension = builder.extension();
+        this.resolutionMode = builder.resolutionMode();
+        this.pinSnapshots = builder.pinSnapshots();
+        this.metrics = new LoaderMetrics();
+
+        List<MetricsSink> metricsSinks = new ArrayList<>(builder.metricsSinks());
+        metricsSinks.add(metrics);
+        this.metricsListener = new MetricsListener(metricsSinks);
+
+        this.versionCache = new VersionCache(builder.versionCacheTtl(), builder.versionCacheSize(), metricsListener);
+        this.negativeCache = new NegativeCache(builder.negativeCacheTtl(), builder.negativeCacheSize(), metricsListener);
+        this.executor = builder.executor();
+        this.parallelVersionLookupTimeout = builder.parallelVersionLookupTimeout();
+
+        this.repositorySystem = RepositorySystemHolder.REPOSITORY_SYSTEM;
 
         try {
-            Settings settings = createSettings();
+            Settings settings = loadSettings();
             File localRepositoryLocation = settings.getLocalRepository() != null ? new File(settings.getLocalRepository()) : DEFAULT_USER_REPOSITORY;
+            if (builder.localRepository() != null) {
+                localRepositoryLocation = builder.localRepository();
+            }
             LocalRepository localRepository = new LocalRepository(localRepositoryLocation);
+            this.versionIndex = builder.versionIndexTtl().isZero()
+                    ? null
+                    : new VersionIndex(new File(localRepositoryLocation, VERSION_INDEX_FILE), builder.versionIndexTtl(), metricsListener);
+            File extractionDirectory = builder.extractionDirectory() != null
+                    ? builder.extractionDirectory()
+                    : new File(localRepositoryLocation, EXTRACTION_DIRECTORY);
+            this.extractionCache = new ExtractionCache(extractionDirectory, builder.extractionCacheSize(), executor);
 
-            if (remoteRepositoriesForTesting != null) {
-                this.remoteRepositories = remoteRepositoriesForTesting;
-            } else {
-                this.remoteRepositories = extractRemoteRepositories(settings);
+            DefaultRepositorySystemSession mavenSession = MavenRepositorySystemUtils.newSession();
+            mavenSession.setConfigProperty(CONFIG_PROP_CONNECTOR_THREADS, builder.downloadThreads());
+            mavenSession.setConfigProperty(CONFIG_PROP_COLLECTOR_IMPL, "bf");
+            mavenSession.setConfigProperty(CONFIG_PROP_COLLECTOR_THREADS, builder.downloadThreads());
+            mavenSession.setConfigProperty(MeteredSyncContextFactory.CONFIG_PROP_METRICS_LISTENER, metricsListener);
+            if (builder.lockWaitTimeout() != null) {
+                mavenSession.setConfigProperty(CONFIG_PROP_SYNC_CONTEXT_FACTORY, "file-lock");
+                mavenSession.setConfigProperty(CONFIG_PROP_SYNC_CONTEXT_NAME_MAPPER, "file-gav");
+                mavenSession.setConfigProperty(CONFIG_PROP_SYNC_CONTEXT_TIME, builder.lockWaitTimeout().toMillis());
+                mavenSession.setConfigProperty(CONFIG_PROP_SYNC_CONTEXT_TIME_UNIT, TimeUnit.MILLISECONDS.name());
             }
+            builder.transportConfiguration().apply(mavenSession);
+            mavenSession.setRepositoryListener(metricsListener.repositoryListener());
+            mavenSession.setTransferListener(ChainedTransferListener.newInstance(metricsListener.transferListener(), ArtifactStream.TRANSFER_LISTENER));
+            mavenSession.setMirrorSelector(SettingsSelectors.mirrorSelector(settings, builder.preferFastestMirror()));
+            mavenSession.setProxySelector(SettingsSelectors.proxySelector(settings));
+            mavenSession.setAuthenticationSelector(SettingsSelectors.authenticationSelector(settings));
 
-            DefaultRepositorySystemSession mavenSession = MavenRepositorySystemUtils.newSession();
+            LocalRepositoryManager localRepositoryManager = repositorySystem.newLocalRepositoryManager(mavenSession, localRepository);
+            if (!builder.baseRepositories().isEmpty()) {
+                List<LocalRepositoryManager> baseRepositoryManagers = new ArrayList<>(builder.baseRepositories().size());
+                for (File baseRepository : builder.baseRepositories()) {
+                    baseRepositoryManagers.add(repositorySystem.newLocalRepositoryManager(mavenSession, new LocalRepository(baseRepository)));
+                }
+                // writes go to the local repository only. Artifacts in a base repository are used no matter which remote repository they came from.
+                localRepositoryManager = new ChainedLocalRepositoryManager(localRepositoryManager, baseRepositoryManagers, true);
+            }
+            mavenSession.setLocalRepositoryManager(localRepositoryManager);
+
+            this.mavenSessions = createSessions(mavenSession);
+            this.rangedDownloader = builder.rangedDownloadConnections() == 0
+                    ? null
+                    : new RangedDownloader(repositorySystem, builder.rangedDownloadConnections(), builder.rangedDownloadMinimumSize(), metricsListener);
+            this.versionLookupSessions = parallelVersionLookupTimeout == null ? null : createVersionLookupSessions(mavenSessions);
 
-            this.mavenSession = mavenSession.setLocalRepositoryManager(repositorySystem.newLocalRepositoryManager(mavenSession, localRepository));
+            List<RemoteRepository> remoteRepositories = builder.remoteRepositories() != null
+                    ? builder.remoteRepositories()
+                    : extractRemoteRepositories(settings);
+            // replaces repositories with their mirrors and adds proxy and authentication information
+            remoteRepositories = repositorySystem.newResolutionRepositories(mavenSession, remoteRepositories);
+            if (builder.snapshotUpdatePolicy() != null) {
+                remoteRepositories = builder.snapshotUpdatePolicy().applySnapshotPolicy(remoteRepositories);
+            }
+            this.remoteRepositories = remoteRepositories;
 
         } catch (SettingsBuildingException e) {
             throw new IllegalStateException("Could not load maven settings:", e);
         }
     }
 
+    /**
+     * Returns a process-wide loader for 'jar' artifacts with the default configuration. The loader is created on first use.
+     *
+     * @return A shared {@link MavenArtifactLoader} instance.
+     */
+    public static MavenArtifactLoader shared() {
+        return SharedLoaderHolder.SHARED_LOADER;
+    }
+
+    /**
+     * Create a new builder to configure an artifact loader.
+     *
+     * @return A {@link MavenArtifactLoaderBuilder} instance
+     */
+    public static MavenArtifactLoaderBuilder newBuilder() {
+        return new MavenArtifactLoaderBuilder();
+    }
+
+    /**
+     * Returns the metrics of this loader. Contains counters and latency histograms for metadata lookups, artifact downloads, local repository and
+     * version cache hits, downloaded bytes and failures per repository.
+     *
+     * @return The {@link LoaderMetrics} of this loader.
+     */
+    public LoaderMetrics metrics() {
+        return metrics;
+    }
+
     /**
      * Create a new version match builder to retrieve an artifact.
      *
@@ -145,6 +322,31 @@ public final class MavenArtifactLoader {
         return new MavenVersionMatchBuilder(this, groupId, artifactId);
     }
 
+    /**
+     * Create a new dependency builder to resolve an artifact and its transitive dependencies.
+     *
+     * @param groupId    The Apache Maven Group Id. Must not be null.
+     * @param artifactId The Apache Maven Artifact Id. Must not be null.
+     * @param version    The Apache Maven Artifact version. Must not be null.
+     * @return A {@link MavenDependencyBuilder} instance
+     */
+    public MavenDependencyBuilder dependencies(String groupId, String artifactId, String version) {
+        requireNonNull(groupId, "groupId is null");
+        requireNonNull(artifactId, "artifactId is null");
+        requireNonNull(version, "version is null");
+
+        return new MavenDependencyBuilder(this, groupId, artifactId, version);
+    }
+
+    /**
+     * Create a new prefetch builder to download a list of artifacts into the local repository.
+     *
+     * @return A {@link MavenPrefetchBuilder} instance
+     */
+    public MavenPrefetchBuilder prefetch() {
+        return new MavenPrefetchBuilder(this);
+    }
+
     /**
      * Download an artifact file from the Maven repository system.
      *
@@ -155,22 +357,331 @@ public final class MavenArtifactLoader {
      * @throws IOException If the artifact could not be found or an IO problem happened while locating or downloading the artifact.
      */
     public File getArtifactFile(String groupId, String artifactId, String version) throws IOException {
+        return getArtifactFile(groupId, artifactId, version, "");
+    }
+
+    /**
+     * Download an artifact file with a classifier (e.g. "sources" or a platform name) from the Maven repository system.
+     *
+     * @param groupId    The Apache Maven Group Id. Must not be null.
+     * @param artifactId The Apache Maven Artifact Id. Must not be null.
+     * @param version    The Apache Maven Artifact version. Must not be null.
+     * @param classifier The Apache Maven Artifact classifier. Must not be null. An empty classifier selects the main artifact.
+     * @return A file representing a successfully downloaded artifact.
+     * @throws IOException If the artifact could not be found or an IO problem happened while locating or downloading the artifact.
+     */
+    public File getArtifactFile(String groupId, String artifactId, String version, String classifier) throws IOException {
         requireNonNull(groupId, "groupId is null");
         requireNonNull(artifactId, "artifactId is null");
         requireNonNull(version, "version is null");
+        requireNonNull(classifier, "classifier is null");
+
+        RepositorySystemSession mavenSession = mavenSessions.get(resolutionMode);
+        Artifact requestArtifact = requestArtifact(groupId, artifactId, classifier, extension, version);
+
+        File localFile = findLocalArtifactFile(mavenSession, requestArtifact);
+        if (localFile != null) {
+            return localFile;
+        }
+
+        // concurrent requests for the same artifact share a single resolution
+        return artifactResolutions.run(requestArtifact, () -> resolveArtifactFile(mavenSession, requestArtifact, null));
+    }
+
+    private File resolveArtifactFile(RepositorySystemSession mavenSession, Artifact requestArtifact, RequestTrace trace) throws IOException {
+        List<RemoteRepository> repositories = artifactRepositories(requestArtifact, resolutionMode);
+        // streamed artifacts are forwarded from the transfer of the resolver
+        if (rangedDownloader != null && trace == null && !mavenSession.isOffline()) {
+            File artifactFile = rangedDownloader.download(mavenSession, requestArtifact, repositories);
+            if (artifactFile != null) {
+                return artifactFile;
+            }
+        }
 
         ArtifactRequest artifactRequest = new ArtifactRequest();
-        artifactRequest.setArtifact(new DefaultArtifact(groupId, artifactId, extension, version));
-        artifactRequest.setRepositories(this.remoteRepositories);
+        artifactRequest.setArtifact(requestArtifact);
+        artifactRequest.setRepositories(repositories);
+        artifactRequest.setTrace(trace);
         try {
             ArtifactResult artifactResult = this.repositorySystem.resolveArtifact(mavenSession, artifactRequest);
+            // repositories that were asked before the one that had the artifact
+            recordMissingArtifact(artifactResult);
             Artifact artifact = artifactResult.getArtifact();
             return artifact.getFile();
-        } catch (RepositoryException e) {
+        } catch (ArtifactResolutionException e) {
+            e.getResults().forEach(this::recordMissingArtifact);
             throw new IOException(e);
         }
     }
 
+    /**
+     * Download an artifact file from the Maven repository system without blocking the caller. The download runs on the executor configured with
+     * {@link MavenArtifactLoaderBuilder#executor(Executor)}.
+     *
+     * @param groupId    The Apache Maven Group Id. Must not be null.
+     * @param artifactId The Apache Maven Artifact Id. Must not be null.
+     * @param version    The Apache Maven Artifact version. Must not be null.
+     * @return A future that completes with the downloaded artifact file or completes exceptionally with an {@link IOException} if the artifact could not
+     * be found or downloaded.
+     */
+    public CompletableFuture<File> getArtifactFileAsync(String groupId, String artifactId, String version) {
+        return getArtifactFileAsync(groupId, artifactId, version, this.executor);
+    }
+
+    /**
+     * Download an artifact file from the Maven repository system without blocking the caller.
+     *
+     * @param groupId    The Apache Maven Group Id. Must not be null.
+     * @param artifactId The Apache Maven Artifact Id. Must not be null.
+     * @param version    The Apache Maven Artifact version. Must not be null.
+     * @param executor   The executor that runs the download. Must not be null.
+     * @return A future that completes with the downloaded artifact file or completes exceptionally with an {@link IOException} if the artifact could not
+     * be found or downloaded.
+     */
+    public CompletableFuture<File> getArtifactFileAsync(String groupId, String artifactId, String version, Executor executor) {
+        requireNonNull(groupId, "groupId is null");
+        requireNonNull(artifactId, "artifactId is null");
+        requireNonNull(version, "version is null");
+        requireNonNull(executor, "executor is null");
+
+        return AsyncSupport.supplyAsync(() -> getArtifactFile(groupId, artifactId, version), executor);
+    }
+
+    /**
+     * Resolve a snapshot version to the timestamped version of the latest snapshot build, e.g. "2.1.0-SNAPSHOT" to "2.1.0-20240101.120000-3". The
+     * timestamped version is pinned: later calls for the same artifact on this loader return the same version without checking the remote
+     * repositories. Other versions are returned unchanged.
+     *
+     * @param groupId    The Apache Maven Group Id. Must not be null.
+     * @param artifactId The Apache Maven Artifact Id. Must not be null.
+     * @param version    The Apache Maven Artifact version. Must not be null.
+     * @return The timestamped snapshot version. If the snapshot was only installed locally, the snapshot version itself.
+     * @throws IOException If the snapshot version could not be resolved.
+     */
+    public String pinSnapshotVersion(String groupId, String artifactId, String version) throws IOException {
+        requireNonNull(groupId, "groupId is null");
+        requireNonNull(artifactId, "artifactId is null");
+        requireNonNull(version, "version is null");
+
+        return pinSnapshotVersion(new DefaultArtifact(groupId, artifactId, "", extension, version));
+    }
+
+    private String pinSnapshotVersion(Artifact artifact) throws IOException {
+        if (!artifact.getVersion().endsWith(SNAPSHOT_SUFFIX)) {
+            return artifact.getVersion();
+        }
+
+        // snapshot builds may have different timestamps for each classifier and extension
+        String key = artifact.getGroupId() + ':' + artifact.getArtifactId() + ':' + artifact.getClassifier() + ':' + artifact.getExtension() + ':'
+                + artifact.getVersion();
+        String pinnedVersion = pinnedSnapshots.get(key);
+        if (pinnedVersion != null) {
+            return pinnedVersion;
+        }
+
+        String version = resolveSnapshotVersion(mavenSessions.get(resolutionMode), artifact);
+        String resolvedVersion = pinnedSnapshots.putIfAbsent(key, version);
+        return resolvedVersion != null ? resolvedVersion : version;
+    }
+
+    private String resolveSnapshotVersion(RepositorySystemSession mavenSession, Artifact artifact) throws IOException {
+        VersionRequest versionRequest = new VersionRequest(artifact, this.remoteRepositories, null);
+        try {
+            return this.repositorySystem.resolveVersion(mavenSession, versionRequest).getVersion();
+        } catch (VersionResolutionException e) {
+            throw new IOException(format("Could not resolve snapshot version: %s", artifact), e);
+        }
+    }
+
+    private Artifact requestArtifact(String groupId, String artifactId, String classifier, String extension, String version) throws IOException {
+        Artifact artifact = new DefaultArtifact(groupId, artifactId, classifier, extension, version);
+        if (pinSnapshots && artifact.isSnapshot()) {
+            artifact = artifact.setVersion(pinSnapshotVersion(artifact));
+        }
+        return artifact;
+    }
+
+    /**
+     * Download an artifact file from the Maven repository system and return its path.
+     *
+     * @param groupId    The Apache Maven Group Id. Must not be null.
+     * @param artifactId The Apache Maven Artifact Id. Must not be null.
+     * @param version    The Apache Maven Artifact version. Must not be null.
+     * @return The path of the artifact file in the local repository.
+     * @throws IOException If the artifact could not be found or an IO problem happened while downloading the artifact.
+     */
+    public Path getArtifactPath(String groupId, String artifactId, String version) throws IOException {
+        return getArtifactFile(groupId, artifactId, version).toPath();
+    }
+
+    /**
+     * Download an artifact file from the Maven repository system and open it for reading.
+     *
+     * @param groupId    The Apache Maven Group Id. Must not be null.
+     * @param artifactId The Apache Maven Artifact Id. Must not be null.
+     * @param version    The Apache Maven Artifact version. Must not be null.
+     * @return A read-only {@link FileChannel} for the artifact file. The caller must close the channel.
+     * @throws IOException If the artifact could not be found or an IO problem happened while downloading or opening the artifact.
+     */
+    public FileChannel openArtifactChannel(String groupId, String artifactId, String version) throws IOException {
+        return FileChannel.open(getArtifactPath(groupId, artifactId, version), StandardOpenOption.READ);
+    }
+
+    /**
+     * Download an artifact file from the Maven repository system and map it into memory. The artifact must be smaller than 2GB.
+     *
+     * @param groupId    The Apache Maven Group Id. Must not be null.
+     * @param artifactId The Apache Maven Artifact Id. Must not be null.
+     * @param version    The Apache Maven Artifact version. Must not be null.
+     * @return A read-only {@link MappedByteBuffer} with the contents of the artifact file.
+     * @throws IOException If the artifact could not be found or an IO problem happened while downloading or mapping the artifact.
+     */
+    public MappedByteBuffer mapArtifact(String groupId, String artifactId, String version) throws IOException {
+        try (FileChannel channel = openArtifactChannel(groupId, artifactId, version)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(format("Artifact %s:%s:%s is too large to map (%d bytes)", groupId, artifactId, version, size));
+            }
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Download an archive artifact and extract it. Supported archive types are zip (including jar, war and ear), tar and tar.gz (or tgz).
+     * <p>
+     * Each archive is extracted only once into a directory named after its checksum and reused by all later calls, also from other loaders and
+     * processes. The extracted files must not be modified. Least recently used archives are removed when the extraction directory grows larger than
+     * {@link MavenArtifactLoaderBuilder#extractionCacheSize(long)}. A returned directory is in use until the process exits and is not removed before.
+     * File modes of executable files in the archive are kept.
+     *
+     * @param groupId    The Apache Maven Group Id. Must not be null.
+     * @param artifactId The Apache Maven Artifact Id. Must not be null.
+     * @param version    The Apache Maven Artifact version. Must not be null.
+     * @return The directory that contains the extracted archive.
+     * @throws IOException If the artifact could not be found or downloaded, is not a supported archive or could not be extracted.
+     */
+    public Path extractArtifact(String groupId, String artifactId, String version) throws IOException {
+        return extractionCache.extract(getArtifactFile(groupId, artifactId, version), extension);
+    }
+
+    /**
+     * Open a stream to the contents of an artifact. If the artifact must be downloaded, the stream returns the bytes while the download is still in
+     * progress. The download runs on the executor configured with {@link MavenArtifactLoaderBuilder#executor(Executor)}.
+     * <p>
+     * The checksum of a download is verified when the download is complete. If the verification or the download fails, the stream throws an
+     * {@link IOException} after returning the bytes received so far, so the content must only be trusted once the end of the stream is reached.
+     *
+     * @param groupId    The Apache Maven Group Id. Must not be null.
+     * @param artifactId The Apache Maven Artifact Id. Must not be null.
+     * @param version    The Apache Maven Artifact version. Must not be null.
+     * @return An {@link InputStream} with the contents of the artifact. The caller must close the stream.
+     * @throws IOException If the artifact could not be found in the local repository in offline mode.
+     */
+    public InputStream openArtifactStream(String groupId, String artifactId, String version) throws IOException {
+        requireNonNull(groupId, "groupId is null");
+        requireNonNull(artifactId, "artifactId is null");
+        requireNonNull(version, "version is null");
+
+        RepositorySystemSession mavenSession = mavenSessions.get(resolutionMode);
+        Artifact requestArtifact = requestArtifact(groupId, artifactId, "", extension, version);
+
+        File localFile = findLocalArtifactFile(mavenSession, requestArtifact);
+        if (localFile != null) {
+            return Files.newInputStream(localFile.toPath());
+        }
+
+        ArtifactStream artifactStream = new ArtifactStream();
+        AsyncSupport.supplyAsync(() -> resolveStreamedArtifactFile(mavenSession, requestArtifact, artifactStream), executor)
+                .whenComplete((file, t) -> {
+                    if (t == null) {
+                        artifactStream.complete(file);
+                    } else if (t instanceof IOException) {
+                        artifactStream.fail((IOException) t);
+                    } else {
+                        artifactStream.fail(new IOException(t));
+                    }
+                });
+        return artifactStream;
+    }
+
+    private File resolveStreamedArtifactFile(RepositorySystemSession mavenSession, Artifact requestArtifact, ArtifactStream artifactStream)
+            throws IOException {
+        // the stream recognizes the transfer of the artifact by its path, which contains the timestamped version of a snapshot. Resolving the
+        // snapshot version first also downloads the snapshot metadata outside of the trace of the stream.
+        Artifact artifact = requestArtifact.getVersion().endsWith(SNAPSHOT_SUFFIX)
+                ? requestArtifact.setVersion(resolveSnapshotVersion(mavenSession, requestArtifact))
+                : requestArtifact;
+        artifactStream.expect(remotePath(artifact));
+        return resolveArtifactFile(mavenSession, artifact, artifactStream.trace());
+    }
+
+    /**
+     * Download multiple artifact files from the Maven repository system. All artifacts are resolved together and downloaded in parallel, using
+     * the number of download threads configured with {@link MavenArtifactLoaderBuilder#downloadThreads(int)}.
+     * <p>
+     * Failing to resolve an artifact does not fail the whole batch, problems are reported for each artifact in {@link MavenBatchResult#failures()}.
+     * Coordinates without an extension use the extension of the loader.
+     *
+     * @param coordinates The coordinates of the artifacts to download. Must not be null.
+     * @return A {@link MavenBatchResult} containing the downloaded artifact files and any failures.
+     */
+    public MavenBatchResult getArtifactFiles(Collection<MavenArtifactCoordinates> coordinates) {
+        requireNonNull(coordinates, "coordinates is null");
+
+        RepositorySystemSession mavenSession = mavenSessions.get(resolutionMode);
+        Map<MavenArtifactCoordinates, File> artifactFiles = new LinkedHashMap<>();
+        Map<MavenArtifactCoordinates, IOException> failures = new LinkedHashMap<>();
+
+        List<MavenArtifactCoordinates> coordinateList = new ArrayList<>(coordinates.size());
+        List<ArtifactRequest> artifactRequests = new ArrayList<>(coordinates.size());
+        for (MavenArtifactCoordinates coordinate : new LinkedHashSet<>(coordinates)) {
+            Artifact artifact;
+            try {
+                artifact = requestArtifact(coordinate.groupId(), coordinate.artifactId(), coordinate.classifier(),
+                        coordinate.extension().orElse(extension), coordinate.version());
+            } catch (IOException e) {
+                failures.put(coordinate, e);
+                continue;
+            }
+            File localFile = findLocalArtifactFile(mavenSession, artifact);
+            if (localFile != null) {
+                artifactFiles.put(coordinate, localFile);
+            } else {
+                coordinateList.add(coordinate);
+                artifactRequests.add(new ArtifactRequest(artifact, artifactRepositories(artifact, resolutionMode), null));
+            }
+        }
+
+        if (artifactRequests.isEmpty()) {
+            return new MavenBatchResult(artifactFiles, failures);
+        }
+
+        List<ArtifactResult> artifactResults;
+        try {
+            artifactResults = this.repositorySystem.resolveArtifacts(mavenSession, artifactRequests);
+        } catch (ArtifactResolutionException e) {
+            // contains results for all requests, successful or not
+            artifactResults = e.getResults();
+        }
+
+        // results are returned in request order
+        for (int i = 0; i < coordinateList.size(); i++) {
+            MavenArtifactCoordinates coordinate = coordinateList.get(i);
+            ArtifactResult artifactResult = artifactResults.get(i);
+            recordMissingArtifact(artifactResult);
+            if (artifactResult.isResolved()) {
+                artifactFiles.put(coordinate, artifactResult.getArtifact().getFile());
+            } else {
+                IOException failure = new IOException(format("Could not resolve artifact %s", coordinate));
+                artifactResult.getExceptions().forEach(failure::addSuppressed);
+                failures.put(coordinate, failure);
+            }
+        }
+
+        return new MavenBatchResult(artifactFiles, failures);
+    }
+
     /**
      * Find a matching artifact version from a partially defined artifact version.
      * <p>
@@ -206,40 +717,284 @@ public final class MavenArtifactLoader {
                 .orElseThrow(() -> new IOException(format("No suitable candidate for %s:%s:%s found!", groupId, artifactId, version)));
     }
 
+    List<File> resolveDependencies(MavenDependencyBuilder builder) throws IOException {
+        Artifact artifact = new DefaultArtifact(builder.groupId(), builder.artifactId(), extension, builder.version());
+
+        CollectRequest collectRequest = new CollectRequest();
+        collectRequest.setRoot(new Dependency(artifact, JavaScopes.COMPILE, false, builder.exclusions()));
+        collectRequest.setRepositories(this.remoteRepositories);
+
+        // the root node is always part of the result, independent of the scopes
+        DependencyFilter rootFilter = (node, parents) -> parents.isEmpty();
+        DependencyFilter dependencyFilter = DependencyFilterUtils.orFilter(rootFilter, new ScopeDependencyFilter(builder.scopes(), null));
+
+        DependencyRequest dependencyRequest = new DependencyRequest(collectRequest, dependencyFilter);
+        try {
+            DependencyResult dependencyResult = this.repositorySystem.resolveDependencies(mavenSessions.get(resolutionMode), dependencyRequest);
+            List<File> classpath = new ArrayList<>();
+            for (ArtifactResult artifactResult : dependencyResult.getArtifactResults()) {
+                classpath.add(artifactResult.getArtifact().getFile());
+            }
+            return Collections.unmodifiableList(classpath);
+        } catch (DependencyResolutionException e) {
+            throw new IOException(format("Could not resolve dependencies of %s", artifact), e);
+        }
+    }
+
+    Executor executor() {
+        return executor;
+    }
+
+    ResolutionMode resolutionMode() {
+        return resolutionMode;
+    }
+
     SortedSet<Version> findAllVersions(MavenVersionMatchBuilder builder) throws IOException {
+        return builder.query().select(versionKeys(builder), builder.includeSnapshots());
+    }
+
+    Optional<Version> findBestVersion(MavenVersionMatchBuilder builder) throws IOException {
+        return Optional.ofNullable(builder.query().selectNewest(versionKeys(builder), builder.includeSnapshots()));
+    }
+
+    List<Version> findTopVersions(MavenVersionMatchBuilder builder, int count) throws IOException {
+        return builder.query().selectNewest(versionKeys(builder), builder.includeSnapshots(), count);
+    }
+
+    List<VersionKey> findAllVersionKeys(MavenVersionMatchBuilder builder) throws IOException {
+        return builder.query().selectKeys(versionKeys(builder), builder.includeSnapshots());
+    }
+
+    // returns all versions of the artifact, sorted from the oldest to the newest version
+    private List<VersionKey> versionKeys(MavenVersionMatchBuilder builder) throws IOException {
+        VersionCache.Key cacheKey = new VersionCache.Key(builder.groupId(), builder.artifactId(), builder.extension(), remoteRepositories(builder),
+                builder.resolutionMode());
+        return versionCache.get(cacheKey,
+                () -> versionLookups.run(cacheKey, () -> loadAllVersions(builder)));
+    }
+
+    /**
+     * Returns the remote repositories that are not known to miss the artifact. With an empty list, the resolver only checks the local repository.
+     */
+    private List<RemoteRepository> artifactRepositories(Artifact artifact, ResolutionMode resolutionMode) {
+        if (resolutionMode == ResolutionMode.REMOTE_ALWAYS) {
+            return this.remoteRepositories;
+        }
+        return negativeCache.filter(ArtifactIdUtils.toId(artifact), this.remoteRepositories);
+    }
+
+    private void recordMissingArtifact(ArtifactResult artifactResult) {
+        String resource = ArtifactIdUtils.toId(artifactResult.getRequest().getArtifact());
+        for (Exception exception : artifactResult.getExceptions()) {
+            if (exception instanceof ArtifactNotFoundException) {
+                negativeCache.put(resource, ((ArtifactNotFoundException) exception).getRepository());
+            }
+        }
+    }
 
+    private List<RemoteRepository> remoteRepositories(MavenVersionMatchBuilder builder) {
+        UpdatePolicy snapshotUpdatePolicy = builder.snapshotUpdatePolicy();
+        return snapshotUpdatePolicy == null ? this.remoteRepositories : snapshotUpdatePolicy.applySnapshotPolicy(this.remoteRepositories);
+    }
+
+    private VersionCache.Versions loadAllVersions(MavenVersionMatchBuilder builder) throws IOException {
+        if (versionIndex == null) {
+            return resolveAllVersions(builder);
+        }
+
+        String indexKey = versionIndexKey(builder);
+        if (builder.resolutionMode() != ResolutionMode.REMOTE_ALWAYS) {
+            List<VersionKey> versionKeys = versionIndex.get(indexKey);
+            if (versionKeys != null) {
+                return new VersionCache.Versions(versionKeys, true);
+            }
+        }
+
+        VersionCache.Versions versions = resolveAllVersions(builder);
+        // offline lookups only see the local repository and incomplete lookups miss repositories, do not replace the version list with them
+        if (versions.complete() && !versions.versionKeys().isEmpty() && builder.resolutionMode() != ResolutionMode.OFFLINE) {
+            versionIndex.put(indexKey, versions.versionKeys());
+        }
+        return versions;
+    }
+
+    private String versionIndexKey(MavenVersionMatchBuilder builder) {
+        StringBuilder key = new StringBuilder()
+                .append(builder.groupId()).append(':')
+                .append(builder.artifactId()).append(':')
+                .append(builder.extension());
+        for (RemoteRepository remoteRepository : remoteRepositories) {
+            key.append(' ').append(remoteRepository.getId()).append('=').append(remoteRepository.getUrl());
+        }
+        return key.toString();
+    }
+
+    private VersionCache.Versions resolveAllVersions(MavenVersionMatchBuilder builder) throws IOException {
+        List<RemoteRepository> repositories = remoteRepositories(builder);
+        if (builder.resolutionMode() != ResolutionMode.REMOTE_ALWAYS) {
+            // with an empty list, the resolver only returns the versions in the local repository
+            repositories = negativeCache.filter(metadataResource(builder), repositories);
+        }
+        if (parallelVersionLookupTimeout == null || repositories.size() < 2 || builder.resolutionMode() == ResolutionMode.OFFLINE) {
+            RepositorySystemSession mavenSession = mavenSessions.get(builder.resolutionMode());
+            return new VersionCache.Versions(mergeVersions(List.of(resolveVersionRange(mavenSession, builder, repositories))), true);
+        }
+
+        // query every repository on its own, so that the lookup takes as long as the slowest repository and not as long as all repositories together.
+        // The lookups do not run on the loader executor: this method may run there itself and wait for lookups that a bounded executor never starts.
+        // Each lookup starts right away on the unbounded default executor, so the timeout of each repository starts with its lookup.
+        RepositorySystemSession mavenSession = versionLookupSessions.get(builder.resolutionMode());
+        ExecutorService lookupExecutor = AsyncSupport.defaultExecutor();
+        List<Future<VersionRangeResult>> futures = new ArrayList<>(repositories.size());
+        long[] deadlines = new long[repositories.size()];
+        for (int i = 0; i < repositories.size(); i++) {
+            List<RemoteRepository> repository = List.of(repositories.get(i));
+            futures.add(lookupExecutor.submit(() -> resolveVersionRange(mavenSession, builder, repository)));
+            deadlines[i] = System.nanoTime() + parallelVersionLookupTimeout.toNanos();
+        }
+
+        List<VersionRangeResult> rangeResults = new ArrayList<>(repositories.size());
+        IOException failure = null;
+        for (int i = 0; i < repositories.size(); i++) {
+            RemoteRepository repository = repositories.get(i);
+            try {
+                rangeResults.add(futures.get(i).get(Math.max(0, deadlines[i] - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                // interrupts the lookup, the result would be ignored
+                futures.get(i).cancel(true);
+                metricsListener.count(MetricsSink.VERSION_LOOKUP_TIMEOUT, repository.getId(), 1);
+                LOG.warn(format("Repository %s did not return the versions of %s:%s within %s", repository.getId(),
+                        builder.groupId(), builder.artifactId(), parallelVersionLookupTimeout));
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = new IOException(format("Could not resolve the versions of %s:%s", builder.groupId(), builder.artifactId()));
+                }
+                failure.addSuppressed(e.getCause());
+            } catch (InterruptedException e) {
+                for (Future<VersionRangeResult> future : futures) {
+                    future.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for version lookups");
+            }
+        }
+
+        if (rangeResults.isEmpty()) {
+            throw failure != null ? failure : new IOException(format("No repository returned the versions of %s:%s within %s",
+                    builder.groupId(), builder.artifactId(), parallelVersionLookupTimeout));
+        }
+        return new VersionCache.Versions(mergeVersions(rangeResults), rangeResults.size() == repositories.size());
+    }
+
+    private VersionRangeResult resolveVersionRange(RepositorySystemSession mavenSession, MavenVersionMatchBuilder builder, List<RemoteRepository> repositories)
+            throws IOException {
         Artifact artifact = new DefaultArtifact(builder.groupId(), builder.artifactId(), builder.extension(), "[0,)");
 
         VersionRangeRequest rangeRequest = new VersionRangeRequest();
         rangeRequest.setArtifact(artifact);
-        rangeRequest.setRepositories(this.remoteRepositories);
+        rangeRequest.setRepositories(repositories);
 
         try {
             VersionRangeResult rangeResult = this.repositorySystem.resolveVersionRange(mavenSession, rangeRequest);
-            SortedSet<Version> resultBuilder = new TreeSet<>();
-            List<Version> artifactVersions = rangeResult.getVersions();
-            VersionStrategy versionStrategy = builder.versionStrategy();
-            if (artifactVersions != null) {
-                for (Version artifactVersion : artifactVersions) {
-                    boolean isSnapshot = artifactVersion.toString().endsWith("-SNAPSHOT");
-                    boolean match = versionStrategy.matchVersion(artifactVersion);
-
-                    // remove match if snapshots are not requested but the version is a snapshot
-                    if (isSnapshot) {
-                        match &= builder.includeSnapshots();
-                    }
-
-                    if (match) {
-                        resultBuilder.add(artifactVersion);
-                    }
+            for (Exception exception : rangeResult.getExceptions()) {
+                if (exception instanceof MetadataNotFoundException) {
+                    negativeCache.put(metadataResource(builder), ((MetadataNotFoundException) exception).getRepository());
                 }
             }
-            return Collections.unmodifiableSortedSet(resultBuilder);
+            return rangeResult;
         } catch (VersionRangeResolutionException e) {
             throw new IOException(format("Could not resolve version range: %s", rangeRequest), e);
         }
     }
 
+    // path of an artifact in a remote repository with the Maven 2 layout
+    static String remotePath(Artifact artifact) {
+        StringBuilder path = new StringBuilder()
+                .append(artifact.getGroupId().replace('.', '/')).append('/')
+                .append(artifact.getArtifactId()).append('/')
+                .append(artifact.getBaseVersion()).append('/')
+                .append(artifact.getArtifactId()).append('-').append(artifact.getVersion());
+        if (!artifact.getClassifier().isEmpty()) {
+            path.append('-').append(artifact.getClassifier());
+        }
+        if (!artifact.getExtension().isEmpty()) {
+            path.append('.').append(artifact.getExtension());
+        }
+        return path.toString();
+    }
+
+    private static String metadataResource(MavenVersionMatchBuilder builder) {
+        return builder.groupId() + ':' + builder.artifactId();
+    }
+
+    /**
+     * Merges the versions of multiple range results. If multiple repositories supply a version, it is reported for the first repository.
+     */
+    private static List<VersionKey> mergeVersions(List<VersionRangeResult> rangeResults) {
+        // version queries scan from the newest version, make sure that the list is ordered
+        Map<Version, String> versions = new TreeMap<>();
+        for (VersionRangeResult rangeResult : rangeResults) {
+            if (rangeResult.getVersions() == null) {
+                continue;
+            }
+            for (Version version : rangeResult.getVersions()) {
+                if (!versions.containsKey(version)) {
+                    ArtifactRepository repository = rangeResult.getRepository(version);
+                    versions.put(version, repository == null ? null : repository.getId());
+                }
+            }
+        }
+
+        List<VersionKey> versionKeys = new ArrayList<>(versions.size());
+        for (Map.Entry<Version, String> entry : versions.entrySet()) {
+            versionKeys.add(VersionKey.of(entry.getKey(), entry.getValue()));
+        }
+        return versionKeys;
+    }
+
+    /**
+     * Returns the artifact file from the local repository if the resolution mode allows skipping the remote repositories and the file is present.
+     */
+    private File findLocalArtifactFile(RepositorySystemSession mavenSession, Artifact artifact) {
+        if (resolutionMode != ResolutionMode.LOCAL_FIRST && resolutionMode != ResolutionMode.OFFLINE) {
+            return null;
+        }
+
+        LocalArtifactRequest localArtifactRequest = new LocalArtifactRequest(artifact, this.remoteRepositories, null);
+        LocalArtifactResult localArtifactResult = mavenSession.getLocalRepositoryManager().find(mavenSession, localArtifactRequest);
+        File file = localArtifactResult.getFile();
+        if (file != null && file.isFile()) {
+            metricsListener.count(MetricsSink.LOCAL_HIT, MetricsSink.LOCAL_REPOSITORY, 1);
+            return file;
+        }
+        return null;
+    }
+
+    private static Map<ResolutionMode, RepositorySystemSession> createSessions(DefaultRepositorySystemSession mavenSession) {
+        Map<ResolutionMode, RepositorySystemSession> sessions = new EnumMap<>(ResolutionMode.class);
+        sessions.put(ResolutionMode.DEFAULT, mavenSession);
+        sessions.put(ResolutionMode.OFFLINE, new DefaultRepositorySystemSession(mavenSession)
+                .setOffline(true));
+        sessions.put(ResolutionMode.LOCAL_FIRST, new DefaultRepositorySystemSession(mavenSession)
+                .setUpdatePolicy(RepositoryPolicy.UPDATE_POLICY_NEVER));
+        sessions.put(ResolutionMode.REMOTE_ALWAYS, new DefaultRepositorySystemSession(mavenSession)
+                .setUpdatePolicy(RepositoryPolicy.UPDATE_POLICY_ALWAYS));
+        return Collections.unmodifiableMap(sessions);
+    }
+
+    /**
+     * Creates sessions that do not lock the metadata of an artifact for all repositories. The lookup in each repository writes only the metadata file
+     * for this repository in the local repository. Each session has its own session data, the resolver keeps the locking setup there.
+     */
+    private static Map<ResolutionMode, RepositorySystemSession> createVersionLookupSessions(Map<ResolutionMode, RepositorySystemSession> mavenSessions) {
+        Map<ResolutionMode, RepositorySystemSession> sessions = new EnumMap<>(ResolutionMode.class);
+        for (Map.Entry<ResolutionMode, RepositorySystemSession> entry : mavenSessions.entrySet()) {
+            sessions.put(entry.getKey(), new DefaultRepositorySystemSession(entry.getValue())
+                    .setConfigProperty(CONFIG_PROP_SYNC_CONTEXT_FACTORY, "noop")
+                    .setData(new DefaultSessionData()));
+        }
+        return Collections.unmodifiableMap(sessions);
+    }
 
     @SuppressWarnings("deprecation")
     private static ServiceLocator createServiceLocator() {
@@ -248,6 +1003,7 @@ public final class MavenArtifactLoader {
         locator.addService(RepositoryConnectorFactory.class, BasicRepositoryConnectorFactory.class);
         locator.addService(TransporterFactory.class, FileTransporterFactory.class);
         locator.addService(TransporterFactory.class, HttpTransporterFactory.class);
+        locator.setService(SyncContextFactory.class, MeteredSyncContextFactory.class);
 
         locator.setErrorHandler(new DefaultServiceLocator.ErrorHandler() {
             @Override
@@ -259,11 +1015,30 @@ public final class MavenArtifactLoader {
         return locator;
     }
 
-    private static Settings createSettings() throws SettingsBuildingException {
+    private static Settings loadSettings() throws SettingsBuildingException {
+        return loadSettings(DEFAULT_USER_SETTINGS_FILE, DEFAULT_GLOBAL_SETTINGS_FILE);
+    }
+
+    static Settings loadSettings(File userSettingsFile, File globalSettingsFile) throws SettingsBuildingException {
+        // settings are reused until any of the settings files changes
+        List<Object> settingsKey = List.of(
+                userSettingsFile, userSettingsFile.lastModified(), userSettingsFile.length(),
+                globalSettingsFile, globalSettingsFile.lastModified(), globalSettingsFile.length());
+
+        synchronized (SETTINGS_LOCK) {
+            if (!settingsKey.equals(cachedSettingsKey)) {
+                cachedSettings = createSettings(userSettingsFile, globalSettingsFile);
+                cachedSettingsKey = settingsKey;
+            }
+            return cachedSettings;
+        }
+    }
+
+    private static Settings createSettings(File userSettingsFile, File globalSettingsFile) throws SettingsBuildingException {
         SettingsBuildingRequest settingsBuildingRequest = new DefaultSettingsBuildingRequest()
                 .setSystemProperties(System.getProperties())
-                .setUserSettingsFile(DEFAULT_USER_SETTINGS_FILE)
-                .setGlobalSettingsFile(DEFAULT_GLOBAL_SETTINGS_FILE);
+                .setUserSettingsFile(userSettingsFile)
+                .setGlobalSettingsFile(globalSettingsFile);
 
         DefaultSettingsBuilderFactory settingBuilderFactory = new DefaultSettingsBuilderFactory();
         DefaultSettingsBuilder settingsBuilder = settingBuilderFactory.newInstance();
@@ -296,4 +1071,15 @@ public final class MavenArtifactLoader {
 
         return Collections.unmodifiableList(builder);
     }
+
+    private static final class RepositorySystemHolder {
+
+        @SuppressWarnings("deprecation")
+        private static final RepositorySystem REPOSITORY_SYSTEM = createServiceLocator().getService(RepositorySystem.class);
+    }
+
+    private static final class SharedLoaderHolder {
+
+        private static final MavenArtifactLoader SHARED_LOADER = new MavenArtifactLoader();
+    }
 }
@@ -0,0 +1,490 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.eclipse.aether.repository.RemoteRepository;
+
+/**
+ * A builder class to configure a {@link MavenArtifactLoader}.
+ * <p>
+ * The loader applies the mirrors, proxies and server credentials from the Maven settings. Encrypted passwords in {@code settings.xml} (see {@code mvn
+ * --encrypt-password}) are not supported, they are sent to the server in their encrypted form.
+ */
+public final class MavenArtifactLoaderBuilder {
+
+    static final int DEFAULT_DOWNLOAD_THREADS = 5;
+    static final Duration DEFAULT_VERSION_CACHE_TTL = Duration.ofMinutes(5);
+    static final int DEFAULT_VERSION_CACHE_SIZE = 1000;
+    static final Duration DEFAULT_NEGATIVE_CACHE_TTL = Duration.ofMinutes(1);
+    static final int DEFAULT_NEGATIVE_CACHE_SIZE = 10_000;
+    static final long DEFAULT_EXTRACTION_CACHE_SIZE = 4L * 1024 * 1024 * 1024;
+
+    private String extension = "jar";
+    private int downloadThreads = DEFAULT_DOWNLOAD_THREADS;
+    private Duration versionCacheTtl = DEFAULT_VERSION_CACHE_TTL;
+    private int versionCacheSize = DEFAULT_VERSION_CACHE_SIZE;
+    private Duration versionIndexTtl = Duration.ZERO;
+    private Duration parallelVersionLookupTimeout = null;
+    private Duration negativeCacheTtl = DEFAULT_NEGATIVE_CACHE_TTL;
+    private Duration lockWaitTimeout = null;
+    private int rangedDownloadConnections = 0;
+    private long rangedDownloadMinimumSize = 0;
+    private int negativeCacheSize = DEFAULT_NEGATIVE_CACHE_SIZE;
+    private Executor executor = null;
+    private ResolutionMode resolutionMode = ResolutionMode.DEFAULT;
+    private TransportConfiguration transportConfiguration = TransportConfiguration.DEFAULT;
+    private boolean preferFastestMirror = false;
+    private UpdatePolicy snapshotUpdatePolicy = null;
+    private boolean pinSnapshots = false;
+    private File extractionDirectory = null;
+    private long extractionCacheSize = DEFAULT_EXTRACTION_CACHE_SIZE;
+    private final List<MetricsSink> metricsSinks = new ArrayList<>();
+
+    private List<RemoteRepository> remoteRepositories = null;
+    private File localRepository = null;
+    private final List<File> baseRepositories = new ArrayList<>();
+
+    MavenArtifactLoaderBuilder() {
+    }
+
+    /**
+     * Set the extension to use for artifacts. Default is "jar".
+     *
+     * @param extension The artifact extension. Must not be null.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder extension(String extension) {
+        this.extension = requireNonNull(extension, "extension is null");
+        return this;
+    }
+
+    /**
+     * Set the number of concurrent downloads per remote repository when resolving multiple artifacts at once. This is also the number of dependency
+     * descriptors that are fetched in parallel when resolving transitive dependencies.
+     *
+     * @param downloadThreads The number of download threads. Must be at least 1. Default is 5.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder downloadThreads(int downloadThreads) {
+        if (downloadThreads < 1) {
+            throw new IllegalArgumentException("downloadThreads must be at least 1");
+        }
+        this.downloadThreads = downloadThreads;
+        return this;
+    }
+
+    /**
+     * Set how long the list of versions for an artifact is cached by the loader. Within this time, all version queries for the same artifact are
+     * answered from memory. A zero duration disables the cache.
+     *
+     * @param versionCacheTtl The time to keep version lists. Must not be null or negative. Default is five minutes.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder versionCacheTtl(Duration versionCacheTtl) {
+        requireNonNull(versionCacheTtl, "versionCacheTtl is null");
+        if (versionCacheTtl.isNegative()) {
+            throw new IllegalArgumentException("versionCacheTtl must not be negative");
+        }
+        this.versionCacheTtl = versionCacheTtl;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of artifacts whose version lists are cached. When the cache is full, the least recently used entry is evicted.
+     *
+     * @param versionCacheSize The maximum number of cached version lists. Must be at least 1. Default is 1000.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder versionCacheSize(int versionCacheSize) {
+        if (versionCacheSize < 1) {
+            throw new IllegalArgumentException("versionCacheSize must be at least 1");
+        }
+        this.versionCacheSize = versionCacheSize;
+        return this;
+    }
+
+    /**
+     * Set how long version lists are kept in a persistent index next to the local repository. The index survives restarts of the JVM, so a new
+     * loader answers version queries for recently used artifacts without contacting the remote repositories. The index is not used for
+     * {@link ResolutionMode#REMOTE_ALWAYS}. A zero duration disables the index.
+     *
+     * @param versionIndexTtl The time to keep version lists in the persistent index. Must not be null or negative. Default is zero.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder versionIndexTtl(Duration versionIndexTtl) {
+        requireNonNull(versionIndexTtl, "versionIndexTtl is null");
+        if (versionIndexTtl.isNegative()) {
+            throw new IllegalArgumentException("versionIndexTtl must not be negative");
+        }
+        this.versionIndexTtl = versionIndexTtl;
+        return this;
+    }
+
+    /**
+     * Set how long the loader remembers that a remote repository does not have an artifact or the version list of an artifact. Repeated requests
+     * for missing artifacts or versions skip these repositories until the entry expires. The cache is not used for
+     * {@link ResolutionMode#REMOTE_ALWAYS}. A zero duration disables the cache.
+     *
+     * @param negativeCacheTtl The time to remember missing artifacts and versions. Must not be null or negative. Default is one minute.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder negativeCacheTtl(Duration negativeCacheTtl) {
+        requireNonNull(negativeCacheTtl, "negativeCacheTtl is null");
+        if (negativeCacheTtl.isNegative()) {
+            throw new IllegalArgumentException("negativeCacheTtl must not be negative");
+        }
+        this.negativeCacheTtl = negativeCacheTtl;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of remembered missing artifacts and version lists. Each entry is an artifact or version list that one repository does
+     * not have. When the cache is full, the least recently used entry is evicted.
+     *
+     * @param negativeCacheSize The maximum number of entries. Must be at least 1. Default is 10000.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder negativeCacheSize(int negativeCacheSize) {
+        if (negativeCacheSize < 1) {
+            throw new IllegalArgumentException("negativeCacheSize must be at least 1");
+        }
+        this.negativeCacheSize = negativeCacheSize;
+        return this;
+    }
+
+    /**
+     * Look up the version list of an artifact in all remote repositories in parallel instead of one repository after the other. The lookups run on
+     * their own threads, not on the executor of the loader. A repository that does not return its versions within the timeout is skipped and its
+     * lookup is cancelled. A version list with skipped repositories is not cached, the next lookup asks all repositories again. The result reports
+     * which repository supplied each version, see {@link MavenVersionMatchBuilder#findAllWithRepository()}.
+     *
+     * @param repositoryTimeout The time to wait for each repository, starting with the lookup in this repository. Must not be null and must be
+     *                          positive.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder parallelVersionLookup(Duration repositoryTimeout) {
+        requireNonNull(repositoryTimeout, "repositoryTimeout is null");
+        if (repositoryTimeout.isNegative() || repositoryTimeout.isZero()) {
+            throw new IllegalArgumentException("repositoryTimeout must be positive");
+        }
+        this.parallelVersionLookupTimeout = repositoryTimeout;
+        return this;
+    }
+
+    /**
+     * Synchronize access to the local repository with other processes. Artifacts and repository metadata are locked with lock files in the local
+     * repository while they are resolved, so loaders in different JVMs that share a local repository download each artifact only once. A loader that
+     * waits for a lock uses the artifact as soon as the other process has stored it. Without this option, only loaders in the same JVM are
+     * synchronized. Parallel version lookups (see {@link #parallelVersionLookup(Duration)}) do not lock the repository metadata.
+     * <p>
+     * The resolver deletes lock files after use by default. A deleted lock file can be created again by another process while the lock on it is still
+     * held, so callers that share a local repository between processes should keep them by setting the system property
+     * {@code aether.named.file-lock.deleteLockFiles} to {@code false} (e.g. {@code -Daether.named.file-lock.deleteLockFiles=false}) before the
+     * first loader of the JVM is created. The resolver reads it only once, the loader does not change it.
+     *
+     * @param lockWaitTimeout The time to wait for a lock. Must not be null and must be positive. A resolution that can not acquire its locks in this
+     *                        time fails with an {@link IllegalStateException}.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder crossProcessLocking(Duration lockWaitTimeout) {
+        requireNonNull(lockWaitTimeout, "lockWaitTimeout is null");
+        if (lockWaitTimeout.isNegative() || lockWaitTimeout.isZero()) {
+            throw new IllegalArgumentException("lockWaitTimeout must be positive");
+        }
+        this.lockWaitTimeout = lockWaitTimeout;
+        return this;
+    }
+
+    /**
+     * Download large artifacts with multiple HTTP range requests in parallel. Each range is stored in a part file in the local repository, a download
+     * that was interrupted continues from the part files when the artifact is requested again. The checksum of the artifact is verified after all
+     * ranges were downloaded. Applies to {@link MavenArtifactLoader#getArtifactFile(String, String, String)} and the methods based on it.
+     * <p>
+     * Each remote download starts with a HEAD request for the size of the artifact. The requests use the timeouts and retry count of the
+     * {@link #transportConfiguration(TransportConfiguration) transport configuration}, the configured HTTP headers and the proxy and username and
+     * password of the repository.
+     * Artifacts that are smaller than the minimum size, snapshots, repositories that need client certificates, NTLM or insecure HTTPS and servers without
+     * range support use a single download stream. If a ranged download fails, the artifact is downloaded again in a single stream. The ranges are
+     * downloaded on threads of the loader, not on the executor of the loader.
+     *
+     * @param connections The number of parallel range requests for each artifact. Must be at least 2.
+     * @param minimumSize The minimum artifact size in bytes for ranged downloads. Must not be negative.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder rangedDownloads(int connections, long minimumSize) {
+        if (connections < 2) {
+            throw new IllegalArgumentException("connections must be at least 2");
+        }
+        if (minimumSize < 0) {
+            throw new IllegalArgumentException("minimumSize must not be negative");
+        }
+        this.rangedDownloadConnections = connections;
+        this.rangedDownloadMinimumSize = minimumSize;
+        return this;
+    }
+
+    /**
+     * Set the executor that runs asynchronous operations if no executor is given explicitly. If unset, virtual threads are used when the runtime supports
+     * them, otherwise a pool of daemon threads.
+     *
+     * @param executor The executor for asynchronous operations. Must not be null.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder executor(Executor executor) {
+        this.executor = requireNonNull(executor, "executor is null");
+        return this;
+    }
+
+    /**
+     * Set whether artifacts and versions are resolved from the local repository or the remote repositories. This is the default for all operations of
+     * the loader and can be overridden for version lookups with {@link MavenVersionMatchBuilder#resolutionMode(ResolutionMode)}.
+     *
+     * @param resolutionMode The resolution mode. Must not be null. Default is {@link ResolutionMode#DEFAULT}.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder resolutionMode(ResolutionMode resolutionMode) {
+        this.resolutionMode = requireNonNull(resolutionMode, "resolutionMode is null");
+        return this;
+    }
+
+    /**
+     * Add a sink that receives the metrics of the loader, e.g. to export them to a monitoring system. The metrics are also always available from
+     * {@link MavenArtifactLoader#metrics()}.
+     *
+     * @param metricsSink A metrics sink. Must not be null.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder metricsSink(MetricsSink metricsSink) {
+        this.metricsSinks.add(requireNonNull(metricsSink, "metricsSink is null"));
+        return this;
+    }
+
+    /**
+     * Set timeouts, connection pooling and retries for the HTTP transport to remote repositories.
+     *
+     * @param transportConfiguration The transport configuration. Must not be null. Default is {@link TransportConfiguration#DEFAULT}.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder transportConfiguration(TransportConfiguration transportConfiguration) {
+        this.transportConfiguration = requireNonNull(transportConfiguration, "transportConfiguration is null");
+        return this;
+    }
+
+    /**
+     * If true and multiple mirrors from the Maven settings match a repository, the mirror that answers a HEAD request fastest is used. Otherwise, the
+     * first matching mirror in the settings is used. The mirrors are probed through the proxies from the settings when they are first needed, and
+     * each mirror is probed only once until the settings files change. Only the selected mirror is used for a repository, if it fails, the other
+     * matching mirrors are not tried.
+     *
+     * @param preferFastestMirror If true, select the matching mirror with the lowest latency. Default is false.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder preferFastestMirror(boolean preferFastestMirror) {
+        this.preferFastestMirror = preferFastestMirror;
+        return this;
+    }
+
+    /**
+     * Set the directory that holds artifacts extracted with {@link MavenArtifactLoader#extractArtifact(String, String, String)}. The directory can be
+     * shared by multiple loaders and processes. Default is a directory inside the local repository.
+     *
+     * @param extractionDirectory The extraction directory. Must not be null.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder extractionDirectory(File extractionDirectory) {
+        this.extractionDirectory = requireNonNull(extractionDirectory, "extractionDirectory is null");
+        return this;
+    }
+
+    /**
+     * Set the maximum total size of all extracted artifacts. When the size is exceeded, the least recently used extracted artifacts are removed.
+     * Artifacts that were extracted for a running process are kept until the process exits.
+     *
+     * @param extractionCacheSize The maximum size in bytes. Must not be negative. Default is 4 GB.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder extractionCacheSize(long extractionCacheSize) {
+        if (extractionCacheSize < 0) {
+            throw new IllegalArgumentException("extractionCacheSize must not be negative");
+        }
+        this.extractionCacheSize = extractionCacheSize;
+        return this;
+    }
+
+    /**
+     * Set how often snapshot artifacts and versions are checked for updates in the remote repositories. Applies to {@link ResolutionMode#DEFAULT},
+     * the other resolution modes never or always check for updates.
+     *
+     * @param snapshotUpdatePolicy The update policy for snapshots. Must not be null. Default is the policy of each repository, usually
+     *                             {@link UpdatePolicy#DAILY}.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder snapshotUpdatePolicy(UpdatePolicy snapshotUpdatePolicy) {
+        this.snapshotUpdatePolicy = requireNonNull(snapshotUpdatePolicy, "snapshotUpdatePolicy is null");
+        return this;
+    }
+
+    /**
+     * If true, snapshot versions are resolved to a timestamped version on first use and the loader keeps using this version. Repeated downloads of the
+     * same snapshot do not check the remote repositories for newer builds. See {@link MavenArtifactLoader#pinSnapshotVersion(String, String, String)}.
+     *
+     * @param pinSnapshots If true, pin snapshot versions. Default is false.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder pinSnapshots(boolean pinSnapshots) {
+        this.pinSnapshots = pinSnapshots;
+        return this;
+    }
+
+    MavenArtifactLoaderBuilder remoteRepositories(List<RemoteRepository> remoteRepositories) {
+        this.remoteRepositories = remoteRepositories;
+        return this;
+    }
+
+    /**
+     * Set the local repository. New downloads are stored in this repository. If unset, the local repository from the Maven settings or
+     * {@code ~/.m2/repository} is used.
+     *
+     * @param localRepository The local repository directory. Must not be null.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder localRepository(File localRepository) {
+        this.localRepository = requireNonNull(localRepository, "localRepository is null");
+        return this;
+    }
+
+    /**
+     * Add a read-only base repository, e.g. a pre-populated repository on a shared volume. Artifacts that are present in a base repository are used
+     * from there without copying them into the local repository. Base repositories are never written, all new downloads and all repository metadata
+     * go to the local repository. Base repositories are consulted after the local repository in the order in which they were added.
+     *
+     * @param baseRepository The base repository directory. Must not be null.
+     * @return the builder
+     */
+    public MavenArtifactLoaderBuilder baseRepository(File baseRepository) {
+        requireNonNull(baseRepository, "baseRepository is null");
+        this.baseRepositories.add(baseRepository);
+        return this;
+    }
+
+    String extension() {
+        return extension;
+    }
+
+    int downloadThreads() {
+        return downloadThreads;
+    }
+
+    Duration versionCacheTtl() {
+        return versionCacheTtl;
+    }
+
+    int versionCacheSize() {
+        return versionCacheSize;
+    }
+
+    Duration versionIndexTtl() {
+        return versionIndexTtl;
+    }
+
+    Duration negativeCacheTtl() {
+        return negativeCacheTtl;
+    }
+
+    int negativeCacheSize() {
+        return negativeCacheSize;
+    }
+
+    Duration parallelVersionLookupTimeout() {
+        return parallelVersionLookupTimeout;
+    }
+
+    Duration lockWaitTimeout() {
+        return lockWaitTimeout;
+    }
+
+    int rangedDownloadConnections() {
+        return rangedDownloadConnections;
+    }
+
+    long rangedDownloadMinimumSize() {
+        return rangedDownloadMinimumSize;
+    }
+
+    Executor executor() {
+        return executor != null ? executor : AsyncSupport.defaultExecutor();
+    }
+
+    ResolutionMode resolutionMode() {
+        return resolutionMode;
+    }
+
+    List<MetricsSink> metricsSinks() {
+        return metricsSinks;
+    }
+
+    TransportConfiguration transportConfiguration() {
+        return transportConfiguration;
+    }
+
+    boolean preferFastestMirror() {
+        return preferFastestMirror;
+    }
+
+    File extractionDirectory() {
+        return extractionDirectory;
+    }
+
+    long extractionCacheSize() {
+        return extractionCacheSize;
+    }
+
+    UpdatePolicy snapshotUpdatePolicy() {
+        return snapshotUpdatePolicy;
+    }
+
+    boolean pinSnapshots() {
+        return pinSnapshots;
+    }
+
+    List<RemoteRepository> remoteRepositories() {
+        return remoteRepositories;
+    }
+
+    File localRepository() {
+        return localRepository;
+    }
+
+    List<File> baseRepositories() {
+        return baseRepositories;
+    }
+
+    /**
+     * Creates a new artifact loader from the builder configuration.
+     *
+     * @return A {@link MavenArtifactLoader} instance.
+     */
+    public MavenArtifactLoader build() {
+        return new MavenArtifactLoader(this);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The result of resolving multiple artifacts at once. Every requested artifact is either present in the {@link #artifactFiles()} or the
+ * {@link #failures()} map.
+ */
+public final class MavenBatchResult {
+
+    private final Map<MavenArtifactCoordinates, File> artifactFiles;
+    private final Map<MavenArtifactCoordinates, IOException> failures;
+
+    MavenBatchResult(Map<MavenArtifactCoordinates, File> artifactFiles, Map<MavenArtifactCoordinates, IOException> failures) {
+        this.artifactFiles = Collections.unmodifiableMap(artifactFiles);
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * Returns all successfully downloaded artifacts.
+     *
+     * @return Map from artifact coordinates to the downloaded file. This map may be empty but is never null.
+     */
+    public Map<MavenArtifactCoordinates, File> artifactFiles() {
+        return artifactFiles;
+    }
+
+    /**
+     * Returns all artifacts that could not be resolved.
+     *
+     * @return Map from artifact coordinates to the resolution problem. This map may be empty but is never null.
+     */
+    public Map<MavenArtifactCoordinates, IOException> failures() {
+        return failures;
+    }
+
+    /**
+     * Returns true if any of the requested artifacts could not be resolved.
+     *
+     * @return True if at least one artifact could not be resolved.
+     */
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.aether.graph.Exclusion;
+import org.eclipse.aether.util.artifact.JavaScopes;
+
+/**
+ * A builder class to resolve an artifact and all its transitive dependencies.
+ */
+public final class MavenDependencyBuilder {
+
+    private final MavenArtifactLoader loader;
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+
+    private final Set<String> scopes = new LinkedHashSet<>(List.of(JavaScopes.COMPILE, JavaScopes.RUNTIME));
+    private final List<Exclusion> exclusions = new ArrayList<>();
+
+    MavenDependencyBuilder(MavenArtifactLoader loader, String groupId, String artifactId, String version) {
+        this.loader = loader;
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+    }
+
+    /**
+     * Set the dependency scopes to include. The artifact itself is always included. Default is "compile" and "runtime".
+     *
+     * @param scopes The dependency scopes to include. Must not be null.
+     * @return the builder
+     */
+    public MavenDependencyBuilder scopes(String... scopes) {
+        requireNonNull(scopes, "scopes is null");
+
+        this.scopes.clear();
+        Collections.addAll(this.scopes, scopes);
+        return this;
+    }
+
+    /**
+     * Exclude a transitive dependency and all of its dependencies. Either value may be "*" to match any group or artifact id.
+     *
+     * @param groupId    The Apache Maven Group Id of the excluded dependency. Must not be null.
+     * @param artifactId The Apache Maven Artifact Id of the excluded dependency. Must not be null.
+     * @return the builder
+     */
+    public MavenDependencyBuilder exclude(String groupId, String artifactId) {
+        requireNonNull(groupId, "groupId is null");
+        requireNonNull(artifactId, "artifactId is null");
+
+        this.exclusions.add(new Exclusion(groupId, artifactId, "*", "*"));
+        return this;
+    }
+
+    String groupId() {
+        return groupId;
+    }
+
+    String artifactId() {
+        return artifactId;
+    }
+
+    String version() {
+        return version;
+    }
+
+    Set<String> scopes() {
+        return scopes;
+    }
+
+    List<Exclusion> exclusions() {
+        return exclusions;
+    }
+
+    /**
+     * Resolves the artifact and its transitive dependencies and downloads all artifacts. Dependency metadata is fetched and the artifacts are
+     * downloaded in parallel.
+     *
+     * @return The artifact files in classpath order, starting with the artifact itself. This list is never empty.
+     * @throws IOException If the dependencies could not be resolved or an IO problem happened while downloading the artifacts.
+     */
+    public List<File> resolveClasspath() throws IOException {
+        return loader.resolveDependencies(this);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Command line entry point to download the artifacts of a manifest into the local repository, see {@link MavenPrefetchBuilder} for the manifest
+ * format.
+ * <pre>
+ * java -cp maven-loader.jar:... de.softwareforge.testing.maven.MavenPrefetch &lt;manifest&gt; [&lt;lock file&gt;]
+ * </pre>
+ * The lock file defaults to the manifest file name with a ".lock" suffix. The local repository and the remote repositories are taken from the Maven
+ * settings. Exits with status 1 if any artifact could not be downloaded.
+ */
+public final class MavenPrefetch {
+
+    private MavenPrefetch() {
+        throw new AssertionError("do not instantiate");
+    }
+
+    /**
+     * Downloads the artifacts of a manifest.
+     *
+     * @param args The manifest file and an optional lock file.
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, MavenArtifactLoader::shared, System.out, System.err));
+    }
+
+    /**
+     * Downloads the artifacts of a manifest with a loader.
+     *
+     * @return The exit status, 0 if all artifacts were downloaded, 1 if any artifact could not be downloaded and 2 for invalid arguments.
+     */
+    static int run(String[] args, Supplier<MavenArtifactLoader> loader, PrintStream out, PrintStream err) {
+        if (args.length < 1 || args.length > 2) {
+            err.println("usage: MavenPrefetch <manifest> [<lock file>]");
+            return 2;
+        }
+
+        Path manifest = Path.of(args[0]);
+        Path lockFile = args.length > 1 ? Path.of(args[1]) : manifest.resolveSibling(manifest.getFileName() + ".lock");
+
+        MavenBatchResult result;
+        try {
+            result = loader.get().prefetch()
+                    .manifest(manifest)
+                    .lockFile(lockFile)
+                    .prefetch();
+        } catch (IOException e) {
+            err.println(e.getMessage());
+            for (Throwable suppressed : e.getSuppressed()) {
+                err.println("  " + suppressed.getMessage());
+            }
+            return 1;
+        }
+
+        for (Map.Entry<MavenArtifactCoordinates, File> artifactFile : result.artifactFiles().entrySet()) {
+            out.println(artifactFile.getKey() + " -> " + artifactFile.getValue());
+        }
+        for (Map.Entry<MavenArtifactCoordinates, IOException> failure : result.failures().entrySet()) {
+            err.println(failure.getKey() + ": " + failure.getValue().getMessage());
+        }
+        return result.hasFailures() ? 1 : 0;
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A builder class to download a list of artifacts into the local repository, e.g. to warm up the repository in a container image build.
+ * <p>
+ * Each artifact is given as a manifest entry {@code groupId:artifactId[:extension[:classifier]]:version}. The version is matched like
+ * {@link MavenVersionMatchBuilder} does:
+ * <ul>
+ *     <li>{@code 2.1} matches the newest version that starts with "2.1", an empty version or {@code *} matches the newest version</li>
+ *     <li>{@code =2.1.0} matches exactly "2.1.0"</li>
+ *     <li>{@code ^2} matches the newest version with semantic major version 2</li>
+ *     <li>{@code ~2.1} matches the newest version with semantic major version 2 and minor version 1</li>
+ *     <li>{@code [2.0,3.0)} matches the newest version in the version range</li>
+ * </ul>
+ * <p>
+ * With a lock file, the chosen version of every entry is written after all artifacts were downloaded. Entries that are found in an existing lock
+ * file use the locked version without looking up versions again.
+ */
+public final class MavenPrefetchBuilder {
+
+    private static final String LOCK_FILE_HEADER = "# versions chosen by maven-loader, one <manifest entry>=<version> per line";
+
+    private final MavenArtifactLoader loader;
+
+    // keyed by manifest entry
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private Path lockFile = null;
+
+    MavenPrefetchBuilder(MavenArtifactLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Add an artifact to download.
+     *
+     * @param entry The manifest entry for the artifact, {@code groupId:artifactId[:extension[:classifier]]:version}. Must not be null.
+     * @return the builder
+     * @throws IllegalArgumentException If the manifest entry is invalid.
+     */
+    public MavenPrefetchBuilder artifact(String entry) {
+        requireNonNull(entry, "entry is null");
+
+        Entry parsedEntry = Entry.parse(entry.trim());
+        this.entries.put(parsedEntry.spec, parsedEntry);
+        return this;
+    }
+
+    /**
+     * Add all artifacts from a manifest file. The file contains one manifest entry per line, empty lines and lines starting with '#' are ignored.
+     *
+     * @param manifest The manifest file. Must not be null.
+     * @return the builder
+     * @throws IOException If the manifest file could not be read or contains an invalid entry.
+     */
+    public MavenPrefetchBuilder manifest(Path manifest) throws IOException {
+        requireNonNull(manifest, "manifest is null");
+
+        for (String line : Files.readAllLines(manifest, UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                artifact(line);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(format("Invalid manifest %s: %s", manifest, e.getMessage()), e);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Set the lock file. If the lock file exists, its versions are used for the entries that it contains. After all artifacts were downloaded
+     * successfully, the lock file is written with the versions of all entries.
+     *
+     * @param lockFile The lock file. Must not be null.
+     * @return the builder
+     */
+    public MavenPrefetchBuilder lockFile(Path lockFile) {
+        this.lockFile = requireNonNull(lockFile, "lockFile is null");
+        return this;
+    }
+
+    /**
+     * Chooses the version of every entry and downloads all artifacts into the local repository. The versions are looked up in parallel on the
+     * executor of the loader, the artifacts are downloaded in parallel.
+     *
+     * @return The downloaded files and failures, keyed by coordinates with the chosen versions.
+     * @throws IOException If the version of an entry could not be chosen, the lock file could not be read or written.
+     */
+    public MavenBatchResult prefetch() throws IOException {
+        Map<String, String> lockedVersions = lockFile != null && Files.isRegularFile(lockFile) ? readLockFile(lockFile) : Map.of();
+
+        Map<Entry, CompletableFuture<Optional<String>>> versionLookups = new LinkedHashMap<>();
+        for (Entry entry : entries.values()) {
+            String lockedVersion = lockedVersions.get(entry.spec);
+            versionLookups.put(entry, lockedVersion != null
+                    ? CompletableFuture.completedFuture(Optional.of(lockedVersion))
+                    : entry.versionMatch(loader).findBestMatchAsync());
+        }
+
+        Map<String, String> versions = new LinkedHashMap<>();
+        List<MavenArtifactCoordinates> coordinates = new ArrayList<>(versionLookups.size());
+        List<IOException> failures = new ArrayList<>();
+        for (Map.Entry<Entry, CompletableFuture<Optional<String>>> versionLookup : versionLookups.entrySet()) {
+            Entry entry = versionLookup.getKey();
+            try {
+                Optional<String> version = versionLookup.getValue().join();
+                if (version.isPresent()) {
+                    versions.put(entry.spec, version.get());
+                    coordinates.add(entry.coordinates(version.get()));
+                } else {
+                    failures.add(new IOException(format("No version found for %s", entry.spec)));
+                }
+            } catch (CompletionException e) {
+                failures.add(new IOException(format("Could not look up versions for %s", entry.spec), e.getCause()));
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            IOException failure = new IOException(format("Could not choose versions for %d of %d entries", failures.size(), entries.size()));
+            failures.forEach(failure::addSuppressed);
+            throw failure;
+        }
+
+        MavenBatchResult result = loader.getArtifactFiles(coordinates);
+        if (lockFile != null && !result.hasFailures() && !versions.equals(lockedVersions)) {
+            writeLockFile(lockFile, versions);
+        }
+        return result;
+    }
+
+    private static Map<String, String> readLockFile(Path lockFile) throws IOException {
+        Map<String, String> versions = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(lockFile, UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            // exact matches start the version with '=', versions themselves never contain it
+            int separator = line.lastIndexOf('=');
+            if (separator <= 0 || separator == line.length() - 1) {
+                throw new IOException(format("Invalid line in lock file %s: %s", lockFile, line));
+            }
+            versions.put(line.substring(0, separator), line.substring(separator + 1));
+        }
+        return Collections.unmodifiableMap(versions);
+    }
+
+    private static void writeLockFile(Path lockFile, Map<String, String> versions) throws IOException {
+        List<String> lines = new ArrayList<>(versions.size() + 1);
+        lines.add(LOCK_FILE_HEADER);
+        for (Map.Entry<String, String> version : versions.entrySet()) {
+            lines.add(version.getKey() + '=' + version.getValue());
+        }
+
+        Path directory = lockFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, lockFile.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tempFile, lines, UTF_8);
+            Files.move(tempFile, lockFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static final class Entry {
+
+        private final String spec;
+        private final String groupId;
+        private final String artifactId;
+        private final String extension;
+        private final String classifier;
+        private final VersionQuery query;
+
+        private static Entry parse(String spec) {
+            String[] parts = spec.split(":", -1);
+            if (parts.length < 3 || parts.length > 5 || parts[0].isEmpty() || parts[1].isEmpty()) {
+                throw new IllegalArgumentException(format("Invalid manifest entry '%s', expected groupId:artifactId[:extension[:classifier]]:version", spec));
+            }
+            String extension = parts.length > 3 && !parts[2].isEmpty() ? parts[2] : null;
+            String classifier = parts.length > 4 ? parts[3] : "";
+            return new Entry(spec, parts[0], parts[1], extension, classifier, parseVersion(spec, parts[parts.length - 1]));
+        }
+
+        private static VersionQuery parseVersion(String spec, String version) {
+            try {
+                if (version.isEmpty() || version.equals("*")) {
+                    return VersionQuery.all();
+                } else if (version.startsWith("=")) {
+                    return VersionQuery.exact(version.substring(1));
+                } else if (version.startsWith("^")) {
+                    return VersionQuery.semVerMajor(Integer.parseInt(version.substring(1)));
+                } else if (version.startsWith("~")) {
+                    String[] semVer = version.substring(1).split("\\.", -1);
+                    if (semVer.length != 2) {
+                        throw new IllegalArgumentException(format("Invalid version '%s' in manifest entry '%s', expected ~major.minor", version, spec));
+                    }
+                    return VersionQuery.semVerMinor(Integer.parseInt(semVer[0]), Integer.parseInt(semVer[1]));
+                } else if (version.startsWith("[") || version.startsWith("(")) {
+                    return VersionQuery.range(version);
+                } else {
+                    return VersionQuery.partial(version);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(format("Invalid version '%s' in manifest entry '%s'", version, spec), e);
+            }
+        }
+
+        private Entry(String spec, String groupId, String artifactId, String extension, String classifier, VersionQuery query) {
+            this.spec = spec;
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.extension = extension;
+            this.classifier = classifier;
+            this.query = query;
+        }
+
+        private MavenVersionMatchBuilder versionMatch(MavenArtifactLoader loader) {
+            return loader.builder(groupId, artifactId).query(query);
+        }
+
+        private MavenArtifactCoordinates coordinates(String version) {
+            MavenArtifactCoordinates coordinates = MavenArtifactCoordinates.of(groupId, artifactId, version).withClassifier(classifier);
+            return extension == null ? coordinates : coordinates.withExtension(extension);
+        }
+    }
+}
@@ -17,8 +17,15 @@ package de.softwareforge.testing.maven;
 import static java.util.Objects.requireNonNull;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import org.eclipse.aether.version.Version;
@@ -32,15 +39,21 @@ public final class MavenVersionMatchBuilder {
     private final String groupId;
     private final String artifactId;
 
-    private VersionStrategy versionStrategy = VersionStrategy.partialMatch("");
+    private VersionQuery query = VersionQuery.all();
 
     private String extension = "jar";
+    private String classifier = "";
+    // classifier and extension of additional variants
+    private final List<Map.Entry<String, String>> variants = new ArrayList<>();
     private boolean includeSnapshots = true;
+    private ResolutionMode resolutionMode;
+    private UpdatePolicy snapshotUpdatePolicy = null;
 
     MavenVersionMatchBuilder(MavenArtifactLoader loader, String groupId, String artifactId) {
         this.loader = loader;
         this.groupId = groupId;
         this.artifactId = artifactId;
+        this.resolutionMode = loader.resolutionMode();
     }
 
     /**
@@ -51,7 +64,7 @@ public final class MavenVersionMatchBuilder {
      * @return the builder
      */
     public MavenVersionMatchBuilder partialMatch(String partial) {
-        this.versionStrategy = VersionStrategy.partialMatch(partial);
+        this.query = VersionQuery.partial(partial);
         return this;
     }
 
@@ -62,7 +75,7 @@ public final class MavenVersionMatchBuilder {
      * @return the builder
      */
     public MavenVersionMatchBuilder exactMatch(String partial) {
-        this.versionStrategy = VersionStrategy.exactMatch(partial);
+        this.query = VersionQuery.exact(partial);
         return this;
     }
 
@@ -73,7 +86,7 @@ public final class MavenVersionMatchBuilder {
      * @return the builder
      */
     public MavenVersionMatchBuilder semVerMajor(int major) {
-        this.versionStrategy = VersionStrategy.semVerMatchMajor(major);
+        this.query = VersionQuery.semVerMajor(major);
         return this;
     }
 
@@ -85,7 +98,19 @@ public final class MavenVersionMatchBuilder {
      * @return the builder
      */
     public MavenVersionMatchBuilder semVerMinor(int major, int minor) {
-        this.versionStrategy = VersionStrategy.semVerMatchMinor(major, minor);
+        this.query = VersionQuery.semVerMinor(major, minor);
+        return this;
+    }
+
+    /**
+     * Match and select versions with a version query. Replaces any previous match.
+     *
+     * @param query The version query. Must not be null.
+     * @return the builder
+     * @see VersionQuery
+     */
+    public MavenVersionMatchBuilder query(VersionQuery query) {
+        this.query = requireNonNull(query, "query is null");
         return this;
     }
 
@@ -100,6 +125,34 @@ public final class MavenVersionMatchBuilder {
         return this;
     }
 
+    /**
+     * Set the classifier of the artifact loaded by {@link #loadBestMatch()}. Versions are always looked up for the group and artifact id, the classifier
+     * does not change the matching versions.
+     *
+     * @param classifier The classifier. Must not be null. Default is the main artifact without classifier.
+     * @return the builder
+     */
+    public MavenVersionMatchBuilder classifier(String classifier) {
+        this.classifier = requireNonNull(classifier, "classifier is null");
+        return this;
+    }
+
+    /**
+     * Add a variant of the artifact that is loaded by {@link #loadBestMatch()} in addition to the artifact itself, e.g. the "sources" jar or a
+     * platform specific native library.
+     *
+     * @param classifier The classifier of the variant. Must not be null.
+     * @param extension  The extension of the variant. Must not be null.
+     * @return the builder
+     */
+    public MavenVersionMatchBuilder variant(String classifier, String extension) {
+        requireNonNull(classifier, "classifier is null");
+        requireNonNull(extension, "extension is null");
+
+        this.variants.add(Map.entry(classifier, extension));
+        return this;
+    }
+
     /**
      * If true, snapshots are included in the results.
      *
@@ -111,6 +164,41 @@ public final class MavenVersionMatchBuilder {
         return this;
     }
 
+    /**
+     * Set whether versions are resolved from the local repository or the remote repositories.
+     *
+     * @param resolutionMode The resolution mode. Must not be null. Default is the resolution mode of the loader.
+     * @return the builder
+     */
+    public MavenVersionMatchBuilder resolutionMode(ResolutionMode resolutionMode) {
+        this.resolutionMode = requireNonNull(resolutionMode, "resolutionMode is null");
+        return this;
+    }
+
+    /**
+     * Set the snapshot update policy for this lookup. Maven checks the version list of an artifact as often as the more frequent of the release and
+     * snapshot update policies requires. Only applies to {@link ResolutionMode#DEFAULT}.
+     *
+     * @param snapshotUpdatePolicy The update policy for snapshots. Must not be null. Default is the snapshot update policy of the loader.
+     * @return the builder
+     */
+    public MavenVersionMatchBuilder snapshotUpdatePolicy(UpdatePolicy snapshotUpdatePolicy) {
+        this.snapshotUpdatePolicy = requireNonNull(snapshotUpdatePolicy, "snapshotUpdatePolicy is null");
+        return this;
+    }
+
+    private MavenVersionMatchBuilder copy() {
+        MavenVersionMatchBuilder copy = new MavenVersionMatchBuilder(loader, groupId, artifactId);
+        copy.query = this.query;
+        copy.extension = this.extension;
+        copy.classifier = this.classifier;
+        copy.variants.addAll(this.variants);
+        copy.includeSnapshots = this.includeSnapshots;
+        copy.resolutionMode = this.resolutionMode;
+        copy.snapshotUpdatePolicy = this.snapshotUpdatePolicy;
+        return copy;
+    }
+
     String groupId() {
         return groupId;
     }
@@ -119,8 +207,8 @@ public final class MavenVersionMatchBuilder {
         return artifactId;
     }
 
-    VersionStrategy versionStrategy() {
-        return versionStrategy;
+    VersionQuery query() {
+        return query;
     }
 
     String extension() {
@@ -131,6 +219,14 @@ public final class MavenVersionMatchBuilder {
         return includeSnapshots;
     }
 
+    ResolutionMode resolutionMode() {
+        return resolutionMode;
+    }
+
+    UpdatePolicy snapshotUpdatePolicy() {
+        return snapshotUpdatePolicy;
+    }
+
     /**
      * Returns a list of all versions that match the search constraints.
      * @return A list of versions. This list may be empty but is never null.
@@ -143,13 +239,105 @@ public final class MavenVersionMatchBuilder {
                 .collect(Collectors.toCollection(LinkedList::new));
     }
 
+    /**
+     * Returns all versions that match the search constraints with the id of the repository that supplied each version. If multiple repositories
+     * supply a version, the first repository in the list of remote repositories is reported. Versions that are only known to the local repository
+     * are reported for {@link MetricsSink#LOCAL_REPOSITORY}.
+     * @return A map from version to repository id, ordered from the oldest to the newest version. The repository id is empty if it is not known.
+     * This map may be empty but is never null.
+     * @throws IOException If the underlying code encounters an IO problem (e.g. no network connection).
+     */
+    public Map<String, String> findAllWithRepository() throws IOException {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (VersionKey versionKey : loader.findAllVersionKeys(this)) {
+            result.put(versionKey.versionString(), versionKey.repositoryId() == null ? "" : versionKey.repositoryId());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
     /**
      * Returns the best match for the given version contraints.
      * @return The best match for the given version constraints. Can be {@link Optional#empty()} if no version matches.
      * @throws IOException If the underlying code encounters an IO problem (e.g. no network connection).
      */
     public Optional<String> findBestMatch() throws IOException {
-        LinkedList<String> versions = findAll();
-        return versions.isEmpty() ? Optional.empty() : Optional.of(versions.getLast());
+        return loader.findBestVersion(this).map(Version::toString);
+    }
+
+    /**
+     * Returns the newest versions that match the search constraints. The lookup stops when enough versions were found.
+     * @param count The maximum number of versions to return. Must be positive.
+     * @return A list of at most count versions, starting with the newest version. This list may be empty but is never null.
+     * @throws IOException If the underlying code encounters an IO problem (e.g. no network connection).
+     */
+    public List<String> findTop(int count) throws IOException {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+
+        return loader.findTopVersions(this, count)
+                .stream()
+                .map(Version::toString)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Finds the best match for the given version constraints and downloads the artifact and all its variants for this version. The version is
+     * resolved once and all files are downloaded in parallel.
+     *
+     * @return The downloaded files and failures, keyed by coordinates with the matching version. Can be {@link Optional#empty()} if no version matches.
+     * @throws IOException If the underlying code encounters an IO problem (e.g. no network connection) while looking up the versions.
+     */
+    public Optional<MavenBatchResult> loadBestMatch() throws IOException {
+        Optional<String> bestMatch = findBestMatch();
+        if (bestMatch.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String version = bestMatch.get();
+        List<MavenArtifactCoordinates> coordinates = new ArrayList<>(variants.size() + 1);
+        coordinates.add(MavenArtifactCoordinates.of(groupId, artifactId, version).withClassifier(classifier).withExtension(extension));
+        for (Map.Entry<String, String> variant : variants) {
+            coordinates.add(MavenArtifactCoordinates.of(groupId, artifactId, version).withClassifier(variant.getKey()).withExtension(variant.getValue()));
+        }
+        return Optional.of(loader.getArtifactFiles(coordinates));
+    }
+
+    /**
+     * Returns a list of all versions that match the search constraints without blocking the caller. The lookup runs on the executor configured for
+     * the loader.
+     * @return A future that completes with a list of versions or completes exceptionally with an {@link IOException}.
+     */
+    public CompletableFuture<LinkedList<String>> findAllAsync() {
+        return findAllAsync(loader.executor());
+    }
+
+    /**
+     * Returns a list of all versions that match the search constraints without blocking the caller.
+     * @param executor The executor that runs the lookup. Must not be null.
+     * @return A future that completes with a list of versions or completes exceptionally with an {@link IOException}.
+     */
+    public CompletableFuture<LinkedList<String>> findAllAsync(Executor executor) {
+        // snapshot the current settings, the builder may be changed before the lookup runs
+        requireNonNull(executor, "executor is null");
+        return AsyncSupport.supplyAsync(copy()::findAll, executor);
+    }
+
+    /**
+     * Returns the best match for the given version constraints without blocking the caller. The lookup runs on the executor configured for the loader.
+     * @return A future that completes with the best match or completes exceptionally with an {@link IOException}.
+     */
+    public CompletableFuture<Optional<String>> findBestMatchAsync() {
+        return findBestMatchAsync(loader.executor());
+    }
+
+    /**
+     * Returns the best match for the given version constraints without blocking the caller.
+     * @param executor The executor that runs the lookup. Must not be null.
+     * @return A future that completes with the best match or completes exceptionally with an {@link IOException}.
+     */
+    public CompletableFuture<Optional<String>> findBestMatchAsync(Executor executor) {
+        requireNonNull(executor, "executor is null");
+        return AsyncSupport.supplyAsync(copy()::findBestMatch, executor);
     }
 }
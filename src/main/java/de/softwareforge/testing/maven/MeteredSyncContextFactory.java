@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Collection;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SyncContext;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.internal.impl.synccontext.DefaultSyncContextFactory;
+import org.eclipse.aether.metadata.Metadata;
+import org.eclipse.aether.spi.locator.Service;
+import org.eclipse.aether.spi.locator.ServiceLocator;
+import org.eclipse.aether.spi.synccontext.SyncContextFactory;
+
+/**
+ * Measures how long the resolver waits for the locks of artifacts and metadata. The repository system is shared by all loaders, so the metrics listener
+ * of a loader is found in the configuration of its session. Sessions without a metrics listener are not measured.
+ */
+@SuppressWarnings("deprecation")
+final class MeteredSyncContextFactory implements SyncContextFactory, Service {
+
+    static final String CONFIG_PROP_METRICS_LISTENER = MeteredSyncContextFactory.class.getName() + ".metricsListener";
+
+    private final DefaultSyncContextFactory delegate = new DefaultSyncContextFactory();
+
+    @Override
+    public void initService(ServiceLocator locator) {
+        delegate.initService(locator);
+    }
+
+    @Override
+    public SyncContext newInstance(RepositorySystemSession session, boolean shared) {
+        requireNonNull(session, "session is null");
+        SyncContext syncContext = delegate.newInstance(session, shared);
+        Object metricsListener = session.getConfigProperties().get(CONFIG_PROP_METRICS_LISTENER);
+        if (metricsListener instanceof MetricsListener) {
+            return new MeteredSyncContext(syncContext, (MetricsListener) metricsListener);
+        }
+        return syncContext;
+    }
+
+    private static final class MeteredSyncContext implements SyncContext {
+
+        private final SyncContext delegate;
+        private final MetricsListener metricsListener;
+
+        private MeteredSyncContext(SyncContext delegate, MetricsListener metricsListener) {
+            this.delegate = delegate;
+            this.metricsListener = metricsListener;
+        }
+
+        @Override
+        public void acquire(Collection<? extends Artifact> artifacts, Collection<? extends Metadata> metadatas) {
+            boolean empty = (artifacts == null || artifacts.isEmpty()) && (metadatas == null || metadatas.isEmpty());
+            long start = System.nanoTime();
+            try {
+                delegate.acquire(artifacts, metadatas);
+            } catch (IllegalStateException e) {
+                // the resolver reports locks that could not be acquired within the lock wait time this way
+                metricsListener.count(MetricsSink.LOCK_TIMEOUT, MetricsSink.ALL_REPOSITORIES, 1);
+                throw e;
+            }
+            if (!empty) {
+                metricsListener.latency(MetricsSink.LOCK_WAIT, MetricsSink.ALL_REPOSITORIES, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.aether.AbstractRepositoryListener;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.RepositoryListener;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.repository.ArtifactRepository;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.transfer.AbstractTransferListener;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferListener;
+import org.eclipse.aether.transfer.TransferResource;
+
+/**
+ * Translates resolver repository and transfer events into metrics and reports them to a list of {@link MetricsSink}s.
+ */
+final class MetricsListener {
+
+    private final List<MetricsSink> sinks;
+
+    // start times of resolutions and transfers in progress
+    private final ConcurrentMap<String, Long> resolutionStarts = new ConcurrentHashMap<>();
+    // artifact resolutions in progress that needed a download
+    private final Set<String> downloadingArtifacts = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<TransferResource, Long> transferStarts = new ConcurrentHashMap<>();
+
+    private final RepositoryListener repositoryListener = new AbstractRepositoryListener() {
+
+        @Override
+        public void artifactResolving(RepositoryEvent event) {
+            resolutionStarts.put(artifactKey(event.getArtifact()), System.nanoTime());
+        }
+
+        @Override
+        public void artifactDownloading(RepositoryEvent event) {
+            downloadingArtifacts.add(artifactKey(event.getArtifact()));
+        }
+
+        @Override
+        public void artifactResolved(RepositoryEvent event) {
+            String artifactKey = artifactKey(event.getArtifact());
+            Long start = resolutionStarts.remove(artifactKey);
+            boolean downloaded = downloadingArtifacts.remove(artifactKey);
+            String repositoryId = repositoryId(event.getRepository());
+
+            if (event.getException() != null) {
+                count(MetricsSink.FAILURE, repositoryId, 1);
+            } else if (downloaded) {
+                count(MetricsSink.LOCAL_MISS, repositoryId, 1);
+            } else {
+                // artifacts found locally report the repository they were downloaded from originally
+                count(MetricsSink.LOCAL_HIT, MetricsSink.LOCAL_REPOSITORY, 1);
+            }
+
+            if (start != null) {
+                latency(MetricsSink.ARTIFACT_RESOLUTION, repositoryId, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void metadataResolving(RepositoryEvent event) {
+            resolutionStarts.put(metadataKey(event), System.nanoTime());
+        }
+
+        @Override
+        public void metadataResolved(RepositoryEvent event) {
+            Long start = resolutionStarts.remove(metadataKey(event));
+            String repositoryId = repositoryId(event.getRepository());
+
+            // metadata missing from the local repository is expected and not a failure
+            if (event.getException() != null && !(event.getRepository() instanceof LocalRepository)) {
+                count(MetricsSink.FAILURE, repositoryId, 1);
+            }
+
+            if (start != null) {
+                latency(MetricsSink.METADATA_LOOKUP, repositoryId, System.nanoTime() - start);
+            }
+        }
+    };
+
+    private final TransferListener transferListener = new AbstractTransferListener() {
+
+        @Override
+        public void transferInitiated(TransferEvent event) {
+            transferStarts.put(event.getResource(), System.nanoTime());
+        }
+
+        @Override
+        public void transferSucceeded(TransferEvent event) {
+            Long start = transferStarts.remove(event.getResource());
+            String repositoryId = event.getResource().getRepositoryId();
+
+            count(MetricsSink.BYTES_DOWNLOADED, repositoryId, event.getTransferredBytes());
+            if (start != null) {
+                String metric = isMetadata(event.getResource()) ? MetricsSink.METADATA_DOWNLOAD : MetricsSink.ARTIFACT_DOWNLOAD;
+                latency(metric, repositoryId, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void transferFailed(TransferEvent event) {
+            transferStarts.remove(event.getResource());
+            count(MetricsSink.FAILURE, event.getResource().getRepositoryId(), 1);
+        }
+
+        @Override
+        public void transferCorrupted(TransferEvent event) {
+            count(MetricsSink.CHECKSUM_FAILURE, event.getResource().getRepositoryId(), 1);
+        }
+    };
+
+    MetricsListener(List<MetricsSink> sinks) {
+        this.sinks = List.copyOf(sinks);
+    }
+
+    RepositoryListener repositoryListener() {
+        return repositoryListener;
+    }
+
+    TransferListener transferListener() {
+        return transferListener;
+    }
+
+    void count(String metric, String repositoryId, long value) {
+        for (MetricsSink sink : sinks) {
+            sink.count(metric, repositoryId, value);
+        }
+    }
+
+    void latency(String metric, String repositoryId, long nanos) {
+        for (MetricsSink sink : sinks) {
+            sink.latency(metric, repositoryId, nanos);
+        }
+    }
+
+    private static String artifactKey(Artifact artifact) {
+        // the resolved artifact may carry a timestamped snapshot version, the base version stays the same
+        return artifact.getGroupId() + ':' + artifact.getArtifactId() + ':' + artifact.getExtension() + ':' + artifact.getClassifier() + ':'
+                + artifact.getBaseVersion();
+    }
+
+    private static String metadataKey(RepositoryEvent event) {
+        return event.getMetadata() + "@" + repositoryId(event.getRepository());
+    }
+
+    private static String repositoryId(ArtifactRepository repository) {
+        if (repository == null) {
+            return MetricsSink.ALL_REPOSITORIES;
+        }
+        return repository instanceof LocalRepository ? MetricsSink.LOCAL_REPOSITORY : repository.getId();
+    }
+
+    private static boolean isMetadata(TransferResource resource) {
+        String resourceName = resource.getResourceName();
+        return resourceName.endsWith(".xml") && resourceName.contains("maven-metadata");
+    }
+}
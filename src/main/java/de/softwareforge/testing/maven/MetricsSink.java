@@ -0,0 +1,103 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+/**
+ * Receives the metrics of a {@link MavenArtifactLoader}. Implementations must be thread-safe and should return quickly, they are called from the
+ * threads that resolve and download artifacts.
+ * <p>
+ * Every metric is reported for a repository id. Artifacts found in the local repository are reported for {@link #LOCAL_REPOSITORY}, metrics that
+ * are not specific to a repository for {@link #ALL_REPOSITORIES}.
+ */
+public interface MetricsSink {
+
+    /** Repository id for the local repository. */
+    String LOCAL_REPOSITORY = "local";
+
+    /** Repository id for metrics that are not specific to a repository. */
+    String ALL_REPOSITORIES = "*";
+
+    /** Latency of resolving repository metadata (e.g. the list of versions of an artifact), including any download. */
+    String METADATA_LOOKUP = "metadata.lookup";
+
+    /** Latency of downloading repository metadata. */
+    String METADATA_DOWNLOAD = "metadata.download";
+
+    /** Latency of resolving an artifact, including any download. */
+    String ARTIFACT_RESOLUTION = "artifact.resolution";
+
+    /** Latency of downloading an artifact. */
+    String ARTIFACT_DOWNLOAD = "artifact.download";
+
+    /** Count of artifacts found in the local repository. */
+    String LOCAL_HIT = "local.hit";
+
+    /** Count of artifacts that had to be resolved from a remote repository. */
+    String LOCAL_MISS = "local.miss";
+
+    /** Count of version lookups answered by the in-memory version cache. */
+    String VERSION_CACHE_HIT = "version.cache.hit";
+
+    /** Count of version lookups that had to resolve the version list. */
+    String VERSION_CACHE_MISS = "version.cache.miss";
+
+    /** Count of version lookups answered by the persistent version index. */
+    String VERSION_INDEX_HIT = "version.index.hit";
+
+    /** Count of version lookups that were not in the persistent version index or whose entry was too old. */
+    String VERSION_INDEX_MISS = "version.index.miss";
+
+    /** Count of repositories that did not return the version list of an artifact in time during a parallel version lookup. */
+    String VERSION_LOOKUP_TIMEOUT = "version.lookup.timeout";
+
+    /** Count of requests that skipped a repository because it was recently found to miss the artifact or metadata. */
+    String NEGATIVE_CACHE_HIT = "negative.cache.hit";
+
+    /** Latency of acquiring the locks for artifacts and metadata before they are resolved, see {@link MavenArtifactLoaderBuilder#crossProcessLocking}. */
+    String LOCK_WAIT = "lock.wait";
+
+    /** Count of resolutions that failed because the locks for artifacts or metadata could not be acquired within the lock wait time. */
+    String LOCK_TIMEOUT = "lock.timeout";
+
+    /** Number of bytes downloaded. */
+    String BYTES_DOWNLOADED = "bytes.downloaded";
+
+    /** Number of bytes that were not downloaded again because a ranged download continued from its part files. */
+    String BYTES_RESUMED = "bytes.resumed";
+
+    /** Count of failed downloads and resolutions. */
+    String FAILURE = "failure";
+
+    /** Count of downloads that failed checksum verification. */
+    String CHECKSUM_FAILURE = "checksum.failure";
+
+    /**
+     * Adds a value to a counter.
+     *
+     * @param metric       The metric name. Never null.
+     * @param repositoryId The repository id. Never null.
+     * @param value        The value to add.
+     */
+    void count(String metric, String repositoryId, long value);
+
+    /**
+     * Records a latency.
+     *
+     * @param metric       The metric name. Never null.
+     * @param repositoryId The repository id. Never null.
+     * @param nanos        The latency in nanoseconds.
+     */
+    void latency(String metric, String repositoryId, long nanos);
+}
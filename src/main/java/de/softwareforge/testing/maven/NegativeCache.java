@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.aether.repository.ArtifactRepository;
+import org.eclipse.aether.repository.RemoteRepository;
+
+/**
+ * Bounded, time limited cache of resources (artifacts or metadata) that a remote repository does not have. Repositories that are known to miss a
+ * resource are not asked for it again until the entry expires. Evicts the least recently used entry when full.
+ */
+final class NegativeCache {
+
+    private final long ttlNanos;
+    private final Map<Key, Long> entries;
+    private final MetricsListener metricsListener;
+
+    NegativeCache(Duration ttl, int maximumSize, MetricsListener metricsListener) {
+        requireNonNull(ttl, "ttl is null");
+        this.metricsListener = requireNonNull(metricsListener, "metricsListener is null");
+
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Long> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the repositories that are not known to miss the resource. Returns the list itself if no repository is known to miss the resource.
+     */
+    List<RemoteRepository> filter(String resource, List<RemoteRepository> repositories) {
+        if (ttlNanos <= 0) {
+            return repositories;
+        }
+
+        List<RemoteRepository> result = null;
+        long now = System.nanoTime();
+        synchronized (entries) {
+            for (int i = 0; i < repositories.size(); i++) {
+                RemoteRepository repository = repositories.get(i);
+                Key key = new Key(resource, repository);
+                Long created = entries.get(key);
+                if (created != null && now - created >= ttlNanos) {
+                    entries.remove(key);
+                    created = null;
+                }
+
+                if (created != null) {
+                    metricsListener.count(MetricsSink.NEGATIVE_CACHE_HIT, repository.getId(), 1);
+                    if (result == null) {
+                        result = new ArrayList<>(repositories.subList(0, i));
+                    }
+                } else if (result != null) {
+                    result.add(repository);
+                }
+            }
+        }
+        return result == null ? repositories : result;
+    }
+
+    /**
+     * Records that a repository does not have a resource. Ignores the local repository.
+     */
+    void put(String resource, ArtifactRepository repository) {
+        if (ttlNanos <= 0 || !(repository instanceof RemoteRepository)) {
+            return;
+        }
+
+        Key key = new Key(resource, (RemoteRepository) repository);
+        long now = System.nanoTime();
+        synchronized (entries) {
+            entries.put(key, now);
+        }
+    }
+
+    private static final class Key {
+
+        private final String resource;
+        private final String repositoryId;
+        private final String repositoryUrl;
+
+        private Key(String resource, RemoteRepository repository) {
+            this.resource = resource;
+            this.repositoryId = repository.getId();
+            this.repositoryUrl = repository.getUrl();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return resource.equals(key.resource)
+                    && repositoryId.equals(key.repositoryId)
+                    && repositoryUrl.equals(key.repositoryUrl);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(resource, repositoryId, repositoryUrl);
+        }
+
+        @Override
+        public String toString() {
+            return resource + " (" + repositoryId + ")";
+        }
+    }
+}
@@ -0,0 +1,586 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.aether.ConfigurationProperties;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SyncContext;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.repository.AuthenticationContext;
+import org.eclipse.aether.repository.LocalArtifactRegistration;
+import org.eclipse.aether.repository.LocalArtifactRequest;
+import org.eclipse.aether.repository.LocalRepositoryManager;
+import org.eclipse.aether.repository.Proxy;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.eclipse.aether.util.ConfigUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Downloads large artifacts with multiple HTTP range requests in parallel. Each range is written to its own part file next to the artifact in the
+ * local repository, a download that was interrupted continues from the part files. The parts are joined and the checksum of the artifact is verified
+ * before the artifact is added to the local repository.
+ * <p>
+ * The requests use the transport settings of the session for each repository: timeouts, retry count, HTTP headers and user agent, proxy and username
+ * and password authentication. Only release artifacts from HTTP(S) repositories are downloaded this way. If an artifact is not eligible, the repository
+ * needs settings that only the resolver supports (e.g. client certificates or insecure HTTPS), the server does not support range requests or the
+ * ranged download fails, {@link #download} returns null and the artifact is downloaded by the resolver in a single stream.
+ */
+final class RangedDownloader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RangedDownloader.class);
+
+    // the resolver uses ".part" for its own downloads
+    private static final String PART_SUFFIX = ".part-";
+    private static final String PART_INFO_SUFFIX = ".part-info";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // checksum algorithms and file extensions in the order the resolver checks them by default
+    private static final List<String> CHECKSUM_ALGORITHMS = List.of("SHA-1", "MD5");
+    private static final List<String> CHECKSUM_EXTENSIONS = List.of(".sha1", ".md5");
+
+    private final RepositorySystem repositorySystem;
+    private final int connections;
+    private final long minimumSize;
+    private final MetricsListener metricsListener;
+
+    // empty if the repository needs settings that only the resolver supports
+    private final ConcurrentMap<RemoteRepository, Optional<Transport>> transports = new ConcurrentHashMap<>();
+
+    RangedDownloader(RepositorySystem repositorySystem, int connections, long minimumSize, MetricsListener metricsListener) {
+        this.repositorySystem = requireNonNull(repositorySystem, "repositorySystem is null");
+        this.connections = connections;
+        this.minimumSize = minimumSize;
+        this.metricsListener = requireNonNull(metricsListener, "metricsListener is null");
+    }
+
+    /**
+     * Downloads an artifact into the local repository if it is large enough and the repository that has it supports range requests.
+     *
+     * @return The artifact file in the local repository or null if the artifact must be resolved by the resolver.
+     */
+    File download(RepositorySystemSession session, Artifact artifact, List<RemoteRepository> repositories) throws IOException {
+        if (artifact.isSnapshot() || repositories.isEmpty()) {
+            return null;
+        }
+
+        LocalRepositoryManager localRepositoryManager = session.getLocalRepositoryManager();
+        LocalArtifactRequest localArtifactRequest = new LocalArtifactRequest(artifact, repositories, null);
+        if (localRepositoryManager.find(session, localArtifactRequest).isAvailable()) {
+            return null;
+        }
+
+        try (SyncContext syncContext = repositorySystem.newSyncContext(session, false)) {
+            syncContext.acquire(List.of(artifact), null);
+            // another thread or process may have downloaded the artifact while this one waited for the lock
+            if (localRepositoryManager.find(session, localArtifactRequest).isAvailable()) {
+                return null;
+            }
+
+            Path artifactFile = localRepositoryManager.getRepository().getBasedir().toPath()
+                    .resolve(localRepositoryManager.getPathForLocalArtifact(artifact));
+            for (RemoteRepository repository : repositories) {
+                Transport transport = transports.computeIfAbsent(repository, r -> Optional.ofNullable(createTransport(session, r))).orElse(null);
+                if (transport == null) {
+                    return null;
+                }
+                URI uri = URI.create(repository.getUrl().endsWith("/") ? repository.getUrl() : repository.getUrl() + '/').resolve(MavenArtifactLoader.remotePath(artifact));
+                try {
+                    RemoteFile remoteFile = probe(transport, uri);
+                    if (remoteFile == null) {
+                        // not in this repository
+                        continue;
+                    }
+                    if (!remoteFile.acceptsRanges || remoteFile.length < minimumSize) {
+                        return null;
+                    }
+                    return download(session, artifact, artifactFile, repository, transport, remoteFile);
+                } catch (InterruptedIOException e) {
+                    // the part files are kept, the next attempt continues where this one stopped
+                    throw e;
+                } catch (IOException | RuntimeException e) {
+                    LOG.warn(format("Ranged download of %s from %s failed, downloading again in a single stream", artifact, repository.getId()), e);
+                    try {
+                        deleteParts(artifactFile);
+                    } catch (IOException suppressed) {
+                        e.addSuppressed(suppressed);
+                    }
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
+
+    private File download(RepositorySystemSession session, Artifact artifact, Path artifactFile, RemoteRepository repository, Transport transport,
+            RemoteFile remoteFile) throws IOException {
+        LocalRepositoryManager localRepositoryManager = session.getLocalRepositoryManager();
+        Files.createDirectories(artifactFile.getParent());
+
+        Path partInfo = artifactFile.resolveSibling(artifactFile.getFileName() + PART_INFO_SUFFIX);
+        String info = remoteFile.length + "\n" + remoteFile.validator + "\n" + connections + "\n";
+        if (!Files.isRegularFile(partInfo) || !info.equals(Files.readString(partInfo, UTF_8))) {
+            // the parts are from another version of the remote file or were split differently
+            deleteParts(artifactFile);
+            Files.writeString(partInfo, info, UTF_8);
+        }
+
+        long start = System.nanoTime();
+        long partSize = (remoteFile.length + connections - 1) / connections;
+        List<CompletableFuture<Boolean>> parts = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            long from = Math.min(remoteFile.length, i * partSize);
+            long to = Math.min(remoteFile.length, from + partSize);
+            Path partFile = partFile(artifactFile, i);
+            // the parts block on their downloads, they run on the default executor so that a bounded executor of the caller can not deadlock
+            parts.add(AsyncSupport.supplyAsync(() -> downloadPart(repository, transport, remoteFile, partFile, from, to), AsyncSupport.defaultExecutor()));
+        }
+
+        boolean rangesSupported = true;
+        IOException failure = null;
+        for (CompletableFuture<Boolean> part : parts) {
+            try {
+                rangesSupported &= part.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        if (!rangesSupported) {
+            deleteParts(artifactFile);
+            return null;
+        }
+
+        Optional<String> checksumMismatch = joinParts(session, artifact, artifactFile, repository, transport, remoteFile);
+        if (checksumMismatch.isPresent()) {
+            metricsListener.count(MetricsSink.CHECKSUM_FAILURE, repository.getId(), 1);
+            LOG.warn(format("%s, downloading again in a single stream", checksumMismatch.get()));
+            deleteParts(artifactFile);
+            return null;
+        }
+        deleteParts(artifactFile);
+
+        localRepositoryManager.add(session, new LocalArtifactRegistration(artifact.setFile(artifactFile.toFile()), repository, Set.of("")));
+        metricsListener.count(MetricsSink.LOCAL_MISS, repository.getId(), 1);
+        metricsListener.latency(MetricsSink.ARTIFACT_DOWNLOAD, repository.getId(), System.nanoTime() - start);
+        return artifactFile.toFile();
+    }
+
+    /**
+     * Downloads a range of the remote file into a part file, continuing after the bytes that are already in the part file.
+     *
+     * @return false if the server does not support range requests.
+     */
+    private boolean downloadPart(RemoteRepository repository, Transport transport, RemoteFile remoteFile, Path partFile, long from, long to)
+            throws IOException {
+        long existing = Files.isRegularFile(partFile) ? Files.size(partFile) : 0;
+        if (existing > to - from) {
+            Files.delete(partFile);
+            existing = 0;
+        }
+        if (existing > 0) {
+            metricsListener.count(MetricsSink.BYTES_RESUMED, repository.getId(), existing);
+        }
+
+        for (int attempt = 1; from + existing < to; attempt++) {
+            HttpRequest.Builder request = transport.request(remoteFile.uri)
+                    .header("Range", format("bytes=%d-%d", from + existing, to - 1));
+            if (!remoteFile.validator.isEmpty()) {
+                // if the file changed, the server returns all of it instead of the range
+                request.header("If-Range", remoteFile.validator);
+            }
+
+            try {
+                HttpResponse<InputStream> response = transport.httpClient.send(request.GET().build(), HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream input = response.body()) {
+                    if (response.statusCode() != 206) {
+                        LOG.debug(format("Range request for %s returned status %d", remoteFile.uri, response.statusCode()));
+                        return false;
+                    }
+                    try (OutputStream output = Files.newOutputStream(partFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                        byte[] buffer = new byte[BUFFER_SIZE];
+                        long remaining = to - from - existing;
+                        while (remaining > 0) {
+                            int count = input.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                            if (count < 0) {
+                                break;
+                            }
+                            output.write(buffer, 0, count);
+                            existing += count;
+                            remaining -= count;
+                            metricsListener.count(MetricsSink.BYTES_DOWNLOADED, repository.getId(), count);
+                        }
+                    }
+                }
+                if (from + existing < to) {
+                    throw new IOException(format("Range %d-%d of %s ended after %d bytes", from, to - 1, remoteFile.uri, existing));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while downloading " + remoteFile.uri);
+            } catch (IOException e) {
+                metricsListener.count(MetricsSink.FAILURE, repository.getId(), 1);
+                if (attempt > transport.retryCount) {
+                    throw e;
+                }
+                LOG.debug(format("Retrying range %d-%d of %s", from, to - 1, remoteFile.uri), e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Joins the part files into the artifact file and verifies the checksum.
+     *
+     * @return A description of the problem if the checksum did not match.
+     */
+    private Optional<String> joinParts(RepositorySystemSession session, Artifact artifact, Path artifactFile, RemoteRepository repository,
+            Transport transport, RemoteFile remoteFile) throws IOException {
+        // like the resolver, the checksum policy of the session overrides the policy of the repository
+        String checksumPolicy = session.getChecksumPolicy() == null || session.getChecksumPolicy().isEmpty()
+                ? repository.getPolicy(false).getChecksumPolicy()
+                : session.getChecksumPolicy();
+        Checksum checksum = RepositoryPolicy.CHECKSUM_POLICY_IGNORE.equals(checksumPolicy) ? null : fetchChecksum(transport, remoteFile.uri);
+        if (checksum == null && RepositoryPolicy.CHECKSUM_POLICY_FAIL.equals(checksumPolicy)) {
+            return Optional.of(format("No checksum found for %s", remoteFile.uri));
+        }
+
+        Path tempFile = Files.createTempFile(artifactFile.getParent(), artifactFile.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel output = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                for (int i = 0; i < connections; i++) {
+                    Path partFile = partFile(artifactFile, i);
+                    if (!Files.isRegularFile(partFile)) {
+                        // empty range
+                        continue;
+                    }
+                    try (FileChannel input = FileChannel.open(partFile, StandardOpenOption.READ)) {
+                        while (input.read(buffer) >= 0) {
+                            buffer.flip();
+                            if (checksum != null) {
+                                checksum.digest.update(buffer.duplicate());
+                            }
+                            while (buffer.hasRemaining()) {
+                                output.write(buffer);
+                            }
+                            buffer.clear();
+                        }
+                    }
+                }
+                if (output.size() != remoteFile.length) {
+                    return Optional.of(format("Downloaded %d bytes of %s, expected %d", output.size(), artifact, remoteFile.length));
+                }
+            }
+
+            if (checksum != null) {
+                String actual = toHex(checksum.digest.digest());
+                if (!actual.equalsIgnoreCase(checksum.expected)) {
+                    return Optional.of(format("%s checksum of %s is %s, expected %s", checksum.digest.getAlgorithm(), artifact, actual, checksum.expected));
+                }
+            }
+            Files.move(tempFile, artifactFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return Optional.empty();
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static Checksum fetchChecksum(Transport transport, URI uri) throws IOException {
+        for (int i = 0; i < CHECKSUM_ALGORITHMS.size(); i++) {
+            URI checksumUri = URI.create(uri + CHECKSUM_EXTENSIONS.get(i));
+            try {
+                HttpResponse<String> response = transport.httpClient.send(transport.request(checksumUri).GET().build(),
+                        HttpResponse.BodyHandlers.ofString(UTF_8));
+                String body = response.body().trim();
+                if (response.statusCode() == 200 && !body.isEmpty()) {
+                    // checksum files may contain the file name after the checksum
+                    return new Checksum(MessageDigest.getInstance(CHECKSUM_ALGORITHMS.get(i)), body.split("\\s+", 2)[0]);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while downloading " + checksumUri);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the size and range support of the remote file or null if the repository does not have it.
+     */
+    private static RemoteFile probe(Transport transport, URI uri) throws IOException {
+        try {
+            HttpResponse<Void> response = transport.httpClient.send(transport.request(uri).method("HEAD", HttpRequest.BodyPublishers.noBody()).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() == 404 || response.statusCode() == 410) {
+                return null;
+            }
+            if (response.statusCode() != 200) {
+                // e.g. missing or wrong credentials
+                throw new IOException(format("HEAD request for %s returned status %d", uri, response.statusCode()));
+            }
+            long length = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+            boolean acceptsRanges = length > 0 && response.headers().allValues("Accept-Ranges").stream()
+                    .anyMatch(value -> value.toLowerCase(Locale.ROOT).contains("bytes"));
+            // a strong entity tag or the modification time identify the version of the remote file for resumed downloads
+            String validator = response.headers().firstValue("ETag")
+                    .filter(etag -> !etag.startsWith("W/"))
+                    .or(() -> response.headers().firstValue("Last-Modified"))
+                    .orElse("");
+            return new RemoteFile(uri, length, acceptsRanges, validator);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while checking " + uri);
+        }
+    }
+
+    /**
+     * Creates the HTTP client and request settings for a repository from the configuration of the session.
+     *
+     * @return The transport or null if the repository needs settings that only the resolver supports.
+     */
+    private static Transport createTransport(RepositorySystemSession session, RemoteRepository repository) {
+        String protocol = repository.getProtocol();
+        if (!("http".equals(protocol) || "https".equals(protocol)) || !"default".equals(repository.getContentType())) {
+            return null;
+        }
+        String id = repository.getId();
+        String securityMode = ConfigUtils.getString(session, ConfigurationProperties.HTTPS_SECURITY_MODE_DEFAULT,
+                ConfigurationProperties.HTTPS_SECURITY_MODE + '.' + id, ConfigurationProperties.HTTPS_SECURITY_MODE);
+        if (ConfigurationProperties.HTTPS_SECURITY_MODE_INSECURE.equals(securityMode)) {
+            // the HTTP client of the JDK can not skip the host name verification for a single client
+            return null;
+        }
+
+        HttpClient.Builder httpClient = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL);
+        int connectTimeout = ConfigUtils.getInteger(session, ConfigurationProperties.DEFAULT_CONNECT_TIMEOUT,
+                ConfigurationProperties.CONNECT_TIMEOUT + '.' + id, ConfigurationProperties.CONNECT_TIMEOUT);
+        if (connectTimeout > 0) {
+            httpClient.connectTimeout(Duration.ofMillis(connectTimeout));
+        }
+
+        PasswordAuthentication serverCredentials = null;
+        try (AuthenticationContext context = AuthenticationContext.forRepository(session, repository)) {
+            if (context != null) {
+                // client certificates, NTLM and custom TLS settings are only supported by the resolver
+                if (context.get(AuthenticationContext.PRIVATE_KEY_PATH) != null
+                        || context.get(AuthenticationContext.NTLM_DOMAIN) != null
+                        || context.get(AuthenticationContext.SSL_CONTEXT, Object.class) != null
+                        || context.get(AuthenticationContext.SSL_HOSTNAME_VERIFIER, Object.class) != null) {
+                    return null;
+                }
+                serverCredentials = credentials(context);
+                if (serverCredentials == null) {
+                    return null;
+                }
+            }
+        }
+
+        PasswordAuthentication proxyCredentials = null;
+        Proxy proxy = repository.getProxy();
+        if (proxy != null) {
+            // the HTTP client of the JDK connects to proxies without TLS
+            if (!Proxy.TYPE_HTTP.equals(proxy.getType())) {
+                return null;
+            }
+            httpClient.proxy(ProxySelector.of(InetSocketAddress.createUnresolved(proxy.getHost(), proxy.getPort())));
+            try (AuthenticationContext context = AuthenticationContext.forProxy(session, repository)) {
+                if (context != null) {
+                    proxyCredentials = credentials(context);
+                    // the HTTP client of the JDK does not send basic credentials to the proxy of an HTTPS tunnel by default
+                    if (proxyCredentials == null || "https".equals(protocol)) {
+                        return null;
+                    }
+                }
+            }
+        }
+        if (serverCredentials != null || proxyCredentials != null) {
+            httpClient.authenticator(new CredentialsAuthenticator(serverCredentials, proxyCredentials));
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("User-Agent", ConfigUtils.getString(session, ConfigurationProperties.DEFAULT_USER_AGENT, ConfigurationProperties.USER_AGENT));
+        ConfigUtils.getMap(session, Collections.emptyMap(), ConfigurationProperties.HTTP_HEADERS + '.' + id, ConfigurationProperties.HTTP_HEADERS)
+                .forEach((name, value) -> {
+                    if (name != null && value != null) {
+                        headers.put(name.toString(), value.toString());
+                    }
+                });
+
+        Transport transport = new Transport(httpClient.build(), headers,
+                ConfigUtils.getInteger(session, ConfigurationProperties.DEFAULT_REQUEST_TIMEOUT,
+                        ConfigurationProperties.REQUEST_TIMEOUT + '.' + id, ConfigurationProperties.REQUEST_TIMEOUT),
+                ConfigUtils.getInteger(session, ConfigurationProperties.DEFAULT_HTTP_RETRY_HANDLER_COUNT,
+                        ConfigurationProperties.HTTP_RETRY_HANDLER_COUNT + '.' + id, ConfigurationProperties.HTTP_RETRY_HANDLER_COUNT));
+        try {
+            transport.request(URI.create(repository.getUrl()));
+        } catch (IllegalArgumentException e) {
+            // a header that the HTTP client of the JDK does not allow, e.g. "Connection"
+            LOG.debug(format("Can not use ranged downloads for %s", repository.getId()), e);
+            return null;
+        }
+        return transport;
+    }
+
+    /**
+     * Returns the username and password of an authentication or null if it does not have a username.
+     */
+    private static PasswordAuthentication credentials(AuthenticationContext context) {
+        String username = context.get(AuthenticationContext.USERNAME);
+        if (username == null) {
+            return null;
+        }
+        char[] password = context.get(AuthenticationContext.PASSWORD, char[].class);
+        return new PasswordAuthentication(username, password == null ? new char[0] : password);
+    }
+
+    private static Path partFile(Path artifactFile, int index) {
+        return artifactFile.resolveSibling(artifactFile.getFileName() + PART_SUFFIX + index);
+    }
+
+    // also deletes the part info file
+    private static void deleteParts(Path artifactFile) throws IOException {
+        String prefix = artifactFile.getFileName() + PART_SUFFIX;
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(artifactFile.getParent(), prefix + "*")) {
+            for (Path part : parts) {
+                Files.deleteIfExists(part);
+            }
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    private static final class Transport {
+
+        private final HttpClient httpClient;
+        private final Map<String, String> headers;
+        private final int requestTimeout;
+        private final int retryCount;
+
+        private Transport(HttpClient httpClient, Map<String, String> headers, int requestTimeout, int retryCount) {
+            this.httpClient = httpClient;
+            this.headers = headers;
+            this.requestTimeout = requestTimeout;
+            this.retryCount = retryCount;
+        }
+
+        private HttpRequest.Builder request(URI uri) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(uri);
+            headers.forEach(builder::header);
+            if (requestTimeout > 0) {
+                builder.timeout(Duration.ofMillis(requestTimeout));
+            }
+            return builder;
+        }
+    }
+
+    private static final class CredentialsAuthenticator extends Authenticator {
+
+        private final PasswordAuthentication serverCredentials;
+        private final PasswordAuthentication proxyCredentials;
+
+        private CredentialsAuthenticator(PasswordAuthentication serverCredentials, PasswordAuthentication proxyCredentials) {
+            this.serverCredentials = serverCredentials;
+            this.proxyCredentials = proxyCredentials;
+        }
+
+        @Override
+        protected PasswordAuthentication getPasswordAuthentication() {
+            return getRequestorType() == RequestorType.PROXY ? proxyCredentials : serverCredentials;
+        }
+    }
+
+    private static final class RemoteFile {
+
+        private final URI uri;
+        private final long length;
+        private final boolean acceptsRanges;
+        private final String validator;
+
+        private RemoteFile(URI uri, long length, boolean acceptsRanges, String validator) {
+            this.uri = uri;
+            this.length = length;
+            this.acceptsRanges = acceptsRanges;
+            this.validator = validator;
+        }
+    }
+
+    private static final class Checksum {
+
+        private final MessageDigest digest;
+        private final String expected;
+
+        private Checksum(MessageDigest digest, String expected) {
+            this.digest = digest;
+            this.expected = expected;
+        }
+    }
+}
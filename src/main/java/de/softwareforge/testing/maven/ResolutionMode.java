@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+/**
+ * Controls whether artifacts and version information are resolved from the local repository or from the remote repositories.
+ */
+public enum ResolutionMode {
+
+    /**
+     * Only use the local repository. Never contact any remote repository. Artifacts and versions that are not present locally can not be resolved.
+     */
+    OFFLINE,
+
+    /**
+     * Use the local repository if the artifact or version information is present, otherwise contact the remote repositories. Locally present
+     * information is never checked for updates.
+     */
+    LOCAL_FIRST,
+
+    /**
+     * Check the remote repositories for updates according to their update policy (usually daily). This is the default.
+     */
+    DEFAULT,
+
+    /**
+     * Always check the remote repositories for updates.
+     */
+    REMOTE_ALWAYS
+}
@@ -0,0 +1,214 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.maven.settings.Mirror;
+import org.apache.maven.settings.Proxy;
+import org.apache.maven.settings.Server;
+import org.apache.maven.settings.Settings;
+import org.eclipse.aether.repository.Authentication;
+import org.eclipse.aether.repository.AuthenticationSelector;
+import org.eclipse.aether.repository.MirrorSelector;
+import org.eclipse.aether.repository.ProxySelector;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.util.repository.AuthenticationBuilder;
+import org.eclipse.aether.util.repository.DefaultAuthenticationSelector;
+import org.eclipse.aether.util.repository.DefaultMirrorSelector;
+import org.eclipse.aether.util.repository.DefaultProxySelector;
+
+/**
+ * Creates the mirror, proxy and authentication selectors for a repository session from the Maven settings.
+ */
+final class SettingsSelectors {
+
+    private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(2);
+
+    // the settings are shared by all loaders until the settings files change, so are the mirror latencies
+    private static final Map<Settings, FastestMirrorSelector> FASTEST_MIRROR_SELECTORS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private SettingsSelectors() {
+        throw new AssertionError("do not instantiate");
+    }
+
+    /**
+     * Creates a mirror selector for all mirrors in the settings. The resolver uses only the first mirror that matches a repository. If fastestFirst is
+     * true and multiple mirrors match a repository, these mirrors are probed through the proxies of the settings and the one with the lowest latency
+     * is selected instead of the first one in the settings. The other mirrors are not used as a fallback. Each mirror is probed at most once for the
+     * same settings.
+     */
+    static MirrorSelector mirrorSelector(Settings settings, boolean fastestFirst) {
+        if (fastestFirst && settings.getMirrors().size() > 1) {
+            return FASTEST_MIRROR_SELECTORS.computeIfAbsent(settings, FastestMirrorSelector::new);
+        }
+        return defaultMirrorSelector(settings.getMirrors());
+    }
+
+    static ProxySelector proxySelector(Settings settings) {
+        DefaultProxySelector proxySelector = new DefaultProxySelector();
+        for (Proxy proxy : settings.getProxies()) {
+            if (proxy.isActive()) {
+                proxySelector.add(toProxy(proxy), proxy.getNonProxyHosts());
+            }
+        }
+        return proxySelector;
+    }
+
+    static AuthenticationSelector authenticationSelector(Settings settings) {
+        DefaultAuthenticationSelector authenticationSelector = new DefaultAuthenticationSelector();
+        for (Server server : settings.getServers()) {
+            Authentication authentication = new AuthenticationBuilder()
+                    .addUsername(server.getUsername())
+                    .addPassword(server.getPassword())
+                    .addPrivateKey(server.getPrivateKey(), server.getPassphrase())
+                    .build();
+            authenticationSelector.add(server.getId(), authentication);
+        }
+        return authenticationSelector;
+    }
+
+    private static DefaultMirrorSelector defaultMirrorSelector(List<Mirror> mirrors) {
+        DefaultMirrorSelector mirrorSelector = new DefaultMirrorSelector();
+        for (Mirror mirror : mirrors) {
+            mirrorSelector.add(mirror.getId(), mirror.getUrl(), mirror.getLayout(), false, mirror.isBlocked(), mirror.getMirrorOf(),
+                    mirror.getMirrorOfLayouts());
+        }
+        return mirrorSelector;
+    }
+
+    private static org.eclipse.aether.repository.Proxy toProxy(Proxy proxy) {
+        Authentication authentication = new AuthenticationBuilder()
+                .addUsername(proxy.getUsername())
+                .addPassword(proxy.getPassword())
+                .build();
+        return new org.eclipse.aether.repository.Proxy(proxy.getProtocol(), proxy.getHost(), proxy.getPort(), authentication);
+    }
+
+    /**
+     * Selects the mirror with the lowest latency if multiple mirrors match a repository. Mirrors are probed when they are first needed.
+     */
+    private static final class FastestMirrorSelector implements MirrorSelector {
+
+        // one selector for each mirror, in the settings order
+        private final List<DefaultMirrorSelector> mirrorSelectors = new ArrayList<>();
+        private final List<String> mirrorUrls = new ArrayList<>();
+
+        private final DefaultProxySelector proxySelector = new DefaultProxySelector();
+        private final Map<org.eclipse.aether.repository.Proxy, Proxy> proxies = new HashMap<>();
+
+        // keyed by mirror url
+        private final ConcurrentMap<String, CompletableFuture<Long>> latencies = new ConcurrentHashMap<>();
+
+        private FastestMirrorSelector(Settings settings) {
+            for (Mirror mirror : settings.getMirrors()) {
+                mirrorSelectors.add(defaultMirrorSelector(List.of(mirror)));
+                mirrorUrls.add(mirror.getUrl());
+            }
+            for (Proxy proxy : settings.getProxies()) {
+                if (proxy.isActive()) {
+                    org.eclipse.aether.repository.Proxy repositoryProxy = toProxy(proxy);
+                    proxySelector.add(repositoryProxy, proxy.getNonProxyHosts());
+                    proxies.put(repositoryProxy, proxy);
+                }
+            }
+        }
+
+        @Override
+        public RemoteRepository getMirror(RemoteRepository repository) {
+            List<RemoteRepository> candidates = new ArrayList<>();
+            List<CompletableFuture<Long>> probes = new ArrayList<>();
+            for (int i = 0; i < mirrorSelectors.size(); i++) {
+                RemoteRepository mirror = mirrorSelectors.get(i).getMirror(repository);
+                if (mirror != null) {
+                    candidates.add(mirror);
+                    probes.add(latencies.computeIfAbsent(mirrorUrls.get(i),
+                            url -> CompletableFuture.supplyAsync(() -> probe(mirror), AsyncSupport.defaultExecutor())));
+                }
+            }
+            if (candidates.size() < 2) {
+                return candidates.isEmpty() ? null : candidates.get(0);
+            }
+
+            // mirrors with the same latency keep the settings order
+            int fastest = 0;
+            for (int i = 1; i < candidates.size(); i++) {
+                if (probes.get(i).join() < probes.get(fastest).join()) {
+                    fastest = i;
+                }
+            }
+            return candidates.get(fastest);
+        }
+
+        // returns the time until a mirror answers a HEAD request, with any status. Local mirrors have no latency, unreachable mirrors sort last.
+        private long probe(RemoteRepository mirror) {
+            URI uri;
+            try {
+                uri = URI.create(mirror.getUrl());
+            } catch (IllegalArgumentException e) {
+                return Long.MAX_VALUE;
+            }
+            if (uri.getHost() == null || !("http".equals(mirror.getProtocol()) || "https".equals(mirror.getProtocol()))) {
+                return 0;
+            }
+
+            HttpClient.Builder httpClient = HttpClient.newBuilder().connectTimeout(PROBE_TIMEOUT);
+            org.eclipse.aether.repository.Proxy proxy = proxySelector.getProxy(mirror);
+            if (proxy != null) {
+                httpClient.proxy(java.net.ProxySelector.of(InetSocketAddress.createUnresolved(proxy.getHost(), proxy.getPort())));
+                Proxy settingsProxy = proxies.get(proxy);
+                if (settingsProxy != null && settingsProxy.getUsername() != null) {
+                    PasswordAuthentication credentials = new PasswordAuthentication(settingsProxy.getUsername(),
+                            settingsProxy.getPassword() == null ? new char[0] : settingsProxy.getPassword().toCharArray());
+                    httpClient.authenticator(new Authenticator() {
+                        @Override
+                        protected PasswordAuthentication getPasswordAuthentication() {
+                            return getRequestorType() == RequestorType.PROXY ? credentials : null;
+                        }
+                    });
+                }
+            }
+
+            long startTime = System.nanoTime();
+            try {
+                httpClient.build().send(HttpRequest.newBuilder(uri).method("HEAD", HttpRequest.BodyPublishers.noBody()).timeout(PROBE_TIMEOUT).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                return System.nanoTime() - startTime;
+            } catch (IOException e) {
+                return Long.MAX_VALUE;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Long.MAX_VALUE;
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.aether.ConfigurationProperties;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+
+/**
+ * Configures the HTTP transport of a {@link MavenArtifactLoader}: timeouts, connection pooling and retries. Any value that is not set uses the
+ * default of the Maven resolver.
+ * <p>
+ * The HTTP transport uses HTTP/1.1 only.
+ */
+public final class TransportConfiguration {
+
+    /**
+     * A configuration that uses the Maven resolver defaults for all values.
+     */
+    public static final TransportConfiguration DEFAULT = newBuilder().build();
+
+    private final Map<String, Object> configProperties;
+
+    private TransportConfiguration(Map<String, Object> configProperties) {
+        this.configProperties = Map.copyOf(configProperties);
+    }
+
+    /**
+     * Create a new builder for a transport configuration.
+     *
+     * @return A {@link Builder} instance.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    void apply(DefaultRepositorySystemSession mavenSession) {
+        configProperties.forEach(mavenSession::setConfigProperty);
+    }
+
+    @Override
+    public String toString() {
+        return configProperties.toString();
+    }
+
+    /**
+     * A builder class for a {@link TransportConfiguration}.
+     */
+    public static final class Builder {
+
+        private final Map<String, Object> configProperties = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Set the maximum time to establish a connection to a remote repository.
+         *
+         * @param connectTimeout The connect timeout. Must not be null or negative.
+         * @return the builder
+         */
+        public Builder connectTimeout(Duration connectTimeout) {
+            configProperties.put(ConfigurationProperties.CONNECT_TIMEOUT, toMillis(connectTimeout, "connectTimeout"));
+            return this;
+        }
+
+        /**
+         * Set the maximum time of inactivity between two data packets when reading from a remote repository.
+         *
+         * @param requestTimeout The request timeout. Must not be null or negative.
+         * @return the builder
+         */
+        public Builder requestTimeout(Duration requestTimeout) {
+            configProperties.put(ConfigurationProperties.REQUEST_TIMEOUT, toMillis(requestTimeout, "requestTimeout"));
+            return this;
+        }
+
+        /**
+         * Set the maximum number of concurrent connections to a single remote repository host.
+         *
+         * @param maxConnectionsPerRoute The maximum number of connections. Must be at least 1.
+         * @return the builder
+         */
+        public Builder maxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            if (maxConnectionsPerRoute < 1) {
+                throw new IllegalArgumentException("maxConnectionsPerRoute must be at least 1");
+            }
+            configProperties.put(ConfigurationProperties.HTTP_MAX_CONNECTIONS_PER_ROUTE, maxConnectionsPerRoute);
+            return this;
+        }
+
+        /**
+         * If true, connections are kept alive and reused for multiple requests.
+         *
+         * @param reuseConnections If true, reuse connections.
+         * @return the builder
+         */
+        public Builder reuseConnections(boolean reuseConnections) {
+            configProperties.put(ConfigurationProperties.HTTP_REUSE_CONNECTIONS, reuseConnections);
+            return this;
+        }
+
+        /**
+         * Set the maximum time a pooled connection is kept and reused. The resolver supports second granularity.
+         *
+         * @param connectionMaxTtl The maximum connection lifetime. Must not be null or negative.
+         * @return the builder
+         */
+        public Builder connectionMaxTtl(Duration connectionMaxTtl) {
+            requireNonNull(connectionMaxTtl, "connectionMaxTtl is null");
+            if (connectionMaxTtl.isNegative()) {
+                throw new IllegalArgumentException("connectionMaxTtl must not be negative");
+            }
+            configProperties.put(ConfigurationProperties.HTTP_CONNECTION_MAX_TTL, (int) Math.min(Integer.MAX_VALUE, connectionMaxTtl.getSeconds()));
+            return this;
+        }
+
+        /**
+         * Set the number of retries for failed requests. Requests that fail with an I/O error are retried immediately. Requests that are answered with
+         * status 429 or 503 are retried after the time in the {@code Retry-After} header of the response or, without the header, after the initial
+         * interval multiplied with the number of the attempt. A retry that would wait longer than the maximum interval is not made.
+         *
+         * @param retryCount          The number of retries. Zero disables retries.
+         * @param initialInterval     The interval before the first retry of a 429 or 503 response, increased by the same amount for each retry. Must not
+         *                            be null or negative.
+         * @param maximumInterval     The longest time to wait before a retry. Must not be null or negative.
+         * @return the builder
+         */
+        public Builder retry(int retryCount, Duration initialInterval, Duration maximumInterval) {
+            if (retryCount < 0) {
+                throw new IllegalArgumentException("retryCount must not be negative");
+            }
+            configProperties.put(ConfigurationProperties.HTTP_RETRY_HANDLER_COUNT, retryCount);
+            configProperties.put(ConfigurationProperties.HTTP_RETRY_HANDLER_INTERVAL, (long) toMillis(initialInterval, "initialInterval"));
+            configProperties.put(ConfigurationProperties.HTTP_RETRY_HANDLER_INTERVAL_MAX, (long) toMillis(maximumInterval, "maximumInterval"));
+            return this;
+        }
+
+        /**
+         * Creates a new transport configuration from the builder configuration.
+         *
+         * @return A {@link TransportConfiguration} instance.
+         */
+        public TransportConfiguration build() {
+            return new TransportConfiguration(configProperties);
+        }
+
+        private static int toMillis(Duration duration, String name) {
+            requireNonNull(duration, name + " is null");
+            if (duration.isNegative()) {
+                throw new IllegalArgumentException(name + " must not be negative");
+            }
+            return (int) Math.min(Integer.MAX_VALUE, duration.toMillis());
+        }
+    }
+}
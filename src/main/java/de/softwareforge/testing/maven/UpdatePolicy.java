@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+
+/**
+ * Controls how often snapshot information from the remote repositories is checked for updates.
+ */
+public final class UpdatePolicy {
+
+    /**
+     * Never check for updates once a snapshot is present in the local repository.
+     */
+    public static final UpdatePolicy NEVER = new UpdatePolicy(RepositoryPolicy.UPDATE_POLICY_NEVER);
+
+    /**
+     * Check for updates once a day. This is the Maven default.
+     */
+    public static final UpdatePolicy DAILY = new UpdatePolicy(RepositoryPolicy.UPDATE_POLICY_DAILY);
+
+    /**
+     * Check for updates every time a snapshot is resolved.
+     */
+    public static final UpdatePolicy ALWAYS = new UpdatePolicy(RepositoryPolicy.UPDATE_POLICY_ALWAYS);
+
+    private final String policy;
+
+    /**
+     * Check for updates when the last check is older than the given interval.
+     *
+     * @param interval The update interval. Must not be null. Maven supports minute granularity, the interval must be at least one minute.
+     * @return An {@link UpdatePolicy} instance.
+     */
+    public static UpdatePolicy interval(Duration interval) {
+        requireNonNull(interval, "interval is null");
+        if (interval.toMinutes() < 1) {
+            throw new IllegalArgumentException("interval must be at least one minute");
+        }
+        return new UpdatePolicy(RepositoryPolicy.UPDATE_POLICY_INTERVAL + ':' + interval.toMinutes());
+    }
+
+    private UpdatePolicy(String policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Returns the repositories with this update policy for snapshots.
+     */
+    List<RemoteRepository> applySnapshotPolicy(List<RemoteRepository> repositories) {
+        RemoteRepository[] result = new RemoteRepository[repositories.size()];
+        for (int i = 0; i < result.length; i++) {
+            RemoteRepository repository = repositories.get(i);
+            RepositoryPolicy snapshotPolicy = repository.getPolicy(true);
+            result[i] = new RemoteRepository.Builder(repository)
+                    .setSnapshotPolicy(new RepositoryPolicy(snapshotPolicy.isEnabled(), policy, snapshotPolicy.getChecksumPolicy()))
+                    .build();
+        }
+        return List.of(result);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return policy.equals(((UpdatePolicy) o).policy);
+    }
+
+    @Override
+    public int hashCode() {
+        return policy.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return policy;
+    }
+}
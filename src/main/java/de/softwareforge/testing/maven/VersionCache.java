@@ -0,0 +1,168 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.aether.repository.RemoteRepository;
+
+/**
+ * Bounded, time limited cache for the parsed version lists of artifacts. Evicts the least recently used entry when full.
+ */
+final class VersionCache {
+
+    private final long ttlNanos;
+    private final Map<Key, CachedVersions> entries;
+    private final MetricsListener metricsListener;
+
+    VersionCache(Duration ttl, int maximumSize, MetricsListener metricsListener) {
+        requireNonNull(ttl, "ttl is null");
+        this.metricsListener = requireNonNull(metricsListener, "metricsListener is null");
+
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedVersions> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached list of versions for the key or calls the loader to compute it. The loader is called outside the cache lock. An incomplete
+     * version list is returned but not cached.
+     */
+    List<VersionKey> get(Key key, VersionLoader loader) throws IOException {
+        if (ttlNanos <= 0) {
+            return loader.load().versionKeys();
+        }
+
+        synchronized (entries) {
+            CachedVersions entry = entries.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.created < ttlNanos) {
+                    metricsListener.count(MetricsSink.VERSION_CACHE_HIT, MetricsSink.ALL_REPOSITORIES, 1);
+                    return entry.versions;
+                }
+                entries.remove(key);
+            }
+        }
+
+        metricsListener.count(MetricsSink.VERSION_CACHE_MISS, MetricsSink.ALL_REPOSITORIES, 1);
+        Versions loadedVersions = loader.load();
+        List<VersionKey> versions = List.copyOf(loadedVersions.versionKeys());
+        if (!loadedVersions.complete()) {
+            // some repositories are missing, the next lookup asks them again
+            return versions;
+        }
+
+        synchronized (entries) {
+            entries.put(key, new CachedVersions(versions, System.nanoTime()));
+        }
+        return versions;
+    }
+
+    @FunctionalInterface
+    interface VersionLoader {
+
+        Versions load() throws IOException;
+    }
+
+    /**
+     * A loaded version list.
+     */
+    static final class Versions {
+
+        private final List<VersionKey> versionKeys;
+        // false if some repositories did not return their versions
+        private final boolean complete;
+
+        Versions(List<VersionKey> versionKeys, boolean complete) {
+            this.versionKeys = requireNonNull(versionKeys, "versionKeys is null");
+            this.complete = complete;
+        }
+
+        List<VersionKey> versionKeys() {
+            return versionKeys;
+        }
+
+        boolean complete() {
+            return complete;
+        }
+    }
+
+    static final class Key {
+
+        private final String groupId;
+        private final String artifactId;
+        private final String extension;
+        private final List<RemoteRepository> repositories;
+        private final ResolutionMode resolutionMode;
+
+        Key(String groupId, String artifactId, String extension, List<RemoteRepository> repositories, ResolutionMode resolutionMode) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.extension = extension;
+            this.repositories = repositories;
+            this.resolutionMode = resolutionMode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return groupId.equals(key.groupId)
+                    && artifactId.equals(key.artifactId)
+                    && extension.equals(key.extension)
+                    && repositories.equals(key.repositories)
+                    && resolutionMode == key.resolutionMode;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(groupId, artifactId, extension, repositories, resolutionMode);
+        }
+
+        @Override
+        public String toString() {
+            return groupId + ':' + artifactId + ':' + extension + " " + repositories + " (" + resolutionMode + ")";
+        }
+    }
+
+    private static final class CachedVersions {
+
+        private final List<VersionKey> versions;
+        private final long created;
+
+        private CachedVersions(List<VersionKey> versions, long created) {
+            this.versions = versions;
+            this.created = created;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.VersionScheme;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent index of the version lists of artifacts. Survives restarts of the JVM, so a new loader can answer version queries without contacting the
+ * remote repositories.
+ * <p>
+ * The index is an append-only file of length-prefixed records. Later records replace earlier records for the same key. When the file contains too
+ * many replaced records, it is rewritten when it is loaded. Multiple loaders and processes can share an index: the index is read with a shared lock,
+ * appended to and rewritten with an exclusive lock. The lock is held on a separate lock file, because rewriting replaces the index file. An index
+ * with a different format version is discarded.
+ */
+final class VersionIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VersionIndex.class);
+
+    private static final int MAGIC = 0x4d4c5649; // "MLVI"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 8;
+
+    private static final int COMPACTION_MINIMUM_RECORDS = 100;
+    private static final String LOCK_SUFFIX = ".lock";
+
+    private static final VersionScheme VERSION_SCHEME = new GenericVersionScheme();
+
+    private final Path indexFile;
+    private final Path lockFile;
+    private final long ttlMillis;
+    private final MetricsListener metricsListener;
+
+    // guarded by this
+    private Map<String, IndexEntry> entries = null;
+
+    VersionIndex(File indexFile, Duration ttl, MetricsListener metricsListener) {
+        this.indexFile = requireNonNull(indexFile, "indexFile is null").toPath();
+        this.lockFile = this.indexFile.resolveSibling(this.indexFile.getFileName() + LOCK_SUFFIX);
+        this.ttlMillis = requireNonNull(ttl, "ttl is null").toMillis();
+        this.metricsListener = requireNonNull(metricsListener, "metricsListener is null");
+    }
+
+    /**
+     * Returns the indexed versions for a key or null if the key is not indexed or its versions are older than the time to live.
+     */
+    synchronized List<VersionKey> get(String key) {
+        IndexEntry entry = entries().get(key);
+        if (entry == null || System.currentTimeMillis() - entry.fetched >= ttlMillis) {
+            metricsListener.count(MetricsSink.VERSION_INDEX_MISS, MetricsSink.ALL_REPOSITORIES, 1);
+            return null;
+        }
+
+        if (entry.versionKeys == null) {
+            try {
+                List<VersionKey> versionKeys = new ArrayList<>(entry.versions.size());
+                for (int i = 0; i < entry.versions.size(); i++) {
+                    String repositoryId = entry.repositoryIds.get(i);
+                    versionKeys.add(VersionKey.of(VERSION_SCHEME.parseVersion(entry.versions.get(i)), repositoryId.isEmpty() ? null : repositoryId));
+                }
+                entry.versionKeys = List.copyOf(versionKeys);
+            } catch (InvalidVersionSpecificationException e) {
+                LOG.debug(format("Ignoring invalid index entry for %s", key), e);
+                metricsListener.count(MetricsSink.VERSION_INDEX_MISS, MetricsSink.ALL_REPOSITORIES, 1);
+                return null;
+            }
+        }
+
+        metricsListener.count(MetricsSink.VERSION_INDEX_HIT, MetricsSink.ALL_REPOSITORIES, 1);
+        return entry.versionKeys;
+    }
+
+    /**
+     * Adds the versions for a key to the index. Failures to write the index are logged and otherwise ignored.
+     */
+    synchronized void put(String key, List<VersionKey> versionKeys) {
+        List<String> versions = new ArrayList<>(versionKeys.size());
+        List<String> repositoryIds = new ArrayList<>(versionKeys.size());
+        for (VersionKey versionKey : versionKeys) {
+            versions.add(versionKey.versionString());
+            repositoryIds.add(versionKey.repositoryId() == null ? "" : versionKey.repositoryId());
+        }
+
+        IndexEntry entry = new IndexEntry(System.currentTimeMillis(), versions, repositoryIds);
+        entry.versionKeys = List.copyOf(versionKeys);
+        entries().put(key, entry);
+
+        try {
+            FileLocks.Lock lock = FileLocks.exclusive(lockFile);
+            try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                if (channel.size() == 0) {
+                    channel.write(header());
+                }
+                channel.write(ByteBuffer.wrap(record(key, entry)));
+            } finally {
+                lock.close();
+            }
+        } catch (IOException e) {
+            LOG.warn(format("Could not write version index %s", indexFile), e);
+        }
+    }
+
+    private Map<String, IndexEntry> entries() {
+        if (entries == null) {
+            entries = new HashMap<>();
+            try {
+                int records;
+                FileLocks.Lock sharedLock = FileLocks.shared(lockFile);
+                try {
+                    records = load(entries);
+                } finally {
+                    sharedLock.close();
+                }
+                if (needsCompaction(records, entries)) {
+                    FileLocks.Lock exclusiveLock = FileLocks.exclusive(lockFile);
+                    try {
+                        // other loaders may have appended to or rewritten the index since it was read
+                        entries.clear();
+                        records = load(entries);
+                        if (needsCompaction(records, entries)) {
+                            compact(entries);
+                        }
+                    } finally {
+                        exclusiveLock.close();
+                    }
+                }
+            } catch (IOException e) {
+                LOG.warn(format("Could not read version index %s", indexFile), e);
+            }
+        }
+        return entries;
+    }
+
+    private static boolean needsCompaction(int records, Map<String, IndexEntry> entries) {
+        return records < 0 || records > Math.max(COMPACTION_MINIMUM_RECORDS, 2 * entries.size());
+    }
+
+    // returns the number of records read or -1 if the file is not a valid index. Must be called with the lock held.
+    private int load(Map<String, IndexEntry> entries) throws IOException {
+        if (!Files.isRegularFile(indexFile)) {
+            return 0;
+        }
+
+        byte[] data;
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read the whole file
+            }
+            data = buffer.array();
+        }
+
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+                return -1;
+            }
+
+            int records = 0;
+            while (input.available() > 0) {
+                int length = input.readInt();
+                if (length < 0 || length > input.available()) {
+                    return -1;
+                }
+                byte[] record = new byte[length];
+                input.readFully(record);
+
+                try (DataInputStream recordInput = new DataInputStream(new ByteArrayInputStream(record))) {
+                    String key = recordInput.readUTF();
+                    long fetched = recordInput.readLong();
+                    int count = recordInput.readInt();
+                    List<String> versions = new ArrayList<>(count);
+                    List<String> repositoryIds = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        versions.add(recordInput.readUTF());
+                        repositoryIds.add(recordInput.readUTF());
+                    }
+                    entries.put(key, new IndexEntry(fetched, versions, repositoryIds));
+                }
+                records++;
+            }
+            return records;
+        } catch (EOFException e) {
+            // incomplete last record, e.g. from a process that was killed while writing. Rewrite the index.
+            return -1;
+        }
+    }
+
+    // must be called with the exclusive lock held, so no other loader appends to the index file that is replaced
+    private void compact(Map<String, IndexEntry> entries) throws IOException {
+        Path tempFile = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                channel.write(header());
+                for (Map.Entry<String, IndexEntry> entry : entries.entrySet()) {
+                    channel.write(ByteBuffer.wrap(record(entry.getKey(), entry.getValue())));
+                }
+            }
+            Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static ByteBuffer header() {
+        return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+    }
+
+    private static byte[] record(String key, IndexEntry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(0); // length placeholder
+            output.writeUTF(key);
+            output.writeLong(entry.fetched);
+            output.writeInt(entry.versions.size());
+            for (int i = 0; i < entry.versions.size(); i++) {
+                output.writeUTF(entry.versions.get(i));
+                output.writeUTF(entry.repositoryIds.get(i));
+            }
+        }
+        byte[] record = bytes.toByteArray();
+        ByteBuffer.wrap(record).putInt(record.length - Integer.BYTES);
+        return record;
+    }
+
+    private static final class IndexEntry {
+
+        private final long fetched;
+        private final List<String> versions;
+        // empty if the repository is not known
+        private final List<String> repositoryIds;
+
+        // parsed on first use
+        private List<VersionKey> versionKeys;
+
+        private IndexEntry(long fetched, List<String> versions, List<String> repositoryIds) {
+            this.fetched = fetched;
+            this.versions = versions;
+            this.repositoryIds = repositoryIds;
+        }
+    }
+}
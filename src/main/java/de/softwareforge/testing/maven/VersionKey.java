@@ -0,0 +1,206 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.eclipse.aether.version.Version;
+
+/**
+ * A version with its string form, leading numeric segments and qualifiers computed once, so that version strategies can match it without allocating.
+ */
+final class VersionKey {
+
+    private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+
+    private static final int[] NO_SEGMENTS = new int[0];
+    private static final String[] NO_QUALIFIERS = new String[0];
+
+    private final Version version;
+    private final String repositoryId;
+    private final String versionString;
+    private final boolean snapshot;
+    private final int[] segments;
+    private final boolean plain;
+    private final String[] qualifiers;
+
+    static VersionKey of(Version version) {
+        return new VersionKey(version, null);
+    }
+
+    static VersionKey of(Version version, String repositoryId) {
+        return new VersionKey(version, repositoryId);
+    }
+
+    private VersionKey(Version version, String repositoryId) {
+        this.version = requireNonNull(version, "version is null");
+        this.repositoryId = repositoryId;
+        this.versionString = version.toString();
+        this.snapshot = versionString.endsWith(SNAPSHOT_SUFFIX);
+
+        // parse the leading dot separated numbers, e.g. 1.2.3 for "1.2.3-rc1"
+        int[] segments = new int[4];
+        int segmentCount = 0;
+        int position = 0;
+        int length = versionString.length();
+        boolean overflow = false;
+
+        while (position < length && isDigit(versionString.charAt(position))) {
+            long value = 0;
+            while (position < length && isDigit(versionString.charAt(position))) {
+                if (value <= Integer.MAX_VALUE) {
+                    value = value * 10 + (versionString.charAt(position) - '0');
+                }
+                position++;
+            }
+            if (segmentCount == segments.length) {
+                segments = Arrays.copyOf(segments, segmentCount * 2);
+            }
+            // numbers that do not fit an int never match a requested version
+            overflow |= value > Integer.MAX_VALUE;
+            segments[segmentCount++] = value > Integer.MAX_VALUE ? -1 : (int) value;
+
+            if (position + 1 < length && versionString.charAt(position) == '.' && isDigit(versionString.charAt(position + 1))) {
+                position++;
+            } else {
+                break;
+            }
+        }
+
+        this.segments = segmentCount == 0 ? NO_SEGMENTS : Arrays.copyOf(segments, segmentCount);
+
+        // the numeric segments describe the version completely if nothing or only a '-' separated qualifier follows them, e.g. "1.2" or "1.2-SNAPSHOT"
+        this.plain = segmentCount > 0 && !overflow
+                && (position == length
+                || (position + 1 < length && versionString.charAt(position) == '-' && !isDigit(versionString.charAt(position + 1))));
+
+        this.qualifiers = parseQualifiers(versionString);
+    }
+
+    /**
+     * Returns the normalized form of a qualifier, following the Maven version ordering rules: "a", "b" and "m" are short for "alpha", "beta" and
+     * "milestone", "cr" is the same as "rc". Returns null for qualifiers that mark a release ("ga", "final" and "release").
+     */
+    static String normalizeQualifier(String qualifier) {
+        String lowerCase = qualifier.toLowerCase(Locale.ROOT);
+        switch (lowerCase) {
+            case "a":
+                return "alpha";
+            case "b":
+                return "beta";
+            case "m":
+                return "milestone";
+            case "cr":
+                return "rc";
+            case "ga":
+            case "final":
+            case "release":
+                return null;
+            default:
+                return lowerCase;
+        }
+    }
+
+    // collects the alphabetic parts of a version, e.g. "beta" and "snapshot" for "1.0-beta-2-SNAPSHOT"
+    private static String[] parseQualifiers(String versionString) {
+        List<String> qualifiers = null;
+        int length = versionString.length();
+        int position = 0;
+        while (position < length) {
+            if (!Character.isLetter(versionString.charAt(position))) {
+                position++;
+                continue;
+            }
+            int start = position;
+            while (position < length && Character.isLetter(versionString.charAt(position))) {
+                position++;
+            }
+            String qualifier = versionString.substring(start, position);
+            // single letters are only short forms when a number follows directly, e.g. "1.0a1" or "1.0.M2"
+            if (qualifier.length() == 1 && (position == length || !isDigit(versionString.charAt(position)))) {
+                qualifier = qualifier.toLowerCase(Locale.ROOT);
+            } else {
+                qualifier = normalizeQualifier(qualifier);
+            }
+            if (qualifier != null) {
+                if (qualifiers == null) {
+                    qualifiers = new ArrayList<>(2);
+                }
+                qualifiers.add(qualifier);
+            }
+        }
+        return qualifiers == null ? NO_QUALIFIERS : qualifiers.toArray(NO_QUALIFIERS);
+    }
+
+    Version version() {
+        return version;
+    }
+
+    /**
+     * Returns the id of the repository that supplied the version or null if it is not known.
+     */
+    String repositoryId() {
+        return repositoryId;
+    }
+
+    String versionString() {
+        return versionString;
+    }
+
+    boolean isSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns true if the leading numeric segments fully determine the version ordering relative to other versions with the same prefix.
+     */
+    boolean isPlain() {
+        return plain;
+    }
+
+    int segmentCount() {
+        return segments.length;
+    }
+
+    int segment(int index) {
+        return segments[index];
+    }
+
+    /**
+     * Returns true if the version contains the qualifier. The qualifier must be normalized with {@link #normalizeQualifier(String)}.
+     */
+    boolean hasQualifier(String qualifier) {
+        for (String versionQualifier : qualifiers) {
+            if (versionQualifier.equals(qualifier)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return versionString;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.eclipse.aether.version.Version;
+import org.eclipse.aether.version.VersionRange;
+
+/**
+ * A version query. A query combines a filter for versions with an optional selection, e.g. the latest three versions or the newest patch version of
+ * each minor version. Queries are immutable, all methods that change a query return a new query.
+ * <p>
+ * The filter is prepared when the query is created. A query is evaluated in a single pass over the version list of an artifact, starting with the
+ * newest version. The pass stops as soon as the selection is complete or the versions are below the lower bound of a version range.
+ * <pre>
+ * // the newest patch version of the three latest 2.x minor versions, without alpha, beta, milestone, release candidate or snapshot versions
+ * VersionQuery query = VersionQuery.range("[2.0,3.0)")
+ *         .and(VersionQuery.not(VersionQuery.preRelease()))
+ *         .newestPatchPerMinor()
+ *         .latest(3);
+ * </pre>
+ */
+public final class VersionQuery {
+
+    private static final List<String> PRE_RELEASE_QUALIFIERS = List.of("alpha", "beta", "milestone", "rc", "snapshot");
+
+    private static final VersionQuery ALL = new VersionQuery(VersionStrategy.partialMatch(""), false, -1);
+
+    private final VersionStrategy versionStrategy;
+    private final boolean newestPatchPerMinor;
+    private final int limit;
+
+    /**
+     * Matches all versions.
+     *
+     * @return A query that matches all versions.
+     */
+    public static VersionQuery all() {
+        return ALL;
+    }
+
+    /**
+     * Matches versions in a Maven version range, e.g. {@code [1.0,2.0)}, {@code [1.5,)} or {@code (,1.0],[1.2,)}. Multiple ranges are separated by
+     * commas. A version without brackets only matches this version.
+     *
+     * @param range The version range. Must not be null.
+     * @return A query that matches all versions in the range.
+     * @throws IllegalArgumentException If the version range is invalid.
+     */
+    public static VersionQuery range(String range) {
+        return of(VersionStrategy.rangeMatch(range));
+    }
+
+    /**
+     * Matches a partial version. If the value is empty, any version will match. Otherwise, the version must be either exact or a prefix to match a
+     * version.
+     *
+     * @param partial The partial version. Must not be null.
+     * @return A query that matches the partial version.
+     */
+    public static VersionQuery partial(String partial) {
+        return of(VersionStrategy.partialMatch(partial));
+    }
+
+    /**
+     * Matches a version exactly.
+     *
+     * @param version The version. Must not be null.
+     * @return A query that matches only this version.
+     */
+    public static VersionQuery exact(String version) {
+        return of(VersionStrategy.exactMatch(version));
+    }
+
+    /**
+     * Matches the major version of semantic versions.
+     *
+     * @param major The major version.
+     * @return A query that matches all versions with this major version.
+     */
+    public static VersionQuery semVerMajor(int major) {
+        return of(VersionStrategy.semVerMatchMajor(major));
+    }
+
+    /**
+     * Matches the major and minor version of semantic versions.
+     *
+     * @param major The major version.
+     * @param minor The minor version.
+     * @return A query that matches all versions with this major and minor version.
+     */
+    public static VersionQuery semVerMinor(int major, int minor) {
+        return of(VersionStrategy.semVerMatchMinor(major, minor));
+    }
+
+    /**
+     * Matches versions that contain any of the qualifiers, e.g. "beta" for "1.0-beta-2". Qualifiers are compared case-insensitively with the short
+     * forms of the Maven version ordering: "a", "b" and "m" are the same as "alpha", "beta" and "milestone" and "cr" is the same as "rc".
+     *
+     * @param qualifiers The qualifiers. Must not be null.
+     * @return A query that matches versions with any of the qualifiers.
+     */
+    public static VersionQuery qualifier(String... qualifiers) {
+        requireNonNull(qualifiers, "qualifiers is null");
+        return of(VersionStrategy.qualifierMatch(Arrays.asList(qualifiers)));
+    }
+
+    /**
+     * Matches pre-release versions. These are versions with an alpha, beta, milestone, release candidate or snapshot qualifier.
+     *
+     * @return A query that matches pre-release versions.
+     */
+    public static VersionQuery preRelease() {
+        return of(VersionStrategy.qualifierMatch(PRE_RELEASE_QUALIFIERS));
+    }
+
+    /**
+     * Matches all versions that the given query does not match.
+     *
+     * @param query The query to negate. Must not be null. Must not have a selection.
+     * @return A query that matches all versions that the given query does not match.
+     */
+    public static VersionQuery not(VersionQuery query) {
+        return of(VersionStrategy.not(filter(query)));
+    }
+
+    static VersionQuery of(VersionStrategy versionStrategy) {
+        return new VersionQuery(versionStrategy, false, -1);
+    }
+
+    private VersionQuery(VersionStrategy versionStrategy, boolean newestPatchPerMinor, int limit) {
+        this.versionStrategy = requireNonNull(versionStrategy, "versionStrategy is null");
+        this.newestPatchPerMinor = newestPatchPerMinor;
+        this.limit = limit;
+    }
+
+    /**
+     * Matches versions that this query and the other query match. The selection of this query is kept.
+     *
+     * @param query The other query. Must not be null. Must not have a selection.
+     * @return A query that matches versions that both queries match.
+     */
+    public VersionQuery and(VersionQuery query) {
+        return new VersionQuery(VersionStrategy.and(versionStrategy, filter(query)), newestPatchPerMinor, limit);
+    }
+
+    /**
+     * Matches versions that this query or the other query match. The selection of this query is kept.
+     *
+     * @param query The other query. Must not be null. Must not have a selection.
+     * @return A query that matches versions that any of the queries match.
+     */
+    public VersionQuery or(VersionQuery query) {
+        return new VersionQuery(VersionStrategy.or(versionStrategy, filter(query)), newestPatchPerMinor, limit);
+    }
+
+    /**
+     * Selects only the newest matching version for each major and minor version, e.g. 1.2.5 and 1.3.1 from 1.2.4, 1.2.5, 1.3.0 and 1.3.1.
+     *
+     * @return A query that selects the newest matching version of each minor version.
+     */
+    public VersionQuery newestPatchPerMinor() {
+        return new VersionQuery(versionStrategy, true, limit);
+    }
+
+    /**
+     * Selects at most the given number of the newest matching versions. Combined with {@link #newestPatchPerMinor()}, it selects the newest version
+     * of at most this number of minor versions.
+     *
+     * @param count The maximum number of versions. Must be positive.
+     * @return A query that selects at most the given number of versions.
+     */
+    public VersionQuery latest(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        return new VersionQuery(versionStrategy, newestPatchPerMinor, count);
+    }
+
+    /**
+     * Selects the matching versions from a list of versions.
+     *
+     * @param versionKeys      All versions of an artifact, sorted from the oldest to the newest version.
+     * @param includeSnapshots If false, snapshot versions are never selected.
+     * @return The selected versions.
+     */
+    SortedSet<Version> select(List<VersionKey> versionKeys, boolean includeSnapshots) {
+        SortedSet<Version> result = new TreeSet<>();
+        for (VersionKey versionKey : selectNewest(versionKeys, includeSnapshots, limit, new ArrayList<>())) {
+            result.add(versionKey.version());
+        }
+        return Collections.unmodifiableSortedSet(result);
+    }
+
+    /**
+     * Selects the matching versions from a list of versions.
+     *
+     * @param versionKeys      All versions of an artifact, sorted from the oldest to the newest version.
+     * @param includeSnapshots If false, snapshot versions are never selected.
+     * @return The selected versions, sorted from the oldest to the newest version.
+     */
+    List<VersionKey> selectKeys(List<VersionKey> versionKeys, boolean includeSnapshots) {
+        List<VersionKey> result = selectNewest(versionKeys, includeSnapshots, limit, new ArrayList<>());
+        Collections.reverse(result);
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Selects at most the given number of matching versions from a list of versions.
+     *
+     * @param versionKeys      All versions of an artifact, sorted from the oldest to the newest version.
+     * @param includeSnapshots If false, snapshot versions are never selected.
+     * @param count            The maximum number of versions.
+     * @return The selected versions, starting with the newest version.
+     */
+    List<Version> selectNewest(List<VersionKey> versionKeys, boolean includeSnapshots, int count) {
+        int maximum = limit < 0 ? count : Math.min(count, limit);
+        List<VersionKey> selected = selectNewest(versionKeys, includeSnapshots, maximum, new ArrayList<>(Math.min(maximum, versionKeys.size())));
+        Version[] result = new Version[selected.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = selected.get(i).version();
+        }
+        return List.of(result);
+    }
+
+    /**
+     * Returns the newest matching version from a list of versions. The newest match is always selected, so this method stops at the first match.
+     *
+     * @param versionKeys      All versions of an artifact, sorted from the oldest to the newest version.
+     * @param includeSnapshots If false, snapshot versions are never selected.
+     * @return The newest matching version or null if no version matches.
+     */
+    Version selectNewest(List<VersionKey> versionKeys, boolean includeSnapshots) {
+        VersionRange.Bound lowerBound = versionStrategy.lowerBound();
+        for (ListIterator<VersionKey> iterator = versionKeys.listIterator(versionKeys.size()); iterator.hasPrevious(); ) {
+            VersionKey versionKey = iterator.previous();
+            if (lowerBound != null && VersionStrategy.isBelow(versionKey.version(), lowerBound)) {
+                break;
+            }
+            if (matchVersion(versionKey, includeSnapshots)) {
+                return versionKey.version();
+            }
+        }
+        return null;
+    }
+
+    // adds the selected versions to the result, starting with the newest version
+    private List<VersionKey> selectNewest(List<VersionKey> versionKeys, boolean includeSnapshots, int maximum, List<VersionKey> result) {
+        VersionRange.Bound lowerBound = versionStrategy.lowerBound();
+        Set<Long> minorVersions = newestPatchPerMinor ? new HashSet<>() : null;
+
+        ListIterator<VersionKey> iterator = versionKeys.listIterator(versionKeys.size());
+        while (iterator.hasPrevious() && (maximum < 0 || result.size() < maximum)) {
+            VersionKey versionKey = iterator.previous();
+            if (lowerBound != null && VersionStrategy.isBelow(versionKey.version(), lowerBound)) {
+                // all remaining versions are older
+                break;
+            }
+            if (!matchVersion(versionKey, includeSnapshots)) {
+                continue;
+            }
+            // the first match of a minor version is the newest
+            if (minorVersions != null && !minorVersions.add(minorVersion(versionKey))) {
+                continue;
+            }
+            result.add(versionKey);
+        }
+        return result;
+    }
+
+    private boolean matchVersion(VersionKey versionKey, boolean includeSnapshots) {
+        return (includeSnapshots || !versionKey.isSnapshot()) && versionStrategy.matchVersion(versionKey);
+    }
+
+    private static long minorVersion(VersionKey versionKey) {
+        int major = versionKey.segmentCount() > 0 ? versionKey.segment(0) : 0;
+        int minor = versionKey.segmentCount() > 1 ? versionKey.segment(1) : 0;
+        return ((long) major << 32) | (minor & 0xffffffffL);
+    }
+
+    private static VersionStrategy filter(VersionQuery query) {
+        requireNonNull(query, "query is null");
+        if (query.newestPatchPerMinor || query.limit > 0) {
+            throw new IllegalArgumentException("query must not have a selection");
+        }
+        return query.versionStrategy;
+    }
+}
@@ -14,21 +14,33 @@
 
 package de.softwareforge.testing.maven;
 
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import org.eclipse.aether.util.version.GenericVersionScheme;
 import org.eclipse.aether.version.InvalidVersionSpecificationException;
 import org.eclipse.aether.version.Version;
+import org.eclipse.aether.version.VersionConstraint;
 import org.eclipse.aether.version.VersionRange;
 
+/**
+ * Matches versions. All strategies prepare their match criteria when created and match a {@link VersionKey} without allocating.
+ * <p>
+ * A strategy may report a lower bound. No version below the bound matches, so a scan from the newest to the oldest version can stop at the bound.
+ */
 interface VersionStrategy {
 
     static VersionStrategy partialMatch(String partial) {
-        return artifactVersion -> partial.isEmpty()
-                || artifactVersion.toString().equals(partial)
-                || artifactVersion.toString().startsWith(partial + '.');
+        return new PartialVersionStrategy(partial);
     }
 
     static VersionStrategy exactMatch(String version) {
-        return artifactVersion -> artifactVersion.toString().equals(version);
+        requireNonNull(version, "version is null");
+        return versionKey -> versionKey.versionString().equals(version);
     }
 
     static VersionStrategy semVerMatchMajor(int major) {
@@ -39,12 +51,77 @@ interface VersionStrategy {
         return new SemVerVersionStrategy(major, minor);
     }
 
-    boolean matchVersion(Version version);
+    static VersionStrategy rangeMatch(String range) {
+        return new RangeVersionStrategy(range);
+    }
+
+    static VersionStrategy qualifierMatch(Collection<String> qualifiers) {
+        return new QualifierVersionStrategy(qualifiers);
+    }
+
+    static VersionStrategy and(VersionStrategy left, VersionStrategy right) {
+        return new AndVersionStrategy(left, right);
+    }
+
+    static VersionStrategy or(VersionStrategy left, VersionStrategy right) {
+        return new OrVersionStrategy(left, right);
+    }
+
+    static VersionStrategy not(VersionStrategy strategy) {
+        requireNonNull(strategy, "strategy is null");
+        return versionKey -> !strategy.matchVersion(versionKey);
+    }
+
+    boolean matchVersion(VersionKey versionKey);
+
+    default boolean matchVersion(Version version) {
+        return matchVersion(VersionKey.of(version));
+    }
+
+    /**
+     * Returns the lower bound of all matching versions or null if the strategy does not know a lower bound.
+     */
+    default VersionRange.Bound lowerBound() {
+        return null;
+    }
+
+    /**
+     * Returns true if the version is below the bound.
+     */
+    static boolean isBelow(Version version, VersionRange.Bound bound) {
+        int comparison = version.compareTo(bound.getVersion());
+        return comparison < 0 || (comparison == 0 && !bound.isInclusive());
+    }
+
+    class PartialVersionStrategy implements VersionStrategy {
+
+        private final String partial;
+        private final int partialLength;
+
+        PartialVersionStrategy(String partial) {
+            this.partial = requireNonNull(partial, "partial is null");
+            this.partialLength = partial.length();
+        }
+
+        @Override
+        public boolean matchVersion(VersionKey versionKey) {
+            if (partialLength == 0) {
+                return true;
+            }
+
+            // either the exact version or the partial version followed by '.'
+            String versionString = versionKey.versionString();
+            return versionString.startsWith(partial)
+                    && (versionString.length() == partialLength || versionString.charAt(partialLength) == '.');
+        }
+    }
 
     class SemVerVersionStrategy implements VersionStrategy {
 
         private static final GenericVersionScheme SCHEME = new GenericVersionScheme();
 
+        private final int major;
+        private final int minor;
         private final VersionRange range;
 
         SemVerVersionStrategy(int major, int minor) {
@@ -60,6 +137,9 @@ interface VersionStrategy {
 
             matchString.append("*]");
 
+            this.major = major;
+            this.minor = minor > 0 ? minor : -1;
+
             try {
                 this.range = SCHEME.parseVersionRange(matchString.toString());
             } catch (InvalidVersionSpecificationException e) {
@@ -68,8 +148,145 @@ interface VersionStrategy {
         }
 
         @Override
-        public boolean matchVersion(Version version) {
-            return range.containsVersion(version);
+        public boolean matchVersion(VersionKey versionKey) {
+            if (!versionKey.isPlain()) {
+                // unusual version format, let the version scheme decide
+                return range.containsVersion(versionKey.version());
+            }
+
+            if (versionKey.segment(0) != major) {
+                return false;
+            }
+
+            return minor < 0 || (versionKey.segmentCount() > 1 && versionKey.segment(1) == minor);
+        }
+    }
+
+    class RangeVersionStrategy implements VersionStrategy {
+
+        private static final GenericVersionScheme SCHEME = new GenericVersionScheme();
+
+        private final VersionConstraint constraint;
+        private final VersionRange.Bound lowerBound;
+
+        RangeVersionStrategy(String range) {
+            requireNonNull(range, "range is null");
+            try {
+                this.constraint = SCHEME.parseVersionConstraint(range);
+            } catch (InvalidVersionSpecificationException e) {
+                throw new IllegalArgumentException(e);
+            }
+
+            if (constraint.getRange() != null) {
+                this.lowerBound = constraint.getRange().getLowerBound();
+            } else {
+                // a single version without brackets matches only this version
+                this.lowerBound = new VersionRange.Bound(constraint.getVersion(), true);
+            }
+        }
+
+        @Override
+        public boolean matchVersion(VersionKey versionKey) {
+            return constraint.containsVersion(versionKey.version());
+        }
+
+        @Override
+        public VersionRange.Bound lowerBound() {
+            return lowerBound;
+        }
+    }
+
+    class QualifierVersionStrategy implements VersionStrategy {
+
+        private final String[] qualifiers;
+
+        QualifierVersionStrategy(Collection<String> qualifiers) {
+            requireNonNull(qualifiers, "qualifiers is null");
+
+            List<String> normalizedQualifiers = new ArrayList<>(qualifiers.size());
+            for (String qualifier : qualifiers) {
+                requireNonNull(qualifier, "qualifier is null");
+                String normalizedQualifier = VersionKey.normalizeQualifier(qualifier);
+                if (normalizedQualifier == null) {
+                    throw new IllegalArgumentException(format("'%s' marks a release and is not a qualifier", qualifier));
+                }
+                normalizedQualifiers.add(normalizedQualifier);
+            }
+            this.qualifiers = normalizedQualifiers.toArray(new String[0]);
+        }
+
+        @Override
+        public boolean matchVersion(VersionKey versionKey) {
+            for (String qualifier : qualifiers) {
+                if (versionKey.hasQualifier(qualifier)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    class AndVersionStrategy implements VersionStrategy {
+
+        private final VersionStrategy left;
+        private final VersionStrategy right;
+        private final VersionRange.Bound lowerBound;
+
+        AndVersionStrategy(VersionStrategy left, VersionStrategy right) {
+            this.left = requireNonNull(left, "left is null");
+            this.right = requireNonNull(right, "right is null");
+
+            // both strategies must match, so the higher bound applies
+            VersionRange.Bound leftBound = left.lowerBound();
+            VersionRange.Bound rightBound = right.lowerBound();
+            if (leftBound == null) {
+                this.lowerBound = rightBound;
+            } else if (rightBound == null) {
+                this.lowerBound = leftBound;
+            } else {
+                this.lowerBound = isBelow(leftBound.getVersion(), rightBound) ? rightBound : leftBound;
+            }
+        }
+
+        @Override
+        public boolean matchVersion(VersionKey versionKey) {
+            return left.matchVersion(versionKey) && right.matchVersion(versionKey);
+        }
+
+        @Override
+        public VersionRange.Bound lowerBound() {
+            return lowerBound;
+        }
+    }
+
+    class OrVersionStrategy implements VersionStrategy {
+
+        private final VersionStrategy left;
+        private final VersionStrategy right;
+        private final VersionRange.Bound lowerBound;
+
+        OrVersionStrategy(VersionStrategy left, VersionStrategy right) {
+            this.left = requireNonNull(left, "left is null");
+            this.right = requireNonNull(right, "right is null");
+
+            // either strategy may match, so the lower bound applies and only if both strategies have one
+            VersionRange.Bound leftBound = left.lowerBound();
+            VersionRange.Bound rightBound = right.lowerBound();
+            if (leftBound == null || rightBound == null) {
+                this.lowerBound = null;
+            } else {
+                this.lowerBound = isBelow(leftBound.getVersion(), rightBound) ? leftBound : rightBound;
+            }
+        }
+
+        @Override
+        public boolean matchVersion(VersionKey versionKey) {
+            return left.matchVersion(versionKey) || right.matchVersion(versionKey);
+        }
+
+        @Override
+        public VersionRange.Bound lowerBound() {
+            return lowerBound;
         }
     }
 }
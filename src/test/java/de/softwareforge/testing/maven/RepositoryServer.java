@@ -0,0 +1,324 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.eclipse.aether.repository.RemoteRepository;
+
+/**
+ * A remote Maven repository for tests. Serves the files of a directory over HTTP, supports HEAD and range requests and counts the requests for each
+ * path. Also acts as an HTTP proxy for itself, requests with an absolute URI are served like requests for the path of the URI.
+ */
+final class RepositoryServer implements AutoCloseable {
+
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+
+    private final Path root;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final ConcurrentMap<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> fullDownloads = new ConcurrentHashMap<>();
+    private final AtomicInteger rangeRequests = new AtomicInteger();
+    private final AtomicInteger proxyRequests = new AtomicInteger();
+
+    private volatile boolean rangeSupport = true;
+    private volatile boolean failRanges = false;
+    private volatile long delayMillis = 0;
+    private volatile String authorization = null;
+
+    RepositoryServer(Path root) throws IOException {
+        this.root = root;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    RemoteRepository repository(String id) {
+        return new RemoteRepository.Builder(id, "default", format("http://localhost:%d/", port())).build();
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Adds a release artifact with its checksum and lists the version in the metadata of the artifact.
+     */
+    void deploy(String groupId, String artifactId, String version, String extension, byte[] content) throws IOException {
+        deploy(groupId, artifactId, version, "", extension, content);
+    }
+
+    /**
+     * Adds a release artifact with a classifier, e.g. "sources", with its checksum and lists the version in the metadata of the artifact.
+     */
+    void deploy(String groupId, String artifactId, String version, String classifier, String extension, byte[] content) throws IOException {
+        Path directory = artifactDirectory(groupId, artifactId).resolve(version);
+        String fileName = classifier.isEmpty()
+                ? format("%s-%s.%s", artifactId, version, extension)
+                : format("%s-%s-%s.%s", artifactId, version, classifier, extension);
+        writeWithChecksum(directory.resolve(fileName), content);
+        addVersion(groupId, artifactId, version);
+    }
+
+    /**
+     * Adds a timestamped snapshot build of an artifact with the snapshot metadata, e.g. "1.0-20240101.120000-1" for "1.0-SNAPSHOT".
+     */
+    void deploySnapshot(String groupId, String artifactId, String baseVersion, String timestamp, int buildNumber, String extension, byte[] content)
+            throws IOException {
+        deploySnapshot(groupId, artifactId, baseVersion, timestamp, buildNumber, "", extension, content);
+    }
+
+    /**
+     * Adds a timestamped snapshot build of an artifact with a classifier. The snapshot metadata keeps the builds of the other classifiers and
+     * extensions, so each of them can have a different timestamped version.
+     */
+    void deploySnapshot(String groupId, String artifactId, String baseVersion, String timestamp, int buildNumber, String classifier, String extension,
+            byte[] content) throws IOException {
+        String version = baseVersion.replace("SNAPSHOT", timestamp + '-' + buildNumber);
+        Path directory = artifactDirectory(groupId, artifactId).resolve(baseVersion);
+        String fileName = classifier.isEmpty()
+                ? format("%s-%s.%s", artifactId, version, extension)
+                : format("%s-%s-%s.%s", artifactId, version, classifier, extension);
+        writeWithChecksum(directory.resolve(fileName), content);
+
+        String updated = timestamp.replace(".", "");
+        String classifierElement = classifier.isEmpty() ? "" : format("<classifier>%s</classifier>", classifier);
+        String snapshotVersion = format("      <snapshotVersion>%s<extension>%s</extension><value>%s</value><updated>%s</updated></snapshotVersion>\n",
+                classifierElement, extension, version, updated);
+        List<String> snapshotVersions = new ArrayList<>();
+        Path metadataFile = directory.resolve("maven-metadata.xml");
+        if (Files.isRegularFile(metadataFile)) {
+            String prefix = format("      <snapshotVersion>%s<extension>%s</extension>", classifierElement, extension);
+            Matcher matcher = Pattern.compile(" *<snapshotVersion>.*</snapshotVersion>\n").matcher(Files.readString(metadataFile, UTF_8));
+            while (matcher.find()) {
+                if (!matcher.group().startsWith(prefix)) {
+                    snapshotVersions.add(matcher.group());
+                }
+            }
+        }
+        snapshotVersions.add(snapshotVersion);
+
+        String metadata = "<metadata>\n"
+                + format("  <groupId>%s</groupId>\n  <artifactId>%s</artifactId>\n  <version>%s</version>\n", groupId, artifactId, baseVersion)
+                + "  <versioning>\n"
+                + format("    <snapshot><timestamp>%s</timestamp><buildNumber>%d</buildNumber></snapshot>\n", timestamp, buildNumber)
+                + format("    <lastUpdated>%s</lastUpdated>\n", updated)
+                + "    <snapshotVersions>\n"
+                + String.join("", snapshotVersions)
+                + "    </snapshotVersions>\n"
+                + "  </versioning>\n"
+                + "</metadata>\n";
+        writeWithChecksum(metadataFile, metadata.getBytes(UTF_8));
+        addVersion(groupId, artifactId, baseVersion);
+    }
+
+    /**
+     * Returns the number of requests for a path, e.g. "g/a/maven-metadata.xml".
+     */
+    int requests(String path) {
+        AtomicInteger count = requests.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Returns the number of GET requests for a path that were answered with the whole file.
+     */
+    int fullDownloads(String path) {
+        AtomicInteger count = fullDownloads.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    int rangeRequests() {
+        return rangeRequests.get();
+    }
+
+    /**
+     * Returns the number of requests that were sent to this server as a proxy.
+     */
+    int proxyRequests() {
+        return proxyRequests.get();
+    }
+
+    /**
+     * Requires basic authentication with a username and password for all requests.
+     */
+    void credentials(String username, String password) {
+        this.authorization = "Basic " + Base64.getEncoder().encodeToString((username + ':' + password).getBytes(UTF_8));
+    }
+
+    /**
+     * If false, range requests are answered with the whole file.
+     */
+    void rangeSupport(boolean rangeSupport) {
+        this.rangeSupport = rangeSupport;
+    }
+
+    /**
+     * If true, range requests fail after sending part of the range.
+     */
+    void failRanges(boolean failRanges) {
+        this.failRanges = failRanges;
+    }
+
+    /**
+     * Waits before answering each request.
+     */
+    void delay(Duration delay) {
+        this.delayMillis = delay.toMillis();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private Path artifactDirectory(String groupId, String artifactId) {
+        return root.resolve(groupId.replace('.', '/')).resolve(artifactId);
+    }
+
+    private void addVersion(String groupId, String artifactId, String version) throws IOException {
+        Path metadataFile = artifactDirectory(groupId, artifactId).resolve("maven-metadata.xml");
+        List<String> versions = new ArrayList<>();
+        if (Files.isRegularFile(metadataFile)) {
+            Matcher matcher = Pattern.compile("<version>([^<]+)</version>").matcher(Files.readString(metadataFile, UTF_8));
+            while (matcher.find()) {
+                versions.add(matcher.group(1));
+            }
+        }
+        if (!versions.contains(version)) {
+            versions.add(version);
+        }
+
+        StringBuilder metadata = new StringBuilder("<metadata>\n")
+                .append(format("  <groupId>%s</groupId>\n  <artifactId>%s</artifactId>\n", groupId, artifactId))
+                .append("  <versioning>\n    <versions>\n");
+        for (String v : versions) {
+            metadata.append(format("      <version>%s</version>\n", v));
+        }
+        metadata.append("    </versions>\n  </versioning>\n</metadata>\n");
+        writeWithChecksum(metadataFile, metadata.toString().getBytes(UTF_8));
+    }
+
+    private static void writeWithChecksum(Path file, byte[] content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        Files.writeString(file.resolveSibling(file.getFileName() + ".sha1"), sha1(content), UTF_8);
+    }
+
+    static String sha1(byte[] content) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(content)) {
+                hex.append(format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath().substring(1);
+            requests.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+            if (exchange.getRequestURI().isAbsolute()) {
+                proxyRequests.incrementAndGet();
+            }
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+
+            if (authorization != null && !authorization.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                exchange.getResponseHeaders().add("WWW-Authenticate", "Basic realm=\"test\"");
+                exchange.sendResponseHeaders(401, -1);
+                return;
+            }
+
+            Path file = root.resolve(path).normalize();
+            if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            byte[] content = Files.readAllBytes(file);
+            boolean head = "HEAD".equals(exchange.getRequestMethod());
+            if (rangeSupport) {
+                exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+            }
+            exchange.getResponseHeaders().add("ETag", '"' + sha1(content) + '"');
+
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            Matcher matcher = range == null ? null : RANGE.matcher(range);
+            if (!head && rangeSupport && matcher != null && matcher.matches()) {
+                rangeRequests.incrementAndGet();
+                int from = Integer.parseInt(matcher.group(1));
+                int to = Math.min(content.length - 1, Integer.parseInt(matcher.group(2)));
+                int length = to - from + 1;
+                exchange.getResponseHeaders().add("Content-Range", format("bytes %d-%d/%d", from, to, content.length));
+                exchange.sendResponseHeaders(206, length);
+                try (OutputStream output = exchange.getResponseBody()) {
+                    // a broken connection after half of the range
+                    output.write(content, from, failRanges ? length / 2 : length);
+                }
+                return;
+            }
+
+            if (head) {
+                exchange.getResponseHeaders().add("Content-Length", Integer.toString(content.length));
+                exchange.sendResponseHeaders(200, -1);
+            } else {
+                fullDownloads.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+                exchange.sendResponseHeaders(200, content.length);
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(content);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public final class TestExtractionCache {
+
+    private static final String LONG_NAME = "a/very/long/path/" + "x".repeat(120) + "/file.txt";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testTar() throws Exception {
+        Path archive = write("test.tar", tar());
+
+        Path extracted = newCache(Long.MAX_VALUE).extract(archive.toFile(), "tar");
+
+        assertTarContents(extracted);
+    }
+
+    @Test
+    void testTarGz() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream output = new GZIPOutputStream(compressed)) {
+            output.write(tar());
+        }
+        Path archive = write("test.tar.gz", compressed.toByteArray());
+
+        Path extracted = newCache(Long.MAX_VALUE).extract(archive.toFile(), "tar.gz");
+
+        assertTarContents(extracted);
+    }
+
+    @Test
+    void testZip() throws Exception {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        try (ZipOutputStream output = new ZipOutputStream(data)) {
+            output.putNextEntry(new ZipEntry("bin/"));
+            output.putNextEntry(new ZipEntry("bin/run.sh"));
+            output.write("#!/bin/sh\n".getBytes(UTF_8));
+            output.putNextEntry(new ZipEntry("lib/data.txt"));
+            output.write("data".getBytes(UTF_8));
+        }
+        byte[] zip = data.toByteArray();
+        setUnixMode(zip, "bin/run.sh", 0100755);
+        setUnixMode(zip, "lib/data.txt", 0100644);
+        Path archive = write("test.zip", zip);
+
+        Path extracted = newCache(Long.MAX_VALUE).extract(archive.toFile(), "zip");
+
+        assertThat(Files.readString(extracted.resolve("bin/run.sh"), UTF_8)).isEqualTo("#!/bin/sh\n");
+        assertThat(Files.readString(extracted.resolve("lib/data.txt"), UTF_8)).isEqualTo("data");
+        if (isPosix()) {
+            assertThat(Files.getPosixFilePermissions(extracted.resolve("bin/run.sh"))).contains(PosixFilePermission.OWNER_EXECUTE);
+            assertThat(Files.getPosixFilePermissions(extracted.resolve("lib/data.txt"))).doesNotContain(PosixFilePermission.OWNER_EXECUTE);
+        }
+    }
+
+    @Test
+    void testTarPathTraversal() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        tarEntry(tar, "../evil.txt", '0', 0644, "", "evil".getBytes(UTF_8));
+        Path archive = write("evil.tar", endTar(tar));
+
+        assertThatThrownBy(() -> newCache(Long.MAX_VALUE).extract(archive.toFile(), "tar"))
+                .isInstanceOf(IOException.class);
+        assertThat(directory.resolve("cache").resolve("evil.txt")).doesNotExist();
+        assertThat(directory.resolve("evil.txt")).doesNotExist();
+    }
+
+    @Test
+    void testTarSymlinkOutsideOfDirectory() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        tarEntry(tar, "link", '2', 0777, "../../outside", new byte[0]);
+        Path archive = write("evil.tar", endTar(tar));
+
+        assertThatThrownBy(() -> newCache(Long.MAX_VALUE).extract(archive.toFile(), "tar"))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void testTarChainedSymlinkOutsideOfDirectory() throws Exception {
+        // "a/b" and "c" stay inside of the directory as text, but "c" points at the cache directory through "a/b"
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        tarEntry(tar, "a/b", '2', 0777, "..", new byte[0]);
+        tarEntry(tar, "c", '2', 0777, "a/b/..", new byte[0]);
+        tarEntry(tar, "c/evil.txt", '0', 0644, "", "evil".getBytes(UTF_8));
+        Path archive = write("evil.tar", endTar(tar));
+
+        assertThatThrownBy(() -> newCache(Long.MAX_VALUE).extract(archive.toFile(), "tar"))
+                .isInstanceOf(IOException.class);
+        assertThat(directory.resolve("cache").resolve("evil.txt")).doesNotExist();
+
+        tar = new ByteArrayOutputStream();
+        tarEntry(tar, "a/b", '2', 0777, "..", new byte[0]);
+        tarEntry(tar, "c", '2', 0777, "a/b/..", new byte[0]);
+        Path linksOnly = write("links.tar", endTar(tar));
+
+        assertThatThrownBy(() -> newCache(Long.MAX_VALUE).extract(linksOnly.toFile(), "tar"))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void testTarSymlinkThroughSymlinkInsideOfDirectory() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        tarEntry(tar, "lib/v1/data.txt", '0', 0644, "", "data".getBytes(UTF_8));
+        tarEntry(tar, "lib/current", '2', 0777, "v1", new byte[0]);
+        tarEntry(tar, "bin/data.txt", '2', 0777, "../lib/current/data.txt", new byte[0]);
+        Path archive = write("links.tar", endTar(tar));
+
+        Path extracted = newCache(Long.MAX_VALUE).extract(archive.toFile(), "tar");
+
+        assertThat(Files.readString(extracted.resolve("bin/data.txt"), UTF_8)).isEqualTo("data");
+    }
+
+    @Test
+    void testZipPathTraversal() throws Exception {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        try (ZipOutputStream output = new ZipOutputStream(data)) {
+            output.putNextEntry(new ZipEntry("../evil.txt"));
+            output.write("evil".getBytes(UTF_8));
+        }
+        Path archive = write("evil.zip", data.toByteArray());
+
+        assertThatThrownBy(() -> newCache(Long.MAX_VALUE).extract(archive.toFile(), "zip"))
+                .isInstanceOf(IOException.class);
+        assertThat(directory.resolve("cache").resolve("evil.txt")).doesNotExist();
+        assertThat(directory.resolve("evil.txt")).doesNotExist();
+    }
+
+    @Test
+    void testUnsupportedExtension() throws Exception {
+        Path archive = write("test.rar", new byte[] {1, 2, 3});
+
+        assertThatThrownBy(() -> newCache(Long.MAX_VALUE).extract(archive.toFile(), "rar"))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void testReuse() throws Exception {
+        Path archive = write("test.tar", tar());
+
+        Path first = newCache(Long.MAX_VALUE).extract(archive.toFile(), "tar");
+        Files.writeString(first.resolve("marker.txt"), "extracted once", UTF_8);
+        Path second = newCache(Long.MAX_VALUE).extract(archive.toFile(), "tar");
+
+        assertThat(second).isEqualTo(first);
+        assertThat(second.resolve("marker.txt")).exists();
+    }
+
+    @Test
+    void testCleanupRemovesUnusedDirectories() throws Exception {
+        // left behind by a process that has exited
+        Path cacheDirectory = directory.resolve("cache");
+        String staleChecksum = "0".repeat(40);
+        Files.createDirectories(cacheDirectory.resolve(staleChecksum));
+        Files.writeString(cacheDirectory.resolve(staleChecksum).resolve("stale.txt"), "stale", UTF_8);
+        Path staleMarker = cacheDirectory.resolve(staleChecksum + ".complete");
+        Files.writeString(staleMarker, "100000", UTF_8);
+        Files.setLastModifiedTime(staleMarker, FileTime.fromMillis(0));
+
+        Path extracted = newCache(1000).extract(write("test.tar", tar()).toFile(), "tar");
+
+        assertThat(cacheDirectory.resolve(staleChecksum)).doesNotExist();
+        assertThat(staleMarker).doesNotExist();
+        assertTarContents(extracted);
+    }
+
+    @Test
+    void testCleanupKeepsDirectoriesInUse() throws Exception {
+        ExtractionCache cache = newCache(1);
+        Path first = cache.extract(write("first.tar", tar()).toFile(), "tar");
+
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        tarEntry(tar, "other.txt", '0', 0644, "", "other".getBytes(UTF_8));
+        Path second = newCache(1).extract(write("second.tar", endTar(tar)).toFile(), "tar");
+
+        // both directories exceed the maximum size but are used by this process
+        assertTarContents(first);
+        assertThat(Files.readString(second.resolve("other.txt"), UTF_8)).isEqualTo("other");
+    }
+
+    @Test
+    void testConcurrentExtractionInSameProcess() throws Exception {
+        // two loaders with the same cache directory extract the same archive
+        List<ExtractionCache> caches = List.of(newCache(Long.MAX_VALUE), newCache(Long.MAX_VALUE));
+        List<File> archives = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ByteArrayOutputStream tar = new ByteArrayOutputStream();
+            tarEntry(tar, "file.txt", '0', 0644, "", ("content " + i).getBytes(UTF_8));
+            archives.add(write(format("archive-%d.tar", i), endTar(tar)).toFile());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Path>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                ExtractionCache cache = caches.get(i % 2);
+                File archive = archives.get(i % archives.size());
+                futures.add(AsyncSupport.supplyAsync(() -> cache.extract(archive, "tar"), executor));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Path extracted = futures.get(i).join();
+                assertThat(Files.readString(extracted.resolve("file.txt"), UTF_8)).isEqualTo("content " + i % archives.size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ExtractionCache newCache(long maximumSize) {
+        return new ExtractionCache(directory.resolve("cache").toFile(), maximumSize, Runnable::run);
+    }
+
+    private Path write(String name, byte[] content) throws IOException {
+        Path file = directory.resolve("archives").resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        return file;
+    }
+
+    private static void assertTarContents(Path extracted) throws IOException {
+        assertThat(Files.readString(extracted.resolve("lib/data.txt"), UTF_8)).isEqualTo("data");
+        assertThat(Files.readString(extracted.resolve("bin/run.sh"), UTF_8)).isEqualTo("#!/bin/sh\n");
+        assertThat(Files.readString(extracted.resolve(LONG_NAME), UTF_8)).isEqualTo("long");
+        assertThat(Files.isSymbolicLink(extracted.resolve("lib/link.txt"))).isTrue();
+        assertThat(Files.readString(extracted.resolve("lib/link.txt"), UTF_8)).isEqualTo("data");
+        if (isPosix()) {
+            assertThat(Files.getPosixFilePermissions(extracted.resolve("bin/run.sh"))).contains(PosixFilePermission.OWNER_EXECUTE);
+            assertThat(Files.getPosixFilePermissions(extracted.resolve("lib/data.txt"))).doesNotContain(PosixFilePermission.OWNER_EXECUTE);
+        }
+    }
+
+    private static boolean isPosix() {
+        return Path.of("").getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+
+    private static byte[] tar() {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        tarEntry(tar, "bin/", '5', 0755, "", new byte[0]);
+        tarEntry(tar, "bin/run.sh", '0', 0755, "", "#!/bin/sh\n".getBytes(UTF_8));
+        tarEntry(tar, "lib/data.txt", '0', 0644, "", "data".getBytes(UTF_8));
+        tarEntry(tar, "lib/link.txt", '2', 0777, "data.txt", new byte[0]);
+        // names longer than 100 characters are stored in a GNU long name entry
+        byte[] longName = (LONG_NAME + '\0').getBytes(UTF_8);
+        tarEntry(tar, "././@LongLink", 'L', 0644, "", longName);
+        tarEntry(tar, LONG_NAME.substring(0, 100), '0', 0644, "", "long".getBytes(UTF_8));
+        return endTar(tar);
+    }
+
+    private static void tarEntry(ByteArrayOutputStream tar, String name, char type, int mode, String linkName, byte[] content) {
+        byte[] header = new byte[512];
+        put(header, 0, name);
+        put(header, 100, format("%07o", mode));
+        put(header, 108, "0000000");
+        put(header, 116, "0000000");
+        put(header, 124, format("%011o", content.length));
+        put(header, 136, format("%011o", 0));
+        put(header, 148, "        ");
+        header[156] = (byte) type;
+        put(header, 157, linkName);
+        put(header, 257, "ustar");
+        put(header, 263, "00");
+
+        int checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xff;
+        }
+        put(header, 148, format("%06o", checksum));
+        header[154] = 0;
+
+        tar.writeBytes(header);
+        tar.writeBytes(content);
+        tar.writeBytes(new byte[(512 - content.length % 512) % 512]);
+    }
+
+    private static byte[] endTar(ByteArrayOutputStream tar) {
+        tar.writeBytes(new byte[1024]);
+        return tar.toByteArray();
+    }
+
+    private static void put(byte[] header, int offset, String value) {
+        byte[] bytes = value.getBytes(UTF_8);
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+    }
+
+    // ZipOutputStream can not store unix file modes, they are set in the central directory
+    private static void setUnixMode(byte[] zip, String name, int mode) {
+        ByteBuffer buffer = ByteBuffer.wrap(zip).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] nameBytes = name.getBytes(UTF_8);
+        for (int i = 0; i + 46 <= zip.length; i++) {
+            if (buffer.getInt(i) == 0x02014b50 && (buffer.getShort(i + 28) & 0xffff) == nameBytes.length
+                    && Arrays.equals(Arrays.copyOfRange(zip, i + 46, i + 46 + nameBytes.length), nameBytes)) {
+                // made by a unix host
+                zip[i + 5] = 3;
+                buffer.putInt(i + 38, mode << 16);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("no central directory entry for " + name);
+    }
+}
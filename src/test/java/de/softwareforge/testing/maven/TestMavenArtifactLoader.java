@@ -15,16 +15,36 @@
 package de.softwareforge.testing.maven;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
-
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.settings.Settings;
 import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public final class TestMavenArtifactLoader {
 
@@ -162,4 +182,612 @@ public final class TestMavenArtifactLoader {
 
         assertThat(artifactFile).exists();
     }
+
+    @Test
+    void testLoadArtifacts() {
+        MavenArtifactCoordinates existing = MavenArtifactCoordinates.of(GROUP_ID, ARTIFACT_ID, "2.1.1");
+        MavenArtifactCoordinates missing = MavenArtifactCoordinates.of(GROUP_ID, ARTIFACT_ID, "0.0.0-does-not-exist");
+
+        MavenBatchResult result = loader.getArtifactFiles(List.of(existing, missing));
+
+        assertThat(result.artifactFiles()).containsOnlyKeys(existing);
+        assertThat(result.artifactFiles().get(existing)).exists();
+        assertThat(result.failures()).containsOnlyKeys(missing);
+        assertThat(result.hasFailures()).isTrue();
+    }
+
+    @Test
+    void testLoadArtifactAsync() throws Exception {
+        CompletableFuture<File> artifactFile = loader.builder(GROUP_ID, ARTIFACT_ID)
+                .includeSnapshots(false)
+                .partialMatch("2.1")
+                .findBestMatchAsync()
+                .thenCompose(version -> loader.getArtifactFileAsync(GROUP_ID, ARTIFACT_ID, version.orElseThrow()));
+
+        assertThat(artifactFile.get()).exists();
+    }
+
+    @Test
+    void testLoadArtifactOffline() throws IOException {
+        File artifactFile = loader.getArtifactFile(GROUP_ID, ARTIFACT_ID, "2.1.1");
+
+        MavenArtifactLoader offlineLoader = MavenArtifactLoader.newBuilder()
+                .remoteRepositories(List.of(MavenArtifactLoader.CENTRAL_REPO))
+                .resolutionMode(ResolutionMode.OFFLINE)
+                .build();
+
+        assertThat(offlineLoader.getArtifactFile(GROUP_ID, ARTIFACT_ID, "2.1.1")).isEqualTo(artifactFile);
+        assertThat(offlineLoader.builder(GROUP_ID, ARTIFACT_ID).exactMatch("2.1.1").findBestMatch()).contains("2.1.1");
+    }
+
+    @Test
+    void testResolveClasspath() throws IOException {
+        List<File> classpath = loader.dependencies("org.slf4j", "slf4j-simple", "1.7.36")
+                .resolveClasspath();
+
+        assertThat(classpath).hasSize(2);
+        assertThat(classpath.get(0)).exists().hasName("slf4j-simple-1.7.36.jar");
+        assertThat(classpath.get(1)).exists().hasName("slf4j-api-1.7.36.jar");
+
+        List<File> excludedClasspath = loader.dependencies("org.slf4j", "slf4j-simple", "1.7.36")
+                .exclude("org.slf4j", "slf4j-api")
+                .resolveClasspath();
+
+        assertThat(excludedClasspath).hasSize(1);
+    }
+
+    @Test
+    void testMetrics() throws IOException {
+        loader.builder(GROUP_ID, ARTIFACT_ID).findAll();
+        loader.builder(GROUP_ID, ARTIFACT_ID).findAll();
+        loader.getArtifactFile(GROUP_ID, ARTIFACT_ID, "2.1.1");
+
+        LoaderMetrics metrics = loader.metrics();
+
+        assertThat(metrics.counter(MetricsSink.VERSION_CACHE_MISS)).isEqualTo(1);
+        assertThat(metrics.counter(MetricsSink.VERSION_CACHE_HIT)).isEqualTo(1);
+        assertThat(metrics.counter(MetricsSink.LOCAL_HIT) + metrics.counter(MetricsSink.LOCAL_MISS)).isEqualTo(1);
+        assertThat(metrics.latency(MetricsSink.METADATA_LOOKUP, MavenArtifactLoader.CENTRAL_REPO.getId()).count()).isGreaterThan(0);
+    }
+
+    @Test
+    void testOpenSnapshotArtifactStream(@TempDir Path directory) throws IOException {
+        byte[] content = randomBytes(256 * 1024);
+        try (RepositoryServer server = new RepositoryServer(directory.resolve("remote"))) {
+            server.deploySnapshot("g", "a", "1.0-SNAPSHOT", "20240101.120000", 1, "jar", content);
+
+            MavenArtifactLoader localLoader = MavenArtifactLoader.newBuilder()
+                    .remoteRepositories(List.of(server.repository("test")))
+                    .localRepository(directory.resolve("local").toFile())
+                    .build();
+
+            // the snapshot metadata is downloaded for the same request, it must not show up in the stream
+            try (InputStream stream = localLoader.openArtifactStream("g", "a", "1.0-SNAPSHOT")) {
+                assertThat(stream.readAllBytes()).isEqualTo(content);
+            }
+            assertThat(server.requests("g/a/1.0-SNAPSHOT/a-1.0-20240101.120000-1.jar")).isEqualTo(1);
+
+            server.deploy("g", "a", "1.0", "jar", content);
+            try (InputStream stream = localLoader.openArtifactStream("g", "a", "1.0")) {
+                assertThat(stream.readAllBytes()).isEqualTo(content);
+            }
+        }
+    }
+
+    @Test
+    void testFindTopAndBestMatchAgreeWithFindAll(@TempDir Path directory) throws IOException {
+        try (RepositoryServer server = new RepositoryServer(directory.resolve("remote"))) {
+            for (String version : List.of("1.0", "1.1.0", "1.1.1", "1.2-beta-1", "1.2.0", "1.10.0", "2.0-SNAPSHOT")) {
+                server.deploy("g", "a", version, "jar", new byte[] {1});
+            }
+
+            MavenArtifactLoader localLoader = MavenArtifactLoader.newBuilder()
+                    .remoteRepositories(List.of(server.repository("test")))
+                    .localRepository(directory.resolve("local").toFile())
+                    .build();
+
+            List<VersionQuery> queries = List.of(
+                    VersionQuery.all(),
+                    VersionQuery.partial("1.1"),
+                    VersionQuery.semVerMajor(1),
+                    VersionQuery.range("[1.1,2.0)").and(VersionQuery.not(VersionQuery.preRelease())),
+                    VersionQuery.all().newestPatchPerMinor(),
+                    VersionQuery.all().latest(2),
+                    VersionQuery.exact("3.0"));
+
+            for (VersionQuery query : queries) {
+                for (boolean includeSnapshots : List.of(true, false)) {
+                    LinkedList<String> all = localLoader.builder("g", "a").query(query).includeSnapshots(includeSnapshots).findAll();
+                    List<String> newestFirst = new LinkedList<>(all);
+                    Collections.reverse(newestFirst);
+
+                    Optional<String> bestMatch = localLoader.builder("g", "a").query(query).includeSnapshots(includeSnapshots).findBestMatch();
+                    assertThat(bestMatch).isEqualTo(all.isEmpty() ? Optional.empty() : Optional.of(all.getLast()));
+
+                    for (int count = 1; count <= 3; count++) {
+                        List<String> top = localLoader.builder("g", "a").query(query).includeSnapshots(includeSnapshots).findTop(count);
+                        assertThat(top).isEqualTo(newestFirst.subList(0, Math.min(count, newestFirst.size())));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testParallelVersionLookupTimeout(@TempDir Path directory) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (RepositoryServer fast = new RepositoryServer(directory.resolve("fast"));
+                RepositoryServer slow = new RepositoryServer(directory.resolve("slow"))) {
+            fast.deploy("g", "a", "1.0", "jar", new byte[] {1});
+            slow.deploy("g", "a", "2.0", "jar", new byte[] {2});
+            slow.delay(Duration.ofSeconds(5));
+
+            MavenArtifactLoader localLoader = MavenArtifactLoader.newBuilder()
+                    .remoteRepositories(List.of(fast.repository("fast"), slow.repository("slow")))
+                    .localRepository(directory.resolve("local").toFile())
+                    .parallelVersionLookup(Duration.ofMillis(500))
+                    .executor(executor)
+                    .build();
+
+            // the lookups of the repositories do not need a thread of the single thread executor that runs the lookup
+            assertThat(localLoader.builder("g", "a").findAllAsync().get(4, TimeUnit.SECONDS)).containsExactly("1.0");
+            assertThat(localLoader.metrics().counter(MetricsSink.VERSION_LOOKUP_TIMEOUT, "slow")).isEqualTo(1);
+
+            // the incomplete version list is not cached
+            slow.delay(Duration.ZERO);
+            assertThat(localLoader.builder("g", "a").findAll()).containsExactly("1.0", "2.0");
+            assertThat(localLoader.builder("g", "a").findAll()).containsExactly("1.0", "2.0");
+            assertThat(localLoader.metrics().counter(MetricsSink.VERSION_CACHE_HIT)).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testNegativeCacheForArtifacts(@TempDir Path directory) throws Exception {
+        try (RepositoryServer first = new RepositoryServer(directory.resolve("first"));
+                RepositoryServer second = new RepositoryServer(directory.resolve("second"))) {
+            MavenArtifactLoader localLoader = MavenArtifactLoader.newBuilder()
+                    .remoteRepositories(List.of(alwaysUpdate(first.repository("first")), alwaysUpdate(second.repository("second"))))
+                    .localRepository(directory.resolve("local").toFile())
+                    .negativeCacheTtl(Duration.ofMillis(500))
+                    .build();
+            String path = "g/missing/1.0/missing-1.0.jar";
+
+            for (int i = 0; i < 3; i++) {
+                assertThatThrownBy(() -> localLoader.getArtifactFile("g", "missing", "1.0")).isInstanceOf(IOException.class);
+            }
+            // the misses are cached, only the first lookup asks the repositories
+            assertThat(first.requests(path)).isEqualTo(1);
+            assertThat(second.requests(path)).isEqualTo(1);
+            assertThat(localLoader.metrics().counter(MetricsSink.NEGATIVE_CACHE_HIT, "first")).isEqualTo(2);
+            assertThat(localLoader.metrics().counter(MetricsSink.NEGATIVE_CACHE_HIT, "second")).isEqualTo(2);
+
+            // after the entries expired, the repositories are asked again
+            second.deploy("g", "missing", "1.0", "jar", new byte[] {1});
+            Thread.sleep(600);
+            assertThat(localLoader.getArtifactFile("g", "missing", "1.0")).exists();
+            assertThat(first.requests(path)).isEqualTo(2);
+            assertThat(second.requests(path)).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void testNegativeCacheIsKeyedPerRepository(@TempDir Path directory) throws Exception {
+        try (RepositoryServer first = new RepositoryServer(directory.resolve("first"));
+                RepositoryServer second = new RepositoryServer(directory.resolve("second"))) {
+            second.deploy("g", "a", "1.0", "jar", new byte[] {1});
+
+            MavenArtifactLoader localLoader = MavenArtifactLoader.newBuilder()
+                    .remoteRepositories(List.of(alwaysUpdate(first.repository("first")), alwaysUpdate(second.repository("second"))))
+                    .localRepository(directory.resolve("local").toFile())
+                    .build();
+            String path = "g/a/1.0/a-1.0.jar";
+
+            for (int i = 0; i < 3; i++) {
+                // download the artifact again
+                Files.delete(localLoader.getArtifactFile("g", "a", "1.0").toPath());
+            }
+            // the repository that misses the artifact is skipped, the other one is still asked
+            assertThat(first.requests(path)).isEqualTo(1);
+            assertThat(second.requests(path)).isEqualTo(3);
+            assertThat(localLoader.metrics().counter(MetricsSink.NEGATIVE_CACHE_HIT, "first")).isEqualTo(2);
+            assertThat(localLoader.metrics().counter(MetricsSink.NEGATIVE_CACHE_HIT, "second")).isEqualTo(0);
+        }
+    }
+
+    @Test
+    void testBaseRepository(@TempDir Path directory) throws Exception {
+        File base = directory.resolve("base").toFile();
+        File overlay = directory.resolve("overlay").toFile();
+        try (RepositoryServer server = new RepositoryServer(directory.resolve("remote"))) {
+            server.deploy("g", "a", "1.0", "jar", new byte[] {1});
+            server.deploy("g", "b", "1.0", "jar", new byte[] {2});
+
+            // populate the base repository
+            MavenArtifactLoader baseLoader = MavenArtifactLoader.newBuilder()
+                    .remoteRepositories(List.of(server.repository("central")))
+                    .localRepository(base)
+                    .build();
+            baseLoader.getArtifactFile("g", "a", "1.0");
+            List<Path> baseFiles = listFiles(base.toPath());
+
+            // the remote repository has a different id than the one that populated the base repository
+            MavenArtifactLoader localLoader = MavenArtifactLoader.newBuilder()
+                    .remoteRepositories(List.of(server.repository("other")))
+                    .localRepository(overlay)
+                    .baseRepository(base)
+                    .build();
+
+            File baseArtifact = localLoader.getArtifactFile("g", "a", "1.0");
+            assertThat(baseArtifact.toPath()).startsWith(base.toPath());
+            assertThat(server.requests("g/a/1.0/a-1.0.jar")).isEqualTo(1);
+
+            File newArtifact = localLoader.getArtifactFile("g", "b", "1.0");
+            assertThat(newArtifact.toPath()).startsWith(overlay.toPath());
+            assertThat(server.requests("g/b/1.0/b-1.0.jar")).isEqualTo(1);
+
+            // the base repository is never written
+            assertThat(listFiles(base.toPath())).isEqualTo(baseFiles);
+
+            MavenArtifactLoader localFirstLoader = MavenArtifactLoader.newBuilder()
+                    .remoteRepositories(List.of(server.repository("other")))
+                    .localRepository(directory.resolve("empty").toFile())
+                    .baseRepository(base)
+                    .resolutionMode(ResolutionMode.LOCAL_FIRST)
+                    .build();
+            assertThat(localFirstLoader.getArtifactFile("g", "a", "1.0")).isEqualTo(baseArtifact);
+            assertThat(server.requests("g/a/1.0/a-1.0.jar")).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testLoadBestMatchWithVariants(@TempDir Path directory) throws Exception {
+        try (RepositoryServer server = new RepositoryServer(directory.resolve("remote"))) {
+            server.deploy("g", "a", "1.0", "jar", new byte[] {1});
+            server.deploy("g", "a", "1.1", "jar", new byte[] {2});
+            server.deploy("g", "a", "1.1", "sources", "jar", new byte[] {3});
+            server.deploy("g", "a", "1.1", "linux", "zip", new byte[] {4});
+
+            MavenArtifactLoader localLoader = MavenArtifactLoader.newBuilder()
+                    .remoteRepositories(List.of(alwaysUpdate(server.repository("test"))))
+                    .localRepository(directory.resolve("local").toFile())
+                    .build();
+
+            MavenBatchResult result = localLoader.builder("g", "a")
+                    .variant("sources", "jar")
+                    .variant("linux", "zip")
+                    .loadBestMatch()
+                    .orElseThrow();
+
+            // the version is looked up once for the artifact and all its variants
+            assertThat(server.requests("g/a/maven-metadata.xml")).isEqualTo(1);
+            assertThat(result.hasFailures()).isFalse();
+            MavenArtifactCoordinates coordinates = MavenArtifactCoordinates.of("g", "a", "1.1").withExtension("jar");
+            assertThat(result.artifactFiles()).containsOnlyKeys(coordinates, coordinates.withClassifier("sources"),
+                    coordinates.withClassifier("linux").withExtension("zip"));
+            assertThat(result.artifactFiles().get(coordinates)).hasBinaryContent(new byte[] {2});
+            assertThat(result.artifactFiles().get(coordinates.withClassifier("sources"))).hasBinaryContent(new byte[] {3});
+            assertThat(result.artifactFiles().get(coordinates.withClassifier("linux").withExtension("zip"))).hasBinaryContent(new byte[] {4});
+
+            // the classifier selects the loaded artifact, the versions are still those of the main artifact
+            MavenBatchResult sources = localLoader.builder("g", "a").classifier("sources").loadBestMatch().orElseThrow();
+            assertThat(sources.artifactFiles()).containsOnlyKeys(coordinates.withClassifier("sources"));
+
+            MavenBatchResult missing = localLoader.builder("g", "a").query(VersionQuery.exact("1.0")).variant("sources", "jar")
+                    .loadBestMatch()
+                    .orElseThrow();
+            // a missing variant is a failure of the result, the other files are still loaded
+            assertThat(missing.artifactFiles()).containsOnlyKeys(MavenArtifactCoordinates.of("g", "a", "1.0").withExtension("jar"));
+            assertThat(missing.failures()).containsOnlyKeys(MavenArtifactCoordinates.of("g", "a", "1.0").withClassifier("sources").withExtension("jar"));
+
+            assertThat(localLoader.builder("g", "a").query(VersionQuery.exact("2.0")).variant("sources", "jar").loadBestMatch()).isEmpty();
+        }
+    }
+
+    @Test
+    void testGetArtifactFileWithClassifier(@TempDir Path directory) throws Exception {
+        try (RepositoryServer server = new RepositoryServer(directory.resolve("remote"))) {
+            server.deploy("g", "a", "1.0", "jar", new byte[] {1});
+            server.deploy("g", "a", "1.0", "sources", "jar", new byte[] {2});
+
+            MavenArtifactLoader localLoader = MavenArtifactLoader.newBuilder()
+                    .remoteRepositories(List.of(server.repository("test")))
+                    .localRepository(directory.resolve("local").toFile())
+                    .build();
+
+            assertThat(localLoader.getArtifactFile("g", "a", "1.0", "sources")).hasBinaryContent(new byte[] {2});
+            assertThat(localLoader.getArtifactFile("g", "a", "1.0", "sources").getName()).isEqualTo("a-1.0-sources.jar");
+            // an empty classifier selects the main artifact
+            assertThat(localLoader.getArtifactFile("g", "a", "1.0", "")).hasBinaryContent(new byte[] {1});
+            assertThat(localLoader.getArtifactFile("g", "a", "1.0", "")).isEqualTo(localLoader.getArtifactFile("g", "a", "1.0"));
+            assertThat(server.requests("g/a/1.0/a-1.0-sources.jar")).isEqualTo(1);
+
+            assertThatThrownBy(() -> localLoader.getArtifactFile("g", "a", "1.0", "javadoc")).isInstanceOf(IOException.class);
+            assertThatThrownBy(() -> localLoader.getArtifactFile("g", "a", "1.0", null)).isInstanceOf(NullPointerException.class);
+        }
+    }
+
+    @Test
+    void testConcurrentLookupsShareOneRequest(@TempDir Path directory) throws Exception {
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try (RepositoryServer server = new RepositoryServer(directory.resolve("remote"))) {
+            server.deploy("g", "a", "1.0", "jar", new byte[] {1});
+            server.deploy("g", "a", "1.1", "jar", new byte[] {2});
+            // the requests are slow, so that all callers arrive while the first lookup is in progress
+            server.delay(Duration.ofMillis(300));
+
+            MavenArtifactLoader localLoader = MavenArtifactLoader.newBuilder()
+                    .remoteRepositories(List.of(alwaysUpdate(server.repository("test"))))
+                    .localRepository(directory.resolve("local").toFile())
+                    .build();
+
+            CountDownLatch start = new CountDownLatch(1);
+            List<CompletableFuture<Optional<String>>> bestMatches = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                bestMatches.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                        return localLoader.builder("g", "a").findBestMatch();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(e);
+                    }
+                }, executor));
+            }
+            start.countDown();
+            for (CompletableFuture<Optional<String>> bestMatch : bestMatches) {
+                assertThat(bestMatch.get(10, TimeUnit.SECONDS)).isEqualTo(Optional.of("1.1"));
+            }
+            assertThat(server.requests("g/a/maven-metadata.xml")).isEqualTo(1);
+
+            CountDownLatch downloadStart = new CountDownLatch(1);
+            List<CompletableFuture<File>> files = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                files.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        downloadStart.await();
+                        return getArtifactFile(localLoader);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(e);
+                    }
+                }, executor));
+            }
+            downloadStart.countDown();
+            for (CompletableFuture<File> file : files) {
+                assertThat(file.get(10, TimeUnit.SECONDS)).hasBinaryContent(new byte[] {1});
+            }
+            assertThat(server.requests("g/a/1.0/a-1.0.jar")).isEqualTo(1);
+            // the callers shared a single resolution instead of finding the artifact locally after the first one
+            LoaderMetrics metrics = localLoader.metrics();
+            assertThat(metrics.counter(MetricsSink.LOCAL_MISS) + metrics.counter(MetricsSink.LOCAL_HIT)).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCrossProcessLocking(@TempDir Path directory) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (RepositoryServer server = new RepositoryServer(directory.resolve("remote"))) {
+            byte[] content = randomBytes(1024);
+            server.deploy("g", "a", "1.0", "jar", content);
+            server.delay(Duration.ofMillis(500));
+
+            // two loaders with their own sessions share the local repository like two processes would
+            MavenArtifactLoader first = newLockingLoader(server, directory, Duration.ofSeconds(30));
+            MavenArtifactLoader second = newLockingLoader(server, directory, Duration.ofSeconds(30));
+
+            CompletableFuture<File> firstFile = CompletableFuture.supplyAsync(() -> getArtifactFile(first), executor);
+            Thread.sleep(100);
+            CompletableFuture<File> secondFile = CompletableFuture.supplyAsync(() -> getArtifactFile(second), executor);
+
+            assertThat(firstFile.get(10, TimeUnit.SECONDS)).hasBinaryContent(content);
+            assertThat(secondFile.get(10, TimeUnit.SECONDS)).isEqualTo(firstFile.get());
+            // the second loader waited for the lock and then used the stored artifact
+            assertThat(server.requests("g/a/1.0/a-1.0.jar")).isEqualTo(1);
+            assertThat(first.metrics().latency(MetricsSink.LOCK_WAIT, MetricsSink.ALL_REPOSITORIES).count()).isGreaterThan(0);
+            assertThat(second.metrics().latency(MetricsSink.LOCK_WAIT, MetricsSink.ALL_REPOSITORIES).max().toMillis()).isGreaterThan(200);
+            assertThat(first.metrics().counter(MetricsSink.LOCK_TIMEOUT)).isEqualTo(0);
+            assertThat(second.metrics().counter(MetricsSink.LOCK_TIMEOUT)).isEqualTo(0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCrossProcessLockTimeout(@TempDir Path directory) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (RepositoryServer server = new RepositoryServer(directory.resolve("remote"))) {
+            server.deploy("g", "a", "1.0", "jar", new byte[] {1});
+            server.delay(Duration.ofSeconds(2));
+
+            MavenArtifactLoader first = newLockingLoader(server, directory, Duration.ofSeconds(30));
+            MavenArtifactLoader second = newLockingLoader(server, directory, Duration.ofMillis(200));
+
+            CompletableFuture<File> firstFile = CompletableFuture.supplyAsync(() -> getArtifactFile(first), executor);
+            Thread.sleep(300);
+            CompletableFuture<File> secondFile = CompletableFuture.supplyAsync(() -> getArtifactFile(second), executor);
+
+            // the second loader gives up while the first one still downloads the artifact
+            assertThatThrownBy(() -> secondFile.get(10, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+            assertThat(second.metrics().counter(MetricsSink.LOCK_TIMEOUT, MetricsSink.ALL_REPOSITORIES)).isEqualTo(1);
+            assertThat(firstFile.get(10, TimeUnit.SECONDS)).hasBinaryContent(new byte[] {1});
+            assertThat(first.metrics().counter(MetricsSink.LOCK_TIMEOUT)).isEqualTo(0);
+            assertThat(server.requests("g/a/1.0/a-1.0.jar")).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testPinSnapshotsPerClassifierAndExtension(@TempDir Path directory) throws Exception {
+        try (RepositoryServer server = new RepositoryServer(directory.resolve("remote"))) {
+            // each classifier and extension of the snapshot has its own build
+            server.deploySnapshot("g", "a", "1.0-SNAPSHOT", "20240101.120000", 1, "jar", new byte[] {1});
+            server.deploySnapshot("g", "a", "1.0-SNAPSHOT", "20240102.120000", 2, "sources", "jar", new byte[] {2});
+            server.deploySnapshot("g", "a", "1.0-SNAPSHOT", "20240103.120000", 3, "zip", new byte[] {3});
+            String metadata = "g/a/1.0-SNAPSHOT/maven-metadata.xml";
+
+            MavenArtifactLoader localLoader = newSnapshotLoader(server, directory).pinSnapshots(true).build();
+
+            assertThat(localLoader.getArtifactFile("g", "a", "1.0-SNAPSHOT")).hasBinaryContent(new byte[] {1});
+            assertThat(localLoader.getArtifactFile("g", "a", "1.0-SNAPSHOT", "sources")).hasBinaryContent(new byte[] {2});
+            MavenBatchResult result = localLoader.getArtifactFiles(List.of(MavenArtifactCoordinates.of("g", "a", "1.0-SNAPSHOT").withExtension("zip")));
+            assertThat(result.hasFailures()).isFalse();
+            assertThat(result.artifactFiles().values().iterator().next()).hasBinaryContent(new byte[] {3});
+            assertThat(server.requests(metadata)).isEqualTo(1);
+
+            // a newer build is not used, the pinned versions are neither checked nor resolved again
+            server.deploySnapshot("g", "a", "1.0-SNAPSHOT", "20240104.120000", 4, "jar", new byte[] {4});
+            assertThat(localLoader.pinSnapshotVersion("g", "a", "1.0-SNAPSHOT")).isEqualTo("1.0-20240101.120000-1");
+            assertThat(localLoader.getArtifactFile("g", "a", "1.0-SNAPSHOT")).hasBinaryContent(new byte[] {1});
+            assertThat(localLoader.getArtifactFile("g", "a", "1.0-SNAPSHOT", "sources")).hasBinaryContent(new byte[] {2});
+            assertThat(server.requests(metadata)).isEqualTo(1);
+            assertThat(server.requests("g/a/1.0-SNAPSHOT/a-1.0-20240101.120000-1.jar")).isEqualTo(1);
+
+            // releases are not pinned
+            assertThat(localLoader.pinSnapshotVersion("g", "a", "1.0")).isEqualTo("1.0");
+        }
+    }
+
+    @Test
+    void testPinSnapshotsConcurrently(@TempDir Path directory) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (RepositoryServer server = new RepositoryServer(directory.resolve("remote"))) {
+            server.deploySnapshot("g", "a", "1.0-SNAPSHOT", "20240101.120000", 1, "jar", new byte[] {1});
+            server.delay(Duration.ofMillis(100));
+
+            MavenArtifactLoader localLoader = newSnapshotLoader(server, directory).pinSnapshots(true).build();
+
+            // all callers that race for the first pin return the version that won
+            List<CompletableFuture<String>> versions = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                versions.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return localLoader.pinSnapshotVersion("g", "a", "1.0-SNAPSHOT");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor));
+            }
+            server.deploySnapshot("g", "a", "1.0-SNAPSHOT", "20240102.120000", 2, "jar", new byte[] {2});
+
+            String pinnedVersion = versions.get(0).get(10, TimeUnit.SECONDS);
+            for (CompletableFuture<String> version : versions) {
+                assertThat(version.get(10, TimeUnit.SECONDS)).isEqualTo(pinnedVersion);
+            }
+            assertThat(localLoader.pinSnapshotVersion("g", "a", "1.0-SNAPSHOT")).isEqualTo(pinnedVersion);
+            assertThat(localLoader.getArtifactFile("g", "a", "1.0-SNAPSHOT").getName()).isEqualTo("a-1.0-SNAPSHOT.jar");
+            assertThat(server.requests("g/a/1.0-SNAPSHOT/maven-metadata.xml")).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testBuilderSnapshotUpdatePolicy(@TempDir Path directory) throws Exception {
+        try (RepositoryServer server = new RepositoryServer(directory.resolve("remote"))) {
+            server.deploy("g", "a", "1.0", "jar", new byte[] {1});
+            server.deploySnapshot("g", "a", "1.1-SNAPSHOT", "20240101.120000", 1, "jar", new byte[] {2});
+            String metadata = "g/a/maven-metadata.xml";
+
+            assertThat(newSnapshotLoader(server, directory).snapshotUpdatePolicy(UpdatePolicy.NEVER).build()
+                    .builder("g", "a").includeSnapshots(true).findAll()).containsExactly("1.0", "1.1-SNAPSHOT");
+            assertThat(server.requests(metadata)).isEqualTo(1);
+            server.deploySnapshot("g", "a", "1.2-SNAPSHOT", "20240102.120000", 1, "jar", new byte[] {3});
+
+            // the loader never checks for updates, unless the builder asks for it
+            MavenArtifactLoader neverLoader = newSnapshotLoader(server, directory).snapshotUpdatePolicy(UpdatePolicy.NEVER).build();
+            assertThat(neverLoader.builder("g", "a").includeSnapshots(true).findAll()).containsExactly("1.0", "1.1-SNAPSHOT");
+            assertThat(server.requests(metadata)).isEqualTo(1);
+            assertThat(neverLoader.builder("g", "a").includeSnapshots(true).snapshotUpdatePolicy(UpdatePolicy.ALWAYS).findAll())
+                    .containsExactly("1.0", "1.1-SNAPSHOT", "1.2-SNAPSHOT");
+            assertThat(server.requests(metadata)).isEqualTo(2);
+            server.deploySnapshot("g", "a", "1.3-SNAPSHOT", "20240103.120000", 1, "jar", new byte[] {4});
+
+            // the loader always checks for updates, unless the builder forbids it
+            MavenArtifactLoader alwaysLoader = newSnapshotLoader(server, directory).snapshotUpdatePolicy(UpdatePolicy.ALWAYS).build();
+            assertThat(alwaysLoader.builder("g", "a").includeSnapshots(true).snapshotUpdatePolicy(UpdatePolicy.NEVER).findAll())
+                    .containsExactly("1.0", "1.1-SNAPSHOT", "1.2-SNAPSHOT");
+            assertThat(server.requests(metadata)).isEqualTo(2);
+            assertThat(alwaysLoader.builder("g", "a").includeSnapshots(true).findAll())
+                    .containsExactly("1.0", "1.1-SNAPSHOT", "1.2-SNAPSHOT", "1.3-SNAPSHOT");
+            assertThat(server.requests(metadata)).isEqualTo(3);
+        }
+    }
+
+    private static MavenArtifactLoaderBuilder newSnapshotLoader(RepositoryServer server, Path directory) {
+        // releases are never checked for updates, the snapshot policy of the loader or the builder decides
+        RepositoryPolicy policy = new RepositoryPolicy(true, RepositoryPolicy.UPDATE_POLICY_NEVER, RepositoryPolicy.CHECKSUM_POLICY_WARN);
+        return MavenArtifactLoader.newBuilder()
+                .remoteRepositories(List.of(new RemoteRepository.Builder(server.repository("test")).setPolicy(policy).build()))
+                .localRepository(directory.resolve("local").toFile());
+    }
+
+    @Test
+    void testSettingsAreReloadedWhenChanged(@TempDir Path directory) throws Exception {
+        File userSettings = directory.resolve("settings.xml").toFile();
+        File globalSettings = directory.resolve("global-settings.xml").toFile();
+        Files.writeString(userSettings.toPath(), "<settings><localRepository>/first</localRepository></settings>");
+
+        Settings settings = MavenArtifactLoader.loadSettings(userSettings, globalSettings);
+        assertThat(settings.getLocalRepository()).isEqualTo("/first");
+        // unchanged files are not read again
+        assertThat(MavenArtifactLoader.loadSettings(userSettings, globalSettings)).isSameAs(settings);
+
+        Files.writeString(userSettings.toPath(), "<settings><localRepository>/second</localRepository></settings>");
+        Settings changedSettings = MavenArtifactLoader.loadSettings(userSettings, globalSettings);
+        assertThat(changedSettings.getLocalRepository()).isEqualTo("/second");
+        assertThat(MavenArtifactLoader.loadSettings(userSettings, globalSettings)).isSameAs(changedSettings);
+
+        // a global settings file that appears is read as well, the user settings take precedence
+        Files.writeString(globalSettings.toPath(), "<settings><localRepository>/global</localRepository>"
+                + "<mirrors><mirror><id>global</id><url>http://mirror.invalid/</url><mirrorOf>*</mirrorOf></mirror></mirrors></settings>");
+        Settings globalChangedSettings = MavenArtifactLoader.loadSettings(userSettings, globalSettings);
+        assertThat(globalChangedSettings.getLocalRepository()).isEqualTo("/second");
+        assertThat(globalChangedSettings.getMirrors()).hasSize(1);
+        assertThat(globalChangedSettings.getMirrors().get(0).getId()).isEqualTo("global");
+
+        // a change of the modification time alone is enough
+        Files.setLastModifiedTime(userSettings.toPath(), FileTime.fromMillis(userSettings.lastModified() - 10_000));
+        assertThat(MavenArtifactLoader.loadSettings(userSettings, globalSettings)).isNotSameAs(globalChangedSettings);
+    }
+
+    private static MavenArtifactLoader newLockingLoader(RepositoryServer server, Path directory, Duration lockWaitTimeout) {
+        return MavenArtifactLoader.newBuilder()
+                .remoteRepositories(List.of(server.repository("test")))
+                .localRepository(directory.resolve("local").toFile())
+                .crossProcessLocking(lockWaitTimeout)
+                .build();
+    }
+
+    private static File getArtifactFile(MavenArtifactLoader loader) {
+        try {
+            return loader.getArtifactFile("g", "a", "1.0");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static RemoteRepository alwaysUpdate(RemoteRepository repository) {
+        RepositoryPolicy policy = new RepositoryPolicy(true, RepositoryPolicy.UPDATE_POLICY_ALWAYS, RepositoryPolicy.CHECKSUM_POLICY_WARN);
+        return new RemoteRepository.Builder(repository).setPolicy(policy).build();
+    }
+
+    private static List<Path> listFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
 }
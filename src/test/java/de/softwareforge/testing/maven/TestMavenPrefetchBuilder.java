@@ -0,0 +1,201 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public final class TestMavenPrefetchBuilder {
+
+    private static final String METADATA = "g/a/maven-metadata.xml";
+
+    @TempDir
+    Path directory;
+
+    RepositoryServer server;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        this.server = new RepositoryServer(directory.resolve("remote"));
+        for (String version : List.of("1.0", "1.1.0", "1.1.1", "2.0.0", "2.1.0", "2.1.1")) {
+            server.deploy("g", "a", version, "jar", version.getBytes(UTF_8));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testVersionForms() throws IOException {
+        Path lockFile = directory.resolve("manifest.lock");
+        MavenBatchResult result = newLoader().prefetch()
+                .artifact("g:a:1.1")
+                .artifact("g:a:=1.1.0")
+                .artifact("g:a:^1")
+                .artifact("g:a:~2.1")
+                .artifact("g:a:[2.0,2.1)")
+                .artifact("g:a:*")
+                .artifact(" g:a: ")
+                .lockFile(lockFile)
+                .prefetch();
+
+        assertThat(result.hasFailures()).isFalse();
+        assertThat(result.artifactFiles()).containsOnlyKeys(
+                MavenArtifactCoordinates.of("g", "a", "1.1.0"),
+                MavenArtifactCoordinates.of("g", "a", "1.1.1"),
+                MavenArtifactCoordinates.of("g", "a", "2.0.0"),
+                MavenArtifactCoordinates.of("g", "a", "2.1.1"));
+        assertThat(Files.readAllLines(lockFile, UTF_8)).containsSubsequence(
+                "g:a:1.1=1.1.1",
+                "g:a:=1.1.0=1.1.0",
+                "g:a:^1=1.1.1",
+                "g:a:~2.1=2.1.1",
+                "g:a:[2.0,2.1)=2.0.0",
+                "g:a:*=2.1.1",
+                "g:a:=2.1.1");
+    }
+
+    @Test
+    void testExtensionAndClassifier() throws IOException {
+        server.deploy("g", "a", "2.1.1", "", "zip", new byte[] {1});
+        server.deploy("g", "a", "2.1.1", "sources", "jar", new byte[] {2});
+        server.deploy("g", "a", "2.1.1", "dist", "tar.gz", new byte[] {3});
+
+        MavenBatchResult result = newLoader().prefetch()
+                .artifact("g:a:zip:2.1")
+                .artifact("g:a::sources:2.1")
+                .artifact("g:a:tar.gz:dist:2.1")
+                .prefetch();
+
+        assertThat(result.hasFailures()).isFalse();
+        assertThat(result.artifactFiles().get(MavenArtifactCoordinates.of("g", "a", "2.1.1").withExtension("zip"))).hasBinaryContent(new byte[] {1});
+        assertThat(result.artifactFiles().get(MavenArtifactCoordinates.of("g", "a", "2.1.1").withClassifier("sources"))).hasBinaryContent(new byte[] {2});
+        assertThat(result.artifactFiles().get(MavenArtifactCoordinates.of("g", "a", "2.1.1").withClassifier("dist").withExtension("tar.gz")))
+                .hasBinaryContent(new byte[] {3});
+    }
+
+    @Test
+    void testInvalidEntries() throws IOException {
+        MavenPrefetchBuilder builder = newLoader().prefetch();
+        for (String entry : List.of("g", "g:a", ":a:1.0", "g::1.0", "g:a:jar:sources:x:1.0", "g:a:^x", "g:a:~2", "g:a:~2.x", "g:a:[1.0")) {
+            assertThatThrownBy(() -> builder.artifact(entry)).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        Path manifest = directory.resolve("manifest");
+        Files.write(manifest, List.of("# artifacts", "", "g:a:1.1", "g:a:~1"), UTF_8);
+        assertThatThrownBy(() -> builder.manifest(manifest))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining(manifest.toString())
+                .hasMessageContaining("g:a:~1");
+    }
+
+    @Test
+    void testLockedVersionsSkipLookup() throws IOException {
+        Path manifest = directory.resolve("manifest");
+        Path lockFile = directory.resolve("manifest.lock");
+        Files.write(manifest, List.of("# artifacts", "", "g:a:1.1", "g:a:=1.0"), UTF_8);
+
+        newLoader().prefetch().manifest(manifest).lockFile(lockFile).prefetch();
+        assertThat(Files.readAllLines(lockFile, UTF_8)).containsSubsequence("g:a:1.1=1.1.1", "g:a:=1.0=1.0");
+        int metadataRequests = server.requests(METADATA);
+        assertThat(metadataRequests).isGreaterThan(0);
+
+        // the locked versions are used, although a newer version exists, and the unchanged lock file is not written again
+        server.deploy("g", "a", "1.1.2", "jar", new byte[] {1});
+        Files.setLastModifiedTime(lockFile, FileTime.fromMillis(0));
+        MavenBatchResult result = newLoader().prefetch().manifest(manifest).lockFile(lockFile).prefetch();
+
+        assertThat(result.artifactFiles()).containsOnlyKeys(MavenArtifactCoordinates.of("g", "a", "1.1.1"), MavenArtifactCoordinates.of("g", "a", "1.0"));
+        assertThat(server.requests(METADATA)).isEqualTo(metadataRequests);
+        assertThat(Files.getLastModifiedTime(lockFile).toMillis()).isEqualTo(0);
+
+        // a new entry is looked up and added to the lock file
+        Files.write(manifest, List.of("g:a:1.1", "g:a:=1.0", "g:a:^2"), UTF_8);
+        newLoader().prefetch().manifest(manifest).lockFile(lockFile).prefetch();
+
+        assertThat(server.requests(METADATA)).isGreaterThan(metadataRequests);
+        assertThat(Files.readAllLines(lockFile, UTF_8)).containsSubsequence("g:a:1.1=1.1.1", "g:a:=1.0=1.0", "g:a:^2=2.1.1");
+    }
+
+    @Test
+    void testLockFileIsNotWrittenOnFailure() throws IOException {
+        Path lockFile = directory.resolve("manifest.lock");
+
+        // the version is in the metadata, but the artifact is missing
+        Files.delete(directory.resolve("remote").resolve("g/a/2.1.1/a-2.1.1.jar"));
+        MavenBatchResult result = newLoader().prefetch().artifact("g:a:1.1").artifact("g:a:^2").lockFile(lockFile).prefetch();
+        assertThat(result.hasFailures()).isTrue();
+        assertThat(result.failures()).containsOnlyKeys(MavenArtifactCoordinates.of("g", "a", "2.1.1"));
+        assertThat(lockFile).doesNotExist();
+
+        // no version matches
+        assertThatThrownBy(() -> newLoader().prefetch().artifact("g:a:1.1").artifact("g:a:^3").lockFile(lockFile).prefetch())
+                .isInstanceOf(IOException.class);
+        assertThat(lockFile).doesNotExist();
+    }
+
+    @Test
+    void testRun() throws IOException {
+        Path manifest = directory.resolve("manifest");
+        Files.write(manifest, List.of("g:a:^1"), UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        // the lock file defaults to the manifest name with ".lock"
+        assertThat(run(out, err, manifest.toString())).isEqualTo(0);
+        assertThat(out.toString(UTF_8)).contains("g:a:1.1.1");
+        assertThat(Files.readAllLines(directory.resolve("manifest.lock"), UTF_8)).contains("g:a:^1=1.1.1");
+
+        Files.write(manifest, List.of("g:a:^3"), UTF_8);
+        assertThat(run(out, err, manifest.toString(), directory.resolve("other.lock").toString())).isEqualTo(1);
+        assertThat(err.toString(UTF_8)).contains("g:a:^3");
+
+        assertThat(run(out, err)).isEqualTo(2);
+        assertThat(run(out, err, "a", "b", "c")).isEqualTo(2);
+        assertThat(err.toString(UTF_8)).contains("usage");
+    }
+
+    private int run(ByteArrayOutputStream out, ByteArrayOutputStream err, String... args) {
+        return MavenPrefetch.run(args, this::newLoader, new PrintStream(out, true, UTF_8), new PrintStream(err, true, UTF_8));
+    }
+
+    private MavenArtifactLoader newLoader() {
+        // the repository is checked for new versions on every lookup
+        RepositoryPolicy policy = new RepositoryPolicy(true, RepositoryPolicy.UPDATE_POLICY_ALWAYS, RepositoryPolicy.CHECKSUM_POLICY_WARN);
+        RemoteRepository repository = new RemoteRepository.Builder(server.repository("test")).setPolicy(policy).build();
+        return MavenArtifactLoader.newBuilder()
+                .remoteRepositories(List.of(repository))
+                .localRepository(directory.resolve("local").toFile())
+                .build();
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.aether.repository.Proxy;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.eclipse.aether.util.repository.AuthenticationBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public final class TestRangedDownloader {
+
+    private static final String PATH = "g/a/1.0/a-1.0.jar";
+    private static final byte[] CONTENT = TestMavenArtifactLoader.randomBytes(1024 * 1024);
+
+    @TempDir
+    Path directory;
+
+    RepositoryServer server;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        this.server = new RepositoryServer(directory.resolve("remote"));
+        server.deploy("g", "a", "1.0", "jar", CONTENT);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testRangedDownload() throws IOException {
+        assertThat(load(server.repository("test"))).hasBinaryContent(CONTENT);
+
+        assertThat(server.rangeRequests()).isEqualTo(4);
+        assertThat(server.fullDownloads(PATH)).isEqualTo(0);
+        assertThat(partFiles()).isEmpty();
+    }
+
+    @Test
+    void testSmallArtifact() throws IOException {
+        MavenArtifactLoader loader = newBuilder(server.repository("test"))
+                .rangedDownloads(4, CONTENT.length + 1)
+                .build();
+
+        assertThat(loader.getArtifactFile("g", "a", "1.0")).hasBinaryContent(CONTENT);
+        assertThat(server.rangeRequests()).isEqualTo(0);
+        assertThat(server.fullDownloads(PATH)).isEqualTo(1);
+    }
+
+    @Test
+    void testFallbackWithoutRangeSupport() throws IOException {
+        server.rangeSupport(false);
+
+        assertThat(load(server.repository("test"))).hasBinaryContent(CONTENT);
+        assertThat(server.rangeRequests()).isEqualTo(0);
+        assertThat(server.fullDownloads(PATH)).isEqualTo(1);
+    }
+
+    @Test
+    void testFallbackOnFailedRanges() throws IOException {
+        server.failRanges(true);
+        MavenArtifactLoader loader = newBuilder(server.repository("test"))
+                .transportConfiguration(TransportConfiguration.newBuilder().retry(1, Duration.ofMillis(10), Duration.ofMillis(100)).build())
+                .build();
+
+        assertThat(loader.getArtifactFile("g", "a", "1.0")).hasBinaryContent(CONTENT);
+        // each range is tried twice with one retry, then the resolver downloads the whole file
+        assertThat(server.rangeRequests()).isEqualTo(8);
+        assertThat(server.fullDownloads(PATH)).isEqualTo(1);
+        assertThat(partFiles()).isEmpty();
+    }
+
+    @Test
+    void testFallbackOnChecksumMismatch() throws IOException {
+        Files.writeString(directory.resolve("remote").resolve(PATH + ".sha1"), RepositoryServer.sha1(new byte[] {1}), UTF_8);
+        MavenArtifactLoader loader = newBuilder(server.repository("test")).build();
+
+        // the resolver downloads the file again, retries once after the checksum mismatch and only warns about it
+        assertThat(loader.getArtifactFile("g", "a", "1.0")).hasBinaryContent(CONTENT);
+        assertThat(server.rangeRequests()).isEqualTo(4);
+        assertThat(server.fullDownloads(PATH)).isEqualTo(2);
+        assertThat(partFiles()).isEmpty();
+        assertThat(loader.metrics().counter(MetricsSink.CHECKSUM_FAILURE, "test")).isGreaterThan(0);
+    }
+
+    @Test
+    void testChecksumPolicyIgnore() throws IOException {
+        Files.writeString(directory.resolve("remote").resolve(PATH + ".sha1"), RepositoryServer.sha1(new byte[] {1}), UTF_8);
+        RepositoryPolicy policy = new RepositoryPolicy(true, RepositoryPolicy.UPDATE_POLICY_DAILY, RepositoryPolicy.CHECKSUM_POLICY_IGNORE);
+
+        assertThat(load(new RemoteRepository.Builder(server.repository("test")).setPolicy(policy).build())).hasBinaryContent(CONTENT);
+        assertThat(server.rangeRequests()).isEqualTo(4);
+        assertThat(server.fullDownloads(PATH)).isEqualTo(0);
+    }
+
+    @Test
+    void testAuthentication() throws IOException {
+        server.credentials("user", "secret");
+        RemoteRepository repository = new RemoteRepository.Builder(server.repository("test"))
+                .setAuthentication(new AuthenticationBuilder().addUsername("user").addPassword("secret").build())
+                .build();
+
+        assertThat(load(repository)).hasBinaryContent(CONTENT);
+        assertThat(server.rangeRequests()).isEqualTo(4);
+        assertThat(server.fullDownloads(PATH)).isEqualTo(0);
+    }
+
+    @Test
+    void testProxy() throws IOException {
+        // the host does not exist, all requests must go through the proxy
+        RemoteRepository repository = new RemoteRepository.Builder("test", "default", "http://repository.invalid/")
+                .setProxy(new Proxy(Proxy.TYPE_HTTP, "localhost", server.port()))
+                .build();
+
+        assertThat(load(repository)).hasBinaryContent(CONTENT);
+        assertThat(server.rangeRequests()).isEqualTo(4);
+        assertThat(server.fullDownloads(PATH)).isEqualTo(0);
+        assertThat(server.proxyRequests()).isGreaterThan(4);
+    }
+
+    private File load(RemoteRepository repository) throws IOException {
+        return newBuilder(repository).build().getArtifactFile("g", "a", "1.0");
+    }
+
+    private MavenArtifactLoaderBuilder newBuilder(RemoteRepository repository) {
+        return MavenArtifactLoader.newBuilder()
+                .remoteRepositories(List.of(repository))
+                .localRepository(directory.resolve("local").toFile())
+                .rangedDownloads(4, 1024);
+    }
+
+    private List<Path> partFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(directory.resolve("local"))) {
+            return files.filter(file -> file.getFileName().toString().contains(".part-")).collect(Collectors.toList());
+        }
+    }
+}
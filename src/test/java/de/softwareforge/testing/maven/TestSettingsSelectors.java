@@ -0,0 +1,178 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.apache.maven.settings.Mirror;
+import org.apache.maven.settings.Proxy;
+import org.apache.maven.settings.Server;
+import org.apache.maven.settings.Settings;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.repository.Authentication;
+import org.eclipse.aether.repository.AuthenticationContext;
+import org.eclipse.aether.repository.MirrorSelector;
+import org.eclipse.aether.repository.ProxySelector;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public final class TestSettingsSelectors {
+
+    private static final RemoteRepository CENTRAL = repository("central", "https://repo.maven.apache.org/maven2/");
+    private static final RemoteRepository SNAPSHOTS = repository("snapshots", "http://snapshots.example.com/repository/");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testMirrorSelection() {
+        Settings settings = new Settings();
+        settings.addMirror(mirror("central-mirror", "http://central.example.com/", "central"));
+        settings.addMirror(mirror("other-mirror", "http://other.example.com/", "*,!central"));
+        settings.addMirror(mirror("unused-mirror", "http://unused.example.com/", "central"));
+
+        MirrorSelector mirrorSelector = SettingsSelectors.mirrorSelector(settings, false);
+
+        RemoteRepository mirror = mirrorSelector.getMirror(CENTRAL);
+        assertThat(mirror.getId()).isEqualTo("central-mirror");
+        assertThat(mirror.getUrl()).isEqualTo("http://central.example.com/");
+        assertThat(mirror.getMirroredRepositories()).containsExactly(CENTRAL);
+        assertThat(mirrorSelector.getMirror(SNAPSHOTS).getId()).isEqualTo("other-mirror");
+    }
+
+    @Test
+    void testProxySelection() {
+        Settings settings = new Settings();
+        Proxy inactive = proxy("inactive.example.com", 3128, null);
+        inactive.setActive(false);
+        settings.addProxy(inactive);
+        Proxy proxy = proxy("proxy.example.com", 8080, "*.internal");
+        proxy.setUsername("proxy-user");
+        proxy.setPassword("proxy-secret");
+        settings.addProxy(proxy);
+
+        ProxySelector proxySelector = SettingsSelectors.proxySelector(settings);
+
+        org.eclipse.aether.repository.Proxy selected = proxySelector.getProxy(SNAPSHOTS);
+        assertThat(selected.getHost()).isEqualTo("proxy.example.com");
+        assertThat(selected.getPort()).isEqualTo(8080);
+        assertThat(proxySelector.getProxy(repository("internal", "http://build.internal/repository/"))).isNull();
+
+        RemoteRepository repository = new RemoteRepository.Builder(SNAPSHOTS).setProxy(selected).build();
+        try (AuthenticationContext context = AuthenticationContext.forProxy(new DefaultRepositorySystemSession(), repository)) {
+            assertThat(context.get(AuthenticationContext.USERNAME)).isEqualTo("proxy-user");
+            assertThat(context.get(AuthenticationContext.PASSWORD)).isEqualTo("proxy-secret");
+        }
+    }
+
+    @Test
+    void testServerCredentials() {
+        Settings settings = new Settings();
+        Server server = new Server();
+        server.setId("snapshots");
+        server.setUsername("user");
+        server.setPassword("secret");
+        settings.addServer(server);
+
+        Authentication authentication = SettingsSelectors.authenticationSelector(settings).getAuthentication(SNAPSHOTS);
+        assertThat(SettingsSelectors.authenticationSelector(settings).getAuthentication(CENTRAL)).isNull();
+
+        RemoteRepository repository = new RemoteRepository.Builder(SNAPSHOTS).setAuthentication(authentication).build();
+        try (AuthenticationContext context = AuthenticationContext.forRepository(new DefaultRepositorySystemSession(), repository)) {
+            assertThat(context.get(AuthenticationContext.USERNAME)).isEqualTo("user");
+            assertThat(context.get(AuthenticationContext.PASSWORD)).isEqualTo("secret");
+        }
+    }
+
+    @Test
+    void testFastestMirror() throws Exception {
+        try (RepositoryServer slow = new RepositoryServer(directory.resolve("slow"));
+                RepositoryServer fast = new RepositoryServer(directory.resolve("fast"))) {
+            slow.delay(Duration.ofMillis(300));
+            Settings settings = new Settings();
+            settings.addMirror(mirror("slow", slow.repository("slow").getUrl(), "central"));
+            settings.addMirror(mirror("fast", fast.repository("fast").getUrl(), "central"));
+
+            assertThat(SettingsSelectors.mirrorSelector(settings, false).getMirror(CENTRAL).getId()).isEqualTo("slow");
+
+            // the mirrors are only probed when a repository needs a mirror
+            MirrorSelector mirrorSelector = SettingsSelectors.mirrorSelector(settings, true);
+            assertThat(slow.requests("")).isEqualTo(0);
+            assertThat(fast.requests("")).isEqualTo(0);
+
+            assertThat(mirrorSelector.getMirror(CENTRAL).getId()).isEqualTo("fast");
+            assertThat(mirrorSelector.getMirror(CENTRAL).getId()).isEqualTo("fast");
+            // the latencies are kept for the same settings
+            assertThat(SettingsSelectors.mirrorSelector(settings, true).getMirror(CENTRAL).getId()).isEqualTo("fast");
+            assertThat(slow.requests("")).isEqualTo(1);
+            assertThat(fast.requests("")).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testSingleMatchingMirrorIsNotProbed() throws Exception {
+        try (RepositoryServer first = new RepositoryServer(directory.resolve("first"));
+                RepositoryServer second = new RepositoryServer(directory.resolve("second"))) {
+            Settings settings = new Settings();
+            settings.addMirror(mirror("first", first.repository("first").getUrl(), "central"));
+            settings.addMirror(mirror("second", second.repository("second").getUrl(), "snapshots"));
+
+            MirrorSelector mirrorSelector = SettingsSelectors.mirrorSelector(settings, true);
+            assertThat(mirrorSelector.getMirror(CENTRAL).getId()).isEqualTo("first");
+            assertThat(mirrorSelector.getMirror(SNAPSHOTS).getId()).isEqualTo("second");
+            assertThat(first.requests("")).isEqualTo(0);
+            assertThat(second.requests("")).isEqualTo(0);
+        }
+    }
+
+    @Test
+    void testFastestMirrorThroughProxy() throws Exception {
+        try (RepositoryServer proxyServer = new RepositoryServer(directory.resolve("proxy"))) {
+            // neither host exists, only the mirror that is reached through the proxy answers
+            Settings settings = new Settings();
+            settings.addMirror(mirror("direct", "http://direct.invalid/", "central"));
+            settings.addMirror(mirror("proxied", "http://proxied.invalid/", "central"));
+            settings.addProxy(proxy("localhost", proxyServer.port(), "direct.invalid"));
+
+            assertThat(SettingsSelectors.mirrorSelector(settings, true).getMirror(CENTRAL).getId()).isEqualTo("proxied");
+            assertThat(proxyServer.proxyRequests()).isEqualTo(1);
+        }
+    }
+
+    private static RemoteRepository repository(String id, String url) {
+        return new RemoteRepository.Builder(id, "default", url).build();
+    }
+
+    private static Mirror mirror(String id, String url, String mirrorOf) {
+        Mirror mirror = new Mirror();
+        mirror.setId(id);
+        mirror.setUrl(url);
+        mirror.setMirrorOf(mirrorOf);
+        return mirror;
+    }
+
+    private static Proxy proxy(String host, int port, String nonProxyHosts) {
+        Proxy proxy = new Proxy();
+        proxy.setProtocol("http");
+        proxy.setHost(host);
+        proxy.setPort(port);
+        proxy.setNonProxyHosts(nonProxyHosts);
+        return proxy;
+    }
+}
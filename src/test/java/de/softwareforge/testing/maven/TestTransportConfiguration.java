@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import org.eclipse.aether.ConfigurationProperties;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.util.ConfigUtils;
+import org.junit.jupiter.api.Test;
+
+public final class TestTransportConfiguration {
+
+    @Test
+    void testSessionConfigProperties() {
+        TransportConfiguration transportConfiguration = TransportConfiguration.newBuilder()
+                .connectTimeout(Duration.ofSeconds(3))
+                .requestTimeout(Duration.ofSeconds(20))
+                .maxConnectionsPerRoute(8)
+                .reuseConnections(false)
+                .connectionMaxTtl(Duration.ofMinutes(2))
+                .retry(5, Duration.ofMillis(250), Duration.ofSeconds(10))
+                .build();
+
+        DefaultRepositorySystemSession session = new DefaultRepositorySystemSession();
+        transportConfiguration.apply(session);
+
+        // the values have the types that the resolver and the HTTP transport read
+        assertThat(ConfigUtils.getInteger(session, -1, ConfigurationProperties.CONNECT_TIMEOUT)).isEqualTo(3_000);
+        assertThat(ConfigUtils.getInteger(session, -1, ConfigurationProperties.REQUEST_TIMEOUT)).isEqualTo(20_000);
+        assertThat(ConfigUtils.getInteger(session, -1, ConfigurationProperties.HTTP_MAX_CONNECTIONS_PER_ROUTE)).isEqualTo(8);
+        assertThat(ConfigUtils.getBoolean(session, true, ConfigurationProperties.HTTP_REUSE_CONNECTIONS)).isFalse();
+        assertThat(ConfigUtils.getInteger(session, -1, ConfigurationProperties.HTTP_CONNECTION_MAX_TTL)).isEqualTo(120);
+        assertThat(ConfigUtils.getInteger(session, -1, ConfigurationProperties.HTTP_RETRY_HANDLER_COUNT)).isEqualTo(5);
+        assertThat(ConfigUtils.getLong(session, -1L, ConfigurationProperties.HTTP_RETRY_HANDLER_INTERVAL)).isEqualTo(250L);
+        assertThat(ConfigUtils.getLong(session, -1L, ConfigurationProperties.HTTP_RETRY_HANDLER_INTERVAL_MAX)).isEqualTo(10_000L);
+    }
+
+    @Test
+    void testDefaultKeepsResolverDefaults() {
+        DefaultRepositorySystemSession session = new DefaultRepositorySystemSession();
+        session.setConfigProperty(ConfigurationProperties.CONNECT_TIMEOUT, 42);
+        TransportConfiguration.DEFAULT.apply(session);
+
+        assertThat(session.getConfigProperties()).containsOnlyKeys(ConfigurationProperties.CONNECT_TIMEOUT);
+        assertThat(session.getConfigProperties()).containsEntry(ConfigurationProperties.CONNECT_TIMEOUT, 42);
+    }
+
+    @Test
+    void testLargeValuesAreCapped() {
+        DefaultRepositorySystemSession session = new DefaultRepositorySystemSession();
+        TransportConfiguration.newBuilder()
+                .requestTimeout(Duration.ofDays(365 * 100))
+                .connectionMaxTtl(Duration.ofDays(365L * 1_000_000))
+                .build()
+                .apply(session);
+
+        assertThat(session.getConfigProperties()).containsEntry(ConfigurationProperties.REQUEST_TIMEOUT, Integer.MAX_VALUE);
+        assertThat(session.getConfigProperties()).containsEntry(ConfigurationProperties.HTTP_CONNECTION_MAX_TTL, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void testInvalidValues() {
+        TransportConfiguration.Builder builder = TransportConfiguration.newBuilder();
+
+        assertThatThrownBy(() -> builder.connectTimeout(null)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> builder.requestTimeout(Duration.ofSeconds(-1))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder.maxConnectionsPerRoute(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder.connectionMaxTtl(Duration.ofSeconds(-1))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder.retry(-1, Duration.ZERO, Duration.ZERO)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder.retry(1, Duration.ofSeconds(-1), Duration.ZERO)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
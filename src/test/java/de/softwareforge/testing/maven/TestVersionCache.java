@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class TestVersionCache {
+
+    private static final GenericVersionScheme VERSION_SCHEME = new GenericVersionScheme();
+    private static final List<RemoteRepository> REPOSITORIES = List.of(MavenArtifactLoader.CENTRAL_REPO);
+
+    LoaderMetrics metrics;
+    AtomicInteger loads;
+
+    @BeforeEach
+    public void setUp() {
+        this.metrics = new LoaderMetrics();
+        this.loads = new AtomicInteger();
+    }
+
+    @Test
+    void testHitWithinTtl() throws Exception {
+        VersionCache cache = newCache(Duration.ofHours(1), 10);
+
+        assertThat(versionStrings(cache.get(key("a"), () -> load(true, "1.0", "1.1")))).containsExactly("1.0", "1.1");
+        assertThat(versionStrings(cache.get(key("a"), () -> load(true, "2.0")))).containsExactly("1.0", "1.1");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(metrics.counter(MetricsSink.VERSION_CACHE_MISS)).isEqualTo(1);
+        assertThat(metrics.counter(MetricsSink.VERSION_CACHE_HIT)).isEqualTo(1);
+
+        // other artifacts, repositories and resolution modes have their own entries
+        cache.get(key("b"), () -> load(true, "1.0"));
+        cache.get(new VersionCache.Key("g", "a", "jar", List.of(), ResolutionMode.DEFAULT), () -> load(true, "1.0"));
+        cache.get(new VersionCache.Key("g", "a", "jar", REPOSITORIES, ResolutionMode.OFFLINE), () -> load(true, "1.0"));
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    void testReloadAfterTtl() throws Exception {
+        VersionCache cache = newCache(Duration.ofMillis(200), 10);
+
+        assertThat(versionStrings(cache.get(key("a"), () -> load(true, "1.0")))).containsExactly("1.0");
+        Thread.sleep(300);
+        assertThat(versionStrings(cache.get(key("a"), () -> load(true, "1.0", "1.1")))).containsExactly("1.0", "1.1");
+        assertThat(versionStrings(cache.get(key("a"), () -> load(true, "2.0")))).containsExactly("1.0", "1.1");
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(metrics.counter(MetricsSink.VERSION_CACHE_MISS)).isEqualTo(2);
+        assertThat(metrics.counter(MetricsSink.VERSION_CACHE_HIT)).isEqualTo(1);
+    }
+
+    @Test
+    void testZeroTtlDisablesCache() throws Exception {
+        VersionCache cache = newCache(Duration.ZERO, 10);
+
+        cache.get(key("a"), () -> load(true, "1.0"));
+        cache.get(key("a"), () -> load(true, "1.0"));
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(metrics.counter(MetricsSink.VERSION_CACHE_HIT)).isEqualTo(0);
+    }
+
+    @Test
+    void testIncompleteVersionsAreNotCached() throws Exception {
+        VersionCache cache = newCache(Duration.ofHours(1), 10);
+
+        assertThat(versionStrings(cache.get(key("a"), () -> load(false, "1.0")))).containsExactly("1.0");
+        assertThat(versionStrings(cache.get(key("a"), () -> load(true, "1.0", "2.0")))).containsExactly("1.0", "2.0");
+        assertThat(versionStrings(cache.get(key("a"), () -> load(true, "3.0")))).containsExactly("1.0", "2.0");
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testMaximumSize() throws Exception {
+        VersionCache cache = newCache(Duration.ofHours(1), 2);
+
+        cache.get(key("a"), () -> load(true, "1.0"));
+        cache.get(key("b"), () -> load(true, "1.0"));
+        // "a" was used last, "b" is evicted by "c"
+        cache.get(key("a"), () -> load(true, "1.0"));
+        cache.get(key("c"), () -> load(true, "1.0"));
+        assertThat(loads.get()).isEqualTo(3);
+
+        cache.get(key("a"), () -> load(true, "1.0"));
+        assertThat(loads.get()).isEqualTo(3);
+        cache.get(key("b"), () -> load(true, "1.0"));
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    private VersionCache newCache(Duration ttl, int maximumSize) {
+        return new VersionCache(ttl, maximumSize, new MetricsListener(List.of(metrics)));
+    }
+
+    private VersionCache.Versions load(boolean complete, String... versions) {
+        loads.incrementAndGet();
+        List<VersionKey> versionKeys = new ArrayList<>();
+        try {
+            for (String version : versions) {
+                versionKeys.add(VersionKey.of(VERSION_SCHEME.parseVersion(version)));
+            }
+        } catch (InvalidVersionSpecificationException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return new VersionCache.Versions(versionKeys, complete);
+    }
+
+    private static VersionCache.Key key(String artifactId) {
+        return new VersionCache.Key("g", artifactId, "jar", REPOSITORIES, ResolutionMode.DEFAULT);
+    }
+
+    private static List<String> versionStrings(List<VersionKey> versionKeys) {
+        List<String> versions = new ArrayList<>();
+        for (VersionKey versionKey : versionKeys) {
+            versions.add(versionKey.versionString());
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public final class TestVersionIndex {
+
+    private static final GenericVersionScheme VERSION_SCHEME = new GenericVersionScheme();
+
+    @TempDir
+    Path directory;
+
+    File indexFile;
+    LoaderMetrics metrics;
+
+    @BeforeEach
+    public void setUp() {
+        this.indexFile = directory.resolve("versions.idx").toFile();
+        this.metrics = new LoaderMetrics();
+    }
+
+    @Test
+    void testPutAndGet() throws Exception {
+        VersionIndex index = newIndex(Duration.ofHours(1));
+        index.put("g:a:jar", versionKeys("1.0", "1.1", "2.0"));
+
+        assertThat(versionStrings(index.get("g:a:jar"))).containsExactly("1.0", "1.1", "2.0");
+        assertThat(index.get("g:b:jar")).isNull();
+        assertThat(metrics.counter(MetricsSink.VERSION_INDEX_HIT)).isEqualTo(1);
+        assertThat(metrics.counter(MetricsSink.VERSION_INDEX_MISS)).isEqualTo(1);
+    }
+
+    @Test
+    void testReload() throws Exception {
+        newIndex(Duration.ofHours(1)).put("g:a:jar", List.of(
+                VersionKey.of(VERSION_SCHEME.parseVersion("1.0"), "central"),
+                VersionKey.of(VERSION_SCHEME.parseVersion("1.1"), null)));
+
+        List<VersionKey> versionKeys = newIndex(Duration.ofHours(1)).get("g:a:jar");
+
+        assertThat(versionStrings(versionKeys)).containsExactly("1.0", "1.1");
+        assertThat(versionKeys.get(0).repositoryId()).isEqualTo("central");
+        assertThat(versionKeys.get(1).repositoryId()).isNull();
+    }
+
+    @Test
+    void testExpired() throws Exception {
+        newIndex(Duration.ofHours(1)).put("g:a:jar", versionKeys("1.0"));
+
+        assertThat(newIndex(Duration.ZERO).get("g:a:jar")).isNull();
+    }
+
+    @Test
+    void testLaterRecordReplacesEarlier() throws Exception {
+        VersionIndex index = newIndex(Duration.ofHours(1));
+        index.put("g:a:jar", versionKeys("1.0"));
+        index.put("g:a:jar", versionKeys("1.0", "1.1"));
+
+        assertThat(versionStrings(newIndex(Duration.ofHours(1)).get("g:a:jar"))).containsExactly("1.0", "1.1");
+    }
+
+    @Test
+    void testSharedIndexInSameProcess() throws Exception {
+        // two loaders with the same local repository use two indexes for the same file
+        VersionIndex first = newIndex(Duration.ofHours(1));
+        VersionIndex second = newIndex(Duration.ofHours(1));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                VersionIndex index = i % 2 == 0 ? first : second;
+                String key = "g:a" + i + ":jar";
+                futures.add(CompletableFuture.runAsync(() -> index.put(key, versionKeys("1." + key.length())), executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        VersionIndex reloaded = newIndex(Duration.ofHours(1));
+        for (int i = 0; i < 200; i++) {
+            assertThat(reloaded.get("g:a" + i + ":jar")).isNotNull();
+        }
+    }
+
+    @Test
+    void testCompaction() throws Exception {
+        VersionIndex index = newIndex(Duration.ofHours(1));
+        for (int i = 0; i < 300; i++) {
+            index.put("g:a" + (i % 3) + ":jar", versionKeys("1." + i));
+        }
+        long size = Files.size(indexFile.toPath());
+
+        // loading an index with many replaced records rewrites it
+        VersionIndex compacted = newIndex(Duration.ofHours(1));
+        assertThat(versionStrings(compacted.get("g:a0:jar"))).containsExactly("1.297");
+        assertThat(versionStrings(compacted.get("g:a1:jar"))).containsExactly("1.298");
+        assertThat(versionStrings(compacted.get("g:a2:jar"))).containsExactly("1.299");
+        assertThat(Files.size(indexFile.toPath())).isLessThan(size / 10);
+
+        // appends after the compaction are kept
+        compacted.put("g:b:jar", versionKeys("2.0"));
+        assertThat(versionStrings(newIndex(Duration.ofHours(1)).get("g:b:jar"))).containsExactly("2.0");
+    }
+
+    @Test
+    void testTruncatedIndex() throws Exception {
+        VersionIndex index = newIndex(Duration.ofHours(1));
+        index.put("g:a:jar", versionKeys("1.0"));
+        index.put("g:b:jar", versionKeys("2.0"));
+
+        // a process that was killed while appending leaves an incomplete record
+        byte[] data = Files.readAllBytes(indexFile.toPath());
+        Files.write(indexFile.toPath(), Arrays.copyOf(data, data.length - 3));
+
+        VersionIndex reloaded = newIndex(Duration.ofHours(1));
+        assertThat(versionStrings(reloaded.get("g:a:jar"))).containsExactly("1.0");
+        assertThat(reloaded.get("g:b:jar")).isNull();
+    }
+
+    @Test
+    void testInvalidIndex() throws Exception {
+        Files.write(indexFile.toPath(), new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9});
+
+        VersionIndex index = newIndex(Duration.ofHours(1));
+        assertThat(index.get("g:a:jar")).isNull();
+
+        index.put("g:a:jar", versionKeys("1.0"));
+        assertThat(versionStrings(newIndex(Duration.ofHours(1)).get("g:a:jar"))).containsExactly("1.0");
+    }
+
+    private VersionIndex newIndex(Duration ttl) {
+        return new VersionIndex(indexFile, ttl, new MetricsListener(List.of(metrics)));
+    }
+
+    private static List<VersionKey> versionKeys(String... versions) {
+        List<VersionKey> versionKeys = new ArrayList<>();
+        try {
+            for (String version : versions) {
+                versionKeys.add(VersionKey.of(VERSION_SCHEME.parseVersion(version)));
+            }
+        } catch (InvalidVersionSpecificationException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return versionKeys;
+    }
+
+    private static List<String> versionStrings(List<VersionKey> versionKeys) {
+        assertThat(versionKeys).isNotNull();
+        List<String> versions = new ArrayList<>();
+        for (VersionKey versionKey : versionKeys) {
+            versions.add(versionKey.versionString());
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.testing.maven;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.junit.jupiter.api.Test;
+
+public final class TestVersionQuery {
+
+    private static final GenericVersionScheme VERSION_SCHEME = new GenericVersionScheme();
+
+    // sorted from the oldest to the newest version, like the version lists of the resolver
+    private static final List<VersionKey> VERSIONS = versionKeys(
+            "1.0-alpha-1", "1.0-beta-2", "1.0-rc1", "1.0",
+            "1.1.0", "1.1.1", "1.1.2",
+            "1.10.0",
+            "2.0-M1", "2.0", "2.0.1",
+            "2.1-SNAPSHOT", "2.1.0", "2.1.1", "2.1.2-SNAPSHOT",
+            "2.2.0", "3.0-SNAPSHOT");
+
+    @Test
+    void testAll() {
+        assertThat(select(VersionQuery.all(), true)).hasSize(VERSIONS.size());
+        assertThat(select(VersionQuery.all(), false)).doesNotContain("2.1-SNAPSHOT", "2.1.2-SNAPSHOT", "3.0-SNAPSHOT");
+    }
+
+    @Test
+    void testExact() {
+        assertThat(select(VersionQuery.exact("1.1.1"), true)).containsExactly("1.1.1");
+        assertThat(select(VersionQuery.exact("1.1"), true)).isEmpty();
+        assertThat(select(VersionQuery.exact("2.1-SNAPSHOT"), true)).containsExactly("2.1-SNAPSHOT");
+    }
+
+    @Test
+    void testPartial() {
+        // a prefix only matches at a segment boundary, "1.1" does not match "1.10.0"
+        assertThat(select(VersionQuery.partial("1.1"), true)).containsExactly("1.1.0", "1.1.1", "1.1.2");
+        assertThat(select(VersionQuery.partial("1.0"), true)).containsExactly("1.0");
+        assertThat(select(VersionQuery.partial(""), true)).hasSize(VERSIONS.size());
+    }
+
+    @Test
+    void testSemVer() {
+        assertThat(select(VersionQuery.semVerMajor(1), false))
+                .containsExactly("1.0-alpha-1", "1.0-beta-2", "1.0-rc1", "1.0", "1.1.0", "1.1.1", "1.1.2", "1.10.0");
+        assertThat(select(VersionQuery.semVerMinor(2, 1), true)).containsExactly("2.1-SNAPSHOT", "2.1.0", "2.1.1", "2.1.2-SNAPSHOT");
+        assertThat(select(VersionQuery.semVerMinor(1, 1), true)).containsExactly("1.1.0", "1.1.1", "1.1.2");
+    }
+
+    @Test
+    void testRange() {
+        assertThat(select(VersionQuery.range("[1.1,2.0)"), true)).containsExactly("1.1.0", "1.1.1", "1.1.2", "1.10.0", "2.0-M1");
+        assertThat(select(VersionQuery.range("(2.1.0,)"), false)).containsExactly("2.1.1", "2.2.0");
+        assertThat(select(VersionQuery.range("(,1.0],[2.2,)"), false)).containsExactly("1.0-alpha-1", "1.0-beta-2", "1.0-rc1", "1.0", "2.2.0");
+        // a version without brackets only matches this version
+        assertThat(select(VersionQuery.range("1.1.1"), true)).containsExactly("1.1.1");
+        assertThatThrownBy(() -> VersionQuery.range("[1.0")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testQualifier() {
+        assertThat(select(VersionQuery.qualifier("beta", "m"), true)).containsExactly("1.0-beta-2", "2.0-M1");
+        assertThat(select(VersionQuery.preRelease(), true))
+                .containsExactly("1.0-alpha-1", "1.0-beta-2", "1.0-rc1", "2.0-M1", "2.1-SNAPSHOT", "2.1.2-SNAPSHOT", "3.0-SNAPSHOT");
+        assertThatThrownBy(() -> VersionQuery.qualifier("ga")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testComposite() {
+        VersionQuery releases = VersionQuery.range("[1.0,3.0)").and(VersionQuery.not(VersionQuery.preRelease()));
+        assertThat(select(releases, true)).containsExactly("1.0", "1.1.0", "1.1.1", "1.1.2", "1.10.0", "2.0", "2.0.1", "2.1.0", "2.1.1", "2.2.0");
+
+        VersionQuery either = VersionQuery.exact("1.0").or(VersionQuery.semVerMinor(2, 2));
+        assertThat(select(either, true)).containsExactly("1.0", "2.2.0");
+
+        assertThatThrownBy(() -> VersionQuery.all().and(VersionQuery.all().latest(1))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> VersionQuery.not(VersionQuery.all().newestPatchPerMinor())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testSnapshots() {
+        assertThat(newest(VersionQuery.all(), true)).isEqualTo("3.0-SNAPSHOT");
+        assertThat(newest(VersionQuery.all(), false)).isEqualTo("2.2.0");
+        assertThat(newest(VersionQuery.semVerMinor(2, 1), false)).isEqualTo("2.1.1");
+        assertThat(newest(VersionQuery.exact("3.0-SNAPSHOT"), false)).isNull();
+    }
+
+    @Test
+    void testLatest() {
+        VersionQuery query = VersionQuery.not(VersionQuery.preRelease()).latest(3);
+        assertThat(select(query, true)).containsExactly("2.1.0", "2.1.1", "2.2.0");
+        List<String> keys = new ArrayList<>();
+        for (VersionKey versionKey : query.selectKeys(VERSIONS, true)) {
+            keys.add(versionKey.versionString());
+        }
+        assertThat(keys).containsExactly("2.1.0", "2.1.1", "2.2.0");
+        assertThat(versionStrings(query.selectNewest(VERSIONS, true, 2))).containsExactly("2.2.0", "2.1.1");
+        assertThat(versionStrings(query.selectNewest(VERSIONS, true, 10))).containsExactly("2.2.0", "2.1.1", "2.1.0");
+
+        assertThatThrownBy(() -> VersionQuery.all().latest(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testNewestPatchPerMinor() {
+        VersionQuery query = VersionQuery.not(VersionQuery.preRelease()).newestPatchPerMinor();
+        assertThat(select(query, true)).containsExactly("1.0", "1.1.2", "1.10.0", "2.0.1", "2.1.1", "2.2.0");
+
+        // the newest patch versions of the two latest minor versions
+        assertThat(select(query.latest(2), true)).containsExactly("2.1.1", "2.2.0");
+        assertThat(select(VersionQuery.range("[1.0,2.0)").newestPatchPerMinor().latest(2), false)).containsExactly("1.10.0", "2.0-M1");
+    }
+
+    @Test
+    void testLowerBoundStopsScan() {
+        CountingList versionKeys = new CountingList(VERSIONS);
+
+        // "2.1.0" and "2.1.1" are the newest releases, the scan stops at "2.1-SNAPSHOT" below the bound
+        assertThat(versionStrings(VersionQuery.range("[2.1.0,)").selectNewest(versionKeys, false, 10))).containsExactly("2.2.0", "2.1.1", "2.1.0");
+        assertThat(versionKeys.reads).isEqualTo(VERSIONS.size() - indexOf("2.1-SNAPSHOT"));
+
+        versionKeys.reads = 0;
+        assertThat(VersionQuery.range("[1.0,1.1)").select(versionKeys, false)).hasSize(1);
+        assertThat(versionKeys.reads).isEqualTo(VERSIONS.size() - indexOf("1.0-rc1"));
+    }
+
+    @Test
+    void testNewestStopsAtFirstMatch() {
+        CountingList versionKeys = new CountingList(VERSIONS);
+
+        assertThat(VersionQuery.semVerMajor(2).selectNewest(versionKeys, false).toString()).isEqualTo("2.2.0");
+        assertThat(versionKeys.reads).isEqualTo(2);
+
+        versionKeys.reads = 0;
+        assertThat(VersionQuery.all().latest(2).selectNewest(versionKeys, true, 10)).hasSize(2);
+        assertThat(versionKeys.reads).isEqualTo(2);
+    }
+
+    private static List<String> select(VersionQuery query, boolean includeSnapshots) {
+        return versionStrings(new ArrayList<>(query.select(VERSIONS, includeSnapshots)));
+    }
+
+    private static String newest(VersionQuery query, boolean includeSnapshots) {
+        Version version = query.selectNewest(VERSIONS, includeSnapshots);
+        return version == null ? null : version.toString();
+    }
+
+    private static List<String> versionStrings(List<Version> versions) {
+        List<String> result = new ArrayList<>();
+        for (Version version : versions) {
+            result.add(version.toString());
+        }
+        return result;
+    }
+
+    private static int indexOf(String version) {
+        for (int i = 0; i < VERSIONS.size(); i++) {
+            if (VERSIONS.get(i).versionString().equals(version)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(version);
+    }
+
+    private static List<VersionKey> versionKeys(String... versions) {
+        List<VersionKey> versionKeys = new ArrayList<>();
+        for (String version : versions) {
+            versionKeys.add(versionKey(version));
+        }
+        return List.copyOf(versionKeys);
+    }
+
+    private static VersionKey versionKey(String version) {
+        try {
+            return VersionKey.of(VERSION_SCHEME.parseVersion(version));
+        } catch (InvalidVersionSpecificationException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    // counts the versions that a query reads
+    private static final class CountingList extends AbstractList<VersionKey> {
+
+        private final List<VersionKey> versionKeys;
+        private int reads = 0;
+
+        private CountingList(List<VersionKey> versionKeys) {
+            this.versionKeys = versionKeys;
+        }
+
+        @Override
+        public VersionKey get(int index) {
+            reads++;
+            return versionKeys.get(index);
+        }
+
+        @Override
+        public int size() {
+            return versionKeys.size();
+        }
+    }
+}